@@ -0,0 +1,176 @@
+package ru.axenix.smartax.dui.service.integration.cache;
+
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.integration.configuration.properties.PrintProperties;
+import ru.axenix.smartax.dui.service.integration.resilience.PrintServiceGateway;
+import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateResponseDto;
+import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Кэш метаинформации шаблонов печатных форм print-service.
+ *
+ * <p>
+ * Каталог шаблонов загружается одним запросом {@link PrintServiceGateway#findTemplates}
+ * и хранится вместе с индексом по идентификатору шаблона и строками быстрого поиска,
+ * поэтому поиск шаблонов не требует обращения к print-service. Снимок каталога перезагружается по истечении TTL
+ * либо после явной инвалидации при создании, изменении и удалении шаблона.
+ * </p>
+ *
+ * TTL задаётся через свойство {@code application.print.template-cache.ttl}, по умолчанию 5 минут.
+ *
+ * @author Velikanov Artyom.
+ */
+@Component
+public class TemplateMetaCache {
+
+    private static final String SEARCH_KEY_SEPARATOR = "\n";
+
+    private final PrintServiceGateway printServiceGateway;
+    private final long ttlNanos;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Конструктор для использования Spring.
+     *
+     * @param printServiceGateway доступ к print-service.
+     * @param printProperties     настройки интеграции с print-service.
+     */
+    public TemplateMetaCache(PrintServiceGateway printServiceGateway, PrintProperties printProperties) {
+        this.printServiceGateway = printServiceGateway;
+        this.ttlNanos = printProperties.getTemplateCache().getTtl().toNanos();
+    }
+
+    /**
+     * Получение полного каталога шаблонов.
+     *
+     * @return неизменяемый список шаблонов в порядке ответа print-service.
+     */
+    public List<TemplateMeta> findAll() {
+        return snapshot().templates();
+    }
+
+    /**
+     * Получение индекса плейсхолдеров схемы шаблона.
+     * <p>Индекс строится при первом обращении и живёт до перезагрузки снимка каталога.</p>
+     *
+     * @param templateId UUID шаблона печатной формы.
+     * @return индекс плейсхолдеров, если шаблон существует.
+     */
+    public Optional<TemplateSchemaIndex> findSchema(UUID templateId) {
+        Snapshot current = snapshot();
+        TemplateMeta template = current.index().get(templateId);
+        if (template == null) {
+            return Optional.empty();
+        }
+        return Optional.of(current.schemas().computeIfAbsent(
+                templateId, id -> TemplateSchemaIndex.of(template.getSchema())
+        ));
+    }
+
+    /**
+     * Поиск шаблонов по подстроке в коде, группе или описании без учёта регистра.
+     * <p>Строки поиска шаблонов вычисляются один раз при загрузке снимка каталога.</p>
+     *
+     * @param text строка поиска.
+     * @return шаблоны, удовлетворяющие поиску, в порядке каталога.
+     */
+    public List<TemplateMeta> search(String text) {
+        Snapshot current = snapshot();
+        String needle = text.toLowerCase(Locale.ROOT);
+        List<TemplateMeta> result = new ArrayList<>();
+        for (int i = 0; i < current.templates().size(); i++) {
+            if (current.searchKeys().get(i).contains(needle)) {
+                result.add(current.templates().get(i));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Получение метаинформации шаблона по идентификатору.
+     *
+     * @param templateId UUID шаблона печатной формы.
+     * @return метаинформация шаблона, если шаблон существует.
+     */
+    public Optional<TemplateMeta> find(UUID templateId) {
+        return Optional.ofNullable(snapshot().index().get(templateId));
+    }
+
+    /**
+     * Сброс снимка каталога. Следующее обращение загрузит каталог из print-service.
+     * <p>Ожидает завершения выполняющейся загрузки, чтобы она не сохранила устаревший снимок.</p>
+     */
+    public synchronized void invalidate() {
+        snapshot = null;
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current != null && !current.isExpired(ttlNanos)) {
+            return current;
+        }
+
+        synchronized (this) {
+            current = snapshot;
+            if (current == null || current.isExpired(ttlNanos)) {
+                current = load();
+                snapshot = current;
+            }
+            return current;
+        }
+    }
+
+    private Snapshot load() {
+        FindTemplateResponseDto response = Optional.ofNullable(printServiceGateway.findTemplates())
+                .orElseGet(FindTemplateResponseDto::new);
+
+        List<TemplateMeta> templates = Optional.ofNullable(response.getTemplates()).orElseGet(List::of).stream()
+                .filter(Objects::nonNull)
+                .toList();
+        Map<UUID, TemplateMeta> index = new HashMap<>(templates.size() * 2);
+        List<String> searchKeys = new ArrayList<>(templates.size());
+        for (TemplateMeta template : templates) {
+            if (template.getTemplateId() != null) {
+                index.putIfAbsent(template.getTemplateId(), template);
+            }
+            searchKeys.add(searchKey(template));
+        }
+
+        return new Snapshot(
+                templates, Map.copyOf(index), List.copyOf(searchKeys), new ConcurrentHashMap<>(), System.nanoTime()
+        );
+    }
+
+    private static String searchKey(TemplateMeta template) {
+        return Stream.of(template.getTemplateCode(), template.getTemplateGroup(), template.getDescription())
+                .filter(Objects::nonNull)
+                .map(value -> value.toLowerCase(Locale.ROOT))
+                .collect(Collectors.joining(SEARCH_KEY_SEPARATOR));
+    }
+
+    private record Snapshot(
+            List<TemplateMeta> templates,
+            Map<UUID, TemplateMeta> index,
+            List<String> searchKeys,
+            Map<UUID, TemplateSchemaIndex> schemas,
+            long loadedAt
+    ) {
+
+        boolean isExpired(long ttlNanos) {
+            return System.nanoTime() - loadedAt >= ttlNanos;
+        }
+    }
+}
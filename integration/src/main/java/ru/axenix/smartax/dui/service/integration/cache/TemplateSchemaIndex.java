@@ -0,0 +1,83 @@
+package ru.axenix.smartax.dui.service.integration.cache;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Индекс плейсхолдеров схемы шаблона печатной формы по наименованию.
+ *
+ * <p>
+ * Сохраняет порядок плейсхолдеров в схеме и предвычисленные наименования
+ * в нижнем регистре для быстрого поиска. Значения плейсхолдеров не преобразуются.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+public final class TemplateSchemaIndex {
+
+    private static final TemplateSchemaIndex EMPTY = new TemplateSchemaIndex(List.of(), List.of());
+
+    private final List<Map.Entry<String, Object>> placeholders;
+    private final List<String> searchKeys;
+
+    private TemplateSchemaIndex(List<Map.Entry<String, Object>> placeholders, List<String> searchKeys) {
+        this.placeholders = placeholders;
+        this.searchKeys = searchKeys;
+    }
+
+    /**
+     * Построение индекса по схеме шаблона.
+     *
+     * @param schema схема плейсхолдеров (может быть null).
+     * @return индекс плейсхолдеров.
+     */
+    public static TemplateSchemaIndex of(Map<String, Object> schema) {
+        if (schema == null || schema.isEmpty()) {
+            return EMPTY;
+        }
+
+        List<Map.Entry<String, Object>> placeholders = new ArrayList<>(schema.size());
+        List<String> searchKeys = new ArrayList<>(schema.size());
+        for (Map.Entry<String, Object> entry : schema.entrySet()) {
+            placeholders.add(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+            searchKeys.add(entry.getKey() == null ? "" : entry.getKey().toLowerCase(Locale.ROOT));
+        }
+        return new TemplateSchemaIndex(List.copyOf(placeholders), List.copyOf(searchKeys));
+    }
+
+    /**
+     * @return количество плейсхолдеров.
+     */
+    public int size() {
+        return placeholders.size();
+    }
+
+    /**
+     * Все плейсхолдеры в порядке схемы.
+     *
+     * @return неизменяемый список пар наименование → значение.
+     */
+    public List<Map.Entry<String, Object>> findAll() {
+        return placeholders;
+    }
+
+    /**
+     * Поиск плейсхолдеров по подстроке в наименовании без учёта регистра.
+     *
+     * @param text строка поиска.
+     * @return плейсхолдеры в порядке схемы.
+     */
+    public List<Map.Entry<String, Object>> search(String text) {
+        String needle = text.toLowerCase(Locale.ROOT);
+        List<Map.Entry<String, Object>> result = new ArrayList<>();
+        for (int i = 0; i < placeholders.size(); i++) {
+            if (searchKeys.get(i).contains(needle)) {
+                result.add(placeholders.get(i));
+            }
+        }
+        return result;
+    }
+}
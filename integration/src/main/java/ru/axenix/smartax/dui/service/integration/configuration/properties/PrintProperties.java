@@ -0,0 +1,71 @@
+package ru.axenix.smartax.dui.service.integration.configuration.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.NestedConfigurationProperty;
+
+import java.time.Duration;
+
+/**
+ * Настройки интеграции с print-service.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.print")
+public class PrintProperties {
+
+    /**
+     * Настройки кэша метаинформации шаблонов.
+     */
+    private TemplateCache templateCache = new TemplateCache();
+
+    /**
+     * Настройки пакетного получения шаблонов.
+     */
+    private Batch batch = new Batch();
+
+    /**
+     * Настройки защиты вызовов print-service.
+     */
+    @NestedConfigurationProperty
+    private PrintServiceResilienceProperties resilience = new PrintServiceResilienceProperties();
+
+    /**
+     * Настройки кэша метаинформации шаблонов.
+     */
+    @Getter
+    @Setter
+    public static class TemplateCache {
+
+        /**
+         * Время жизни снимка каталога шаблонов.
+         */
+        private Duration ttl = Duration.ofMinutes(5);
+    }
+
+    /**
+     * Настройки пакетного получения шаблонов.
+     */
+    @Getter
+    @Setter
+    public static class Batch {
+
+        /**
+         * Максимальное количество одновременно получаемых шаблонов пакета.
+         */
+        private int maxConcurrency = 4;
+
+        /**
+         * Максимальное количество шаблонов пакетов, ожидающих получения.
+         */
+        private int queueCapacity = 100;
+
+        /**
+         * Максимальное время получения пакета.
+         */
+        private Duration timeout = Duration.ofSeconds(60);
+    }
+}
@@ -0,0 +1,82 @@
+package ru.axenix.smartax.dui.service.integration.configuration.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.Duration;
+
+/**
+ * Настройки защиты вызовов print-service ({@code application.print.resilience}).
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@Setter
+public class PrintServiceResilienceProperties {
+
+    /**
+     * Признак включенной защиты вызовов. При выключенной защите вызовы выполняются напрямую.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Максимальное количество одновременных вызовов print-service.
+     */
+    private int maxConcurrentCalls = 16;
+
+    /**
+     * Максимальное время ожидания свободного слота для вызова.
+     */
+    private Duration maxWaitDuration = Duration.ofMillis(500);
+
+    /**
+     * Таймауты операций.
+     */
+    private Timeout timeout = new Timeout();
+
+    /**
+     * Настройки автоматического выключателя.
+     */
+    private CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * Таймауты операций print-service.
+     */
+    @Getter
+    @Setter
+    public static class Timeout {
+
+        /**
+         * Таймаут получения каталога шаблонов.
+         */
+        private Duration find = Duration.ofSeconds(10);
+
+        /**
+         * Таймаут скачивания файла шаблона.
+         */
+        private Duration download = Duration.ofSeconds(30);
+
+        /**
+         * Таймаут создания, обновления и удаления шаблона.
+         */
+        private Duration write = Duration.ofSeconds(60);
+    }
+
+    /**
+     * Настройки автоматического выключателя.
+     */
+    @Getter
+    @Setter
+    public static class CircuitBreaker {
+
+        /**
+         * Количество ошибок подряд, после которого вызовы прекращаются.
+         */
+        private int failureThreshold = 5;
+
+        /**
+         * Время, в течение которого вызовы не выполняются после срабатывания.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+}
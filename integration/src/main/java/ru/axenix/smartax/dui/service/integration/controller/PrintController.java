@@ -20,30 +20,35 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.axenix.smartax.common.security.Authorization;
+import ru.axenix.smartax.dui.service.integration.cache.TemplateMetaCache;
 import ru.axenix.smartax.dui.service.integration.dto.TemplateRequest;
 import ru.axenix.smartax.dui.service.integration.dto.TemplateDto;
 import ru.axenix.smartax.dui.service.integration.mapper.Base64FileMapper;
 import ru.axenix.smartax.dui.service.integration.mapper.TemplateMapper;
+import ru.axenix.smartax.dui.service.integration.resilience.PrintServiceGateway;
 import ru.axenix.smartax.dui.service.model.table.FileResponseDto;
-import ru.axenix.smartax.dui.service.integration.mapper.TemplateTableMapper;
+import ru.axenix.smartax.dui.service.integration.service.TemplateFetcher;
+import ru.axenix.smartax.dui.service.integration.stream.TemplateContent;
+import ru.axenix.smartax.dui.service.integration.stream.TemplateJsonWriter;
+import ru.axenix.smartax.dui.service.integration.stream.TemporaryFile;
+import ru.axenix.smartax.dui.service.integration.table.TemplateTableQuery;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
+import ru.axenix.smartax.dui.service.model.table.TableRequestUtils;
 import ru.axenix.smartax.dui.service.model.table.TableResponse;
-import ru.axenix.smartax.printservice.client.TemplateServiceClient;
 import ru.axenix.smartax.printservice.model.templateview.create.CreateTemplateRequestDto;
-import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateRequestDto;
-import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateResponseDto;
-import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
 import ru.axenix.smartax.printservice.model.templateview.update.UpdateTemplateByIdRequestDto;
 import ru.axenix.smartax.web.swagger.annotation.BaseResponse;
 
-import java.io.File;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.util.Base64;
-import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import java.util.UUID;
 
 
@@ -61,17 +66,26 @@ public class PrintController {
 
     private static final String FILENAME = "file.bin";
     private static final int LIMIT_SCHEMA = 5;
+    private static final int MAX_BATCH_SIZE = 20;
+    private static final int MAX_LIMIT_SCHEMA = 500;
+    private static final TypeReference<Map<String, Object>> PLACEHOLDER_TYPE = new TypeReference<>() { };
+    private static final String RANGE_UNIT = "bytes";
 
-    private final TemplateServiceClient templateServiceClient;
+    private final PrintServiceGateway printServiceGateway;
+    private final TemplateMetaCache templateMetaCache;
 
     private final ObjectMapper objectMapper;
-    private final TemplateTableMapper templateTableMapper;
     private final Base64FileMapper base64FileMapper;
     private final TemplateMapper templateMapper;
+    private final TemplateJsonWriter templateJsonWriter;
+    private final TemplateTableQuery templateTableQuery;
+    private final TemplateFetcher templateFetcher;
 
     /**
      * Получение списка шаблонов печатной формы с фильтрацией, сортировкой и пагинацией.
      *
+     * @param request    универсальный запрос для sdi-table.
+     * @param withSchema признак включения схемы плейсхолдеров в записи списка.
      * @return Список шаблонов печатной формы
      */
     @Operation(
@@ -83,14 +97,16 @@ public class PrintController {
     @BaseResponse
     @Authorization
     @PostMapping("/filter")
-    public TableResponse getTemplates() {
-        FindTemplateResponseDto response = templateServiceClient.findTemplates(new FindTemplateRequestDto());
-
-        return templateTableMapper.toTableResponse(response);
+    public TableResponse getTemplates(
+            @RequestBody(required = false) TableRequest request,
+            @RequestParam(value = "withSchema", defaultValue = "false") boolean withSchema
+    ) {
+        return templateTableQuery.find(request, withSchema);
     }
 
     /**
      * Получение шаблона печатной формы.
+     * <p>Контент файла кодируется в Base64 потоково при записи ответа.</p>
      *
      * @param templateId UUID шаблона печатной формы.
      * @return шаблон печатной формы.
@@ -104,28 +120,59 @@ public class PrintController {
     @BaseResponse
     @Authorization
     @GetMapping("/{templateId}")
-    public TemplateDto getTemplate(@PathVariable("templateId") UUID templateId) {
-        TemplateMeta response = Optional.ofNullable(templateServiceClient.findTemplates(new FindTemplateRequestDto()))
-                .map(FindTemplateResponseDto::getTemplates)
-                .stream()
-                .flatMap(List::stream)
-                .filter(t -> templateId.equals(t.getTemplateId()))
-                .findFirst()
-                .orElse(null);
-        byte[] data = templateServiceClient.downloadTemplate(templateId);
+    public ResponseEntity<StreamingResponseBody> getTemplate(@PathVariable("templateId") UUID templateId) {
+        return templateFetcher.fetch(templateId)
+                .map(fetched -> {
+                    TemplateContent template = toContent(templateId, fetched);
+                    return ResponseEntity.ok()
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .<StreamingResponseBody>body(output -> templateJsonWriter.write(
+                                    template.template(),
+                                    new ByteArrayInputStream(template.content()),
+                                    template.content().length,
+                                    output
+                            ));
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-        FileResponseDto file = new FileResponseDto(
-                templateId.toString(),
-                FILENAME,
-                Base64.getEncoder().encodeToString(data)
-        );
-        return templateMapper.toDto(response, file);
+    /**
+     * Пакетное получение шаблонов печатных форм с файлами.
+     * <p>Шаблоны получаются параллельно, ненайденные шаблоны в ответ не попадают.</p>
+     *
+     * @param templateIds список UUID шаблонов печатных форм, не более {@value #MAX_BATCH_SIZE}.
+     * @return список шаблонов печатных форм в порядке запроса.
+     * @throws TemplateBatchTooLargeException если запрошено больше {@value #MAX_BATCH_SIZE} шаблонов.
+     */
+    @Operation(
+            tags = "Интеграция с сервисом печатных форм",
+            summary = "Пакетное получение шаблонов печатных форм",
+            description = "Пакетное получение шаблонов печатных форм с файлами",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @Authorization
+    @PostMapping("/batch")
+    public ResponseEntity<StreamingResponseBody> getTemplatesBatch(@RequestBody List<UUID> templateIds) {
+        if (templateIds.size() > MAX_BATCH_SIZE) {
+            throw new TemplateBatchTooLargeException(MAX_BATCH_SIZE);
+        }
+
+        List<TemplateContent> templates = templateFetcher.fetchAll(templateIds).stream()
+                .map(fetched -> toContent(fetched.meta().getTemplateId(), fetched))
+                .toList();
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(output -> templateJsonWriter.writeAll(templates.iterator(), output));
     }
 
     /**
-     * Получение схемы плейсхолдеров шаблона печатной формы
+     * Получение схемы плейсхолдеров шаблона печатной формы с быстрым поиском по наименованию и пагинацией.
+     * <p>Преобразуются только плейсхолдеры запрошенной страницы.</p>
      *
      * @param templateId UUID шаблона печатной формы.
+     * @param request универсальный запрос для sdi-table.
      * @return таблица с плейсхолдерами.
      */
     @Operation(
@@ -137,24 +184,25 @@ public class PrintController {
     @BaseResponse
     @Authorization
     @PostMapping("/{templateId}/schema")
-    public TableResponse getTemplateSchema(@PathVariable("templateId") UUID templateId) {
+    public TableResponse getTemplateSchema(
+            @PathVariable("templateId") UUID templateId,
+            @RequestBody(required = false) TableRequest request
+    ) {
+        List<Map.Entry<String, Object>> placeholders = templateMetaCache.findSchema(templateId)
+                .map(index -> TableRequestUtils.quickSearch(request)
+                        .map(index::search)
+                        .orElseGet(index::findAll))
+                .orElseGet(List::of);
 
-        var result = Optional.ofNullable(templateServiceClient.findTemplates(new FindTemplateRequestDto()))
-                .map(FindTemplateResponseDto::getTemplates)
-                .stream()
-                .flatMap(List::stream)
-                .filter(t -> templateId.equals(t.getTemplateId()))
-                .findFirst()
-                .map(TemplateMeta::getSchema)
-                .map(Map::values)
-                .stream()
-                .flatMap(Collection::stream)
-                .map(v -> objectMapper.convertValue(
-                        v, new TypeReference<Map<String, Object>>() { }))
-                .toList();
+        int total = placeholders.size();
+        int limit = TableRequestUtils.limit(request, LIMIT_SCHEMA, MAX_LIMIT_SCHEMA);
+        int from = (int) Math.min((long) TableRequestUtils.pageIndex(request) * limit, total);
+        int to = Math.min(from + limit, total);
 
-        int total = result.size();
-        List<Map<String, Object>> page = total > LIMIT_SCHEMA ? result.subList(0, LIMIT_SCHEMA) : result;
+        List<Map<String, Object>> page = placeholders.subList(from, to).stream()
+                .map(Map.Entry::getValue)
+                .map(v -> objectMapper.convertValue(v, PLACEHOLDER_TYPE))
+                .toList();
 
         return new TableResponse(total, page);
     }
@@ -175,19 +223,56 @@ public class PrintController {
     @Authorization
     @PostMapping
     public void createTemplate(@RequestBody TemplateRequest request) throws IOException {
-        File tempFile = base64FileMapper.map(
+        CreateTemplateRequestDto requestPrint = new CreateTemplateRequestDto();
+        requestPrint.setDescription(request.getDescription());
+        requestPrint.setTemplateCode(request.getTemplateCode());
+
+        try (TemporaryFile tempFile = base64FileMapper.map(
                 request.getFile().getContent(),
                 request.getFile().getName()
-        );
+        )) {
+            printServiceGateway.createTemplate(
+                    requestPrint,
+                    tempFile.toFile()
+            );
+        }
+        templateMetaCache.invalidate();
+    }
 
+    /**
+     * Создание печатной формы с передачей файла в multipart/form-data.
+     * <p>Файл передаётся в print-service без кодирования в Base64.</p>
+     *
+     * @param templateCode код шаблона.
+     * @param description описание шаблона.
+     * @param file файл шаблона.
+     * @throws IOException ошибка обработки контента файла.
+     */
+    @Operation(
+            tags = "Интеграция с сервисом печатных форм",
+            summary = "Создание печатной формы (multipart)",
+            description = "Создание печатной формы с передачей файла в multipart/form-data",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @Authorization
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public void createTemplateMultipart(
+            @RequestParam("templateCode") String templateCode,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestPart("file") MultipartFile file
+    ) throws IOException {
         CreateTemplateRequestDto requestPrint = new CreateTemplateRequestDto();
-        requestPrint.setDescription(request.getDescription());
-        requestPrint.setTemplateCode(request.getTemplateCode());
+        requestPrint.setDescription(description);
+        requestPrint.setTemplateCode(templateCode);
 
-        templateServiceClient.createTemplate(
-                requestPrint,
-                tempFile
-        );
+        try (TemporaryFile tempFile = base64FileMapper.map(file)) {
+            printServiceGateway.createTemplate(
+                    requestPrint,
+                    tempFile.toFile()
+            );
+        }
+        templateMetaCache.invalidate();
     }
 
     /**
@@ -207,19 +292,56 @@ public class PrintController {
     @Authorization
     @PutMapping("/{templateId}")
     public void updateTemplate(@PathVariable("templateId") UUID templateId, @RequestBody TemplateDto request) throws IOException {
-        File tempFile = base64FileMapper.map(
+        UpdateTemplateByIdRequestDto requestPrint = new UpdateTemplateByIdRequestDto();
+        requestPrint.setDescription(request.getDescription());
+        requestPrint.setTemplateId(templateId);
+
+        try (TemporaryFile tempFile = base64FileMapper.map(
                 request.getFile().getContent(),
                 request.getFile().getName()
-        );
+        )) {
+            printServiceGateway.updateTemplate(
+                    requestPrint,
+                    tempFile.toFile()
+            );
+        }
+        templateMetaCache.invalidate();
+    }
 
+    /**
+     * Обновление печатной формы с передачей файла в multipart/form-data.
+     * <p>Файл передаётся в print-service без кодирования в Base64.</p>
+     *
+     * @param templateId идентификатор шаблона.
+     * @param description описание шаблона.
+     * @param file файл шаблона.
+     * @throws IOException ошибка обработки контента файла.
+     */
+    @Operation(
+            tags = "Интеграция с сервисом печатных форм",
+            summary = "Обновление печатной формы (multipart)",
+            description = "Обновление печатной формы с передачей файла в multipart/form-data",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @Authorization
+    @PutMapping(value = "/{templateId}", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public void updateTemplateMultipart(
+            @PathVariable("templateId") UUID templateId,
+            @RequestParam(value = "description", required = false) String description,
+            @RequestPart("file") MultipartFile file
+    ) throws IOException {
         UpdateTemplateByIdRequestDto requestPrint = new UpdateTemplateByIdRequestDto();
-        requestPrint.setDescription(request.getDescription());
+        requestPrint.setDescription(description);
         requestPrint.setTemplateId(templateId);
 
-        templateServiceClient.updateTemplate(
-                requestPrint,
-                tempFile
-        );
+        try (TemporaryFile tempFile = base64FileMapper.map(file)) {
+            printServiceGateway.updateTemplate(
+                    requestPrint,
+                    tempFile.toFile()
+            );
+        }
+        templateMetaCache.invalidate();
     }
 
     /**
@@ -237,11 +359,13 @@ public class PrintController {
     @Authorization
     @DeleteMapping("/{templateId}")
     public void deleteTemplate(@PathVariable("templateId") UUID templateId) {
-        templateServiceClient.deleteTemplateById(templateId);
+        printServiceGateway.deleteTemplateById(templateId);
+        templateMetaCache.invalidate();
     }
 
     /**
      * Скачивание файла печатной формы по UUID.
+     * <p>Поддерживается заголовок Range: запрошенные диапазоны отдаются ответом 206.</p>
      *
      * @param templateId UUID шаблона печатной формы.
      * @return файл печатной формы.
@@ -256,12 +380,21 @@ public class PrintController {
     @Authorization
     @GetMapping("/{templateId}/download")
     public ResponseEntity<ByteArrayResource> downloadTemplate(@PathVariable("templateId") UUID templateId) {
-        byte[] data = templateServiceClient.downloadTemplate(templateId);
+        byte[] data = printServiceGateway.downloadTemplate(templateId);
 
         return ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .contentLength(data.length)
+                .header(HttpHeaders.ACCEPT_RANGES, RANGE_UNIT)
                 .body(new ByteArrayResource(data));
     }
 
-}
\ No newline at end of file
+    private TemplateContent toContent(UUID templateId, TemplateFetcher.FetchedTemplate fetched) {
+        FileResponseDto file = new FileResponseDto(
+                templateId.toString(),
+                FILENAME,
+                null
+        );
+        return new TemplateContent(templateMapper.toDto(fetched.meta(), file), fetched.content());
+    }
+
+}
@@ -0,0 +1,21 @@
+package ru.axenix.smartax.dui.service.integration.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Превышено количество шаблонов в пакетном запросе.
+ *
+ * @author Velikanov Artyom.
+ */
+public class TemplateBatchTooLargeException extends ResponseStatusException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param limit максимальное количество шаблонов в запросе.
+     */
+    public TemplateBatchTooLargeException(int limit) {
+        super(HttpStatus.BAD_REQUEST, "Превышено количество шаблонов в запросе, допускается не более " + limit);
+    }
+}
@@ -2,25 +2,32 @@ package ru.axenix.smartax.dui.service.integration.mapper;
 
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import ru.axenix.smartax.dui.service.integration.stream.TemporaryFile;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.Base64;
+import java.util.Objects;
 
 /**
  * Mapper для преобразования содержимого файла,
  * представленного в виде Base64-строки,
- * во временный файл {@link File}.
+ * во временный файл {@link TemporaryFile}.
  *
  * Маппер обеспечивает:
  * <ul>
  *     <li>нормализацию имени файла;</li>
  *     <li>создание безопасной приватной временной директории;</li>
  *     <li>создание временного файла с безопасным именем;</li>
- *     <li>запись бинарного содержимого на диск;</li>
+ *     <li>потоковое декодирование Base64 на диск без промежуточного массива байт;</li>
+ *     <li>удаление файла при закрытии {@link TemporaryFile};</li>
  * </ul>
  *
  * Базовый каталог задаётся через свойство {@code app.files.temp-dir}.
@@ -28,6 +35,9 @@ import java.util.Base64;
  *
  * Используется там, где необходимо конвертировать
  * файл, полученный от внешних систем, в локальный временный объект {@link File}.
+ * Файл multipart-загрузки переносится во временный файл методом {@link #map(MultipartFile)}
+ * без промежуточного копирования.
+ * Вызывающий код обязан закрыть полученный {@link TemporaryFile}.
  *
  * @author Artem Velikanov.
  */
@@ -71,28 +81,61 @@ public class Base64FileMapper {
 
     /**
      * Преобразует содержимое в Base64 в локальный временный файл.
+     * <p>Строка декодируется потоково, декодированный контент целиком в памяти не создаётся.</p>
      *
      * @param base64Content строка Base64 с бинарным содержимым файла.
      * @param originalFileName исходное имя файла, полученное от внешней системы.
-     * @return временный файл {@link File}, содержащий декодированные данные.
-     * @throws IOException если произошла ошибка при создании каталога или записи файла.
+     * @return временный файл {@link TemporaryFile}, содержащий декодированные данные.
+     * @throws IOException если произошла ошибка при создании каталога, декодировании или записи файла.
      */
-    public File map(String base64Content, String originalFileName) throws IOException {
-        byte[] data = Base64.getDecoder().decode(base64Content);
+    public TemporaryFile map(String base64Content, String originalFileName) throws IOException {
+        Path tempFile = createTempFile(originalFileName);
+        try (InputStream content = Base64.getDecoder().wrap(new AsciiInputStream(base64Content))) {
+            Files.copy(content, tempFile, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new TemporaryFile(tempFile);
+    }
 
+    /**
+     * Переносит файл multipart-загрузки в локальный временный файл.
+     * <p>Используется {@link MultipartFile#transferTo(File)}: файл части, уже сохранённый контейнером
+     * сервлетов на диск, перемещается, а не копируется повторно.</p>
+     *
+     * @param file файл multipart-загрузки.
+     * @return временный файл {@link TemporaryFile} с содержимым загрузки.
+     * @throws IOException если произошла ошибка при создании каталога или переносе файла.
+     */
+    public TemporaryFile map(MultipartFile file) throws IOException {
+        Path tempFile = createTempFile(file.getOriginalFilename());
+        try {
+            file.transferTo(tempFile.toFile());
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tempFile);
+            throw e;
+        }
+        return new TemporaryFile(tempFile);
+    }
+
+    /**
+     * Создаёт пустой временный файл с безопасным именем в приватной временной директории.
+     *
+     * @param originalFileName исходное имя файла, полученное от внешней системы.
+     * @return путь к временному файлу.
+     * @throws IOException если произошла ошибка при создании каталога или файла.
+     */
+    private Path createTempFile(String originalFileName) throws IOException {
         String safeName = normalizeFileName(originalFileName);
 
         Path tempDir = createPrivateTempDirectory();
 
-        Path tempFile = Files.createTempFile(
+        return Files.createTempFile(
                 tempDir,
                 FILE_PREFIX,
                 UNDERSCORE + safeName
         );
-
-        Files.write(tempFile, data);
-
-        return tempFile.toFile();
     }
 
     /**
@@ -120,4 +163,45 @@ public class Base64FileMapper {
         Files.createDirectories(baseTempDir);
         return baseTempDir;
     }
+
+    /**
+     * Поток байт поверх строки из ASCII-символов без копирования строки в массив.
+     * Символы вне ASCII заменяются на {@link #INVALID}, чтобы декодер Base64 отклонил строку.
+     */
+    private static final class AsciiInputStream extends InputStream {
+
+        private static final byte INVALID = '?';
+
+        private final CharSequence source;
+        private int position;
+
+        private AsciiInputStream(CharSequence source) {
+            this.source = source == null ? "" : source;
+        }
+
+        @Override
+        public int read() {
+            return position < source.length() ? toByte(source.charAt(position++)) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) {
+            Objects.checkFromIndexSize(offset, length, buffer.length);
+            if (length == 0) {
+                return 0;
+            }
+            int count = Math.min(length, source.length() - position);
+            if (count <= 0) {
+                return -1;
+            }
+            for (int i = 0; i < count; i++) {
+                buffer[offset + i] = toByte(source.charAt(position++));
+            }
+            return count;
+        }
+
+        private static byte toByte(char c) {
+            return c < 0x80 ? (byte) c : INVALID;
+        }
+    }
 }
@@ -57,6 +57,23 @@ public interface TemplateTableMapper {
                 .toList();
     }
 
+    /**
+     * Преобразование страницы шаблонов в TableResponse.
+     *
+     * @param total      общее количество шаблонов, удовлетворяющих запросу.
+     * @param templates  шаблоны страницы.
+     * @param withSchema признак включения схемы плейсхолдеров в записи.
+     * @return универсальный ответ для sdi-table.
+     */
+    default TableResponse toTableResponse(int total, List<TemplateMeta> templates, boolean withSchema) {
+        return new TableResponse(
+                total,
+                templates.stream()
+                        .map(t -> templateToRecord(t, withSchema))
+                        .toList()
+        );
+    }
+
     /**
      * Преобразование одного TemplateMeta в запись таблицы.
      *
@@ -64,6 +81,17 @@ public interface TemplateTableMapper {
      * @return запись таблицы.
      */
     default Map<String, Object> templateToRecord(TemplateMeta t) {
+        return templateToRecord(t, true);
+    }
+
+    /**
+     * Преобразование одного TemplateMeta в запись таблицы.
+     *
+     * @param t          метаинформация о шаблоне.
+     * @param withSchema признак включения схемы плейсхолдеров.
+     * @return запись таблицы.
+     */
+    default Map<String, Object> templateToRecord(TemplateMeta t, boolean withSchema) {
         Map<String, Object> map = new HashMap<>();
         if (t == null) {
             return map;
@@ -73,7 +101,9 @@ public interface TemplateTableMapper {
         map.put("templateCode", t.getTemplateCode());
         map.put("templateGroup", t.getTemplateGroup());
         map.put("description", t.getDescription());
-        map.put("schema", t.getSchema());
+        if (withSchema) {
+            map.put("schema", t.getSchema());
+        }
         map.put("creationDate", t.getCreationDate());
         map.put("updateDate", t.getUpdateDate());
 
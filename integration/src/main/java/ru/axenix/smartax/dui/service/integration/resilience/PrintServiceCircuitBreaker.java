@@ -0,0 +1,72 @@
+package ru.axenix.smartax.dui.service.integration.resilience;
+
+import java.time.Duration;
+
+/**
+ * Автоматический выключатель вызовов print-service.
+ *
+ * <p>
+ * После {@code failureThreshold} ошибок подряд вызовы отклоняются в течение {@code openDuration}.
+ * Затем пропускается один пробный вызов: успех закрывает выключатель, ошибка открывает его снова.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+final class PrintServiceCircuitBreaker {
+
+    private enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int failureThreshold;
+    private final long openNanos;
+
+    private State state = State.CLOSED;
+    private int failures;
+    private long openedAt;
+
+    PrintServiceCircuitBreaker(int failureThreshold, Duration openDuration) {
+        this.failureThreshold = Math.max(failureThreshold, 1);
+        this.openNanos = openDuration.toNanos();
+    }
+
+    /**
+     * Получение разрешения на вызов.
+     *
+     * @return true, если вызов разрешён.
+     */
+    synchronized boolean tryAcquire() {
+        if (state == State.CLOSED) {
+            return true;
+        }
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            state = State.HALF_OPEN;
+            return true;
+        }
+        return false;
+    }
+
+    synchronized void onSuccess() {
+        state = State.CLOSED;
+        failures = 0;
+    }
+
+    /**
+     * Отмена вызова без результата: пробный вызов не закрывает и не открывает выключатель,
+     * следующий вызов снова становится пробным.
+     */
+    synchronized void onCancel() {
+        if (state == State.HALF_OPEN) {
+            state = State.OPEN;
+            openedAt = System.nanoTime() - openNanos;
+        }
+    }
+
+    synchronized void onFailure() {
+        if (state == State.HALF_OPEN || ++failures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = System.nanoTime();
+            failures = 0;
+        }
+    }
+}
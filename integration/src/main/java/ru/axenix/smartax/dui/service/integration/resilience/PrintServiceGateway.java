@@ -0,0 +1,531 @@
+package ru.axenix.smartax.dui.service.integration.resilience;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.client.RestClientResponseException;
+import ru.axenix.smartax.dui.service.integration.configuration.properties.PrintProperties;
+import ru.axenix.smartax.dui.service.integration.configuration.properties.PrintServiceResilienceProperties;
+import ru.axenix.smartax.printservice.client.TemplateServiceClient;
+import ru.axenix.smartax.printservice.model.templateview.create.CreateTemplateRequestDto;
+import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateRequestDto;
+import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateResponseDto;
+import ru.axenix.smartax.printservice.model.templateview.update.UpdateTemplateByIdRequestDto;
+
+import java.io.File;
+import java.time.Duration;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Защищённый доступ к print-service.
+ *
+ * <p>
+ * Каждый вызов {@link TemplateServiceClient} выполняется в пуле потоков размером {@code max-concurrent-calls}:
+ * <ul>
+ *     <li>с таймаутом операции, по истечении которого вызывающий перестаёт ожидать результат;</li>
+ *     <li>в пределах ограничения одновременных вызовов (bulkhead);</li>
+ *     <li>через автоматический выключатель, который прекращает вызовы после серии ошибок.</li>
+ * </ul>
+ * Одновременные одинаковые вызовы {@code findTemplates} и {@code downloadTemplate}
+ * объединяются в один запрос к print-service. Поток запроса прерывается, когда его результат
+ * больше никто не ожидает: по таймауту, прерыванию или отмене последнего вызывающего.
+ * При недоступности print-service {@code findTemplates} возвращает последний успешно полученный каталог.
+ * </p>
+ *
+ * Ошибкой выключателя считаются ответы 5xx, ошибки ввода-вывода, таймауты и отказы bulkhead.
+ * Ответы 4xx передаются вызывающему как есть и считаются успешным обращением к сервису.
+ *
+ * @author Velikanov Artyom.
+ */
+@Slf4j
+@Component
+public class PrintServiceGateway implements DisposableBean {
+
+    private static final String FIND_TEMPLATES = "findTemplates";
+    private static final String DOWNLOAD_TEMPLATE = "downloadTemplate";
+    private static final String CREATE_TEMPLATE = "createTemplate";
+    private static final String UPDATE_TEMPLATE = "updateTemplate";
+    private static final String DELETE_TEMPLATE = "deleteTemplate";
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final TemplateServiceClient templateServiceClient;
+    private final PrintServiceResilienceProperties properties;
+    private final Semaphore bulkhead;
+    private final PrintServiceCircuitBreaker circuitBreaker;
+    private final ExecutorService executor;
+    private final Map<Object, SharedCall<?>> inFlight = new ConcurrentHashMap<>();
+
+    private volatile FindTemplateResponseDto lastCatalog;
+
+    /**
+     * @param templateServiceClient клиент print-service.
+     * @param printProperties       настройки интеграции с print-service.
+     */
+    public PrintServiceGateway(TemplateServiceClient templateServiceClient, PrintProperties printProperties) {
+        this.templateServiceClient = templateServiceClient;
+        this.properties = printProperties.getResilience();
+        this.bulkhead = new Semaphore(Math.max(properties.getMaxConcurrentCalls(), 1));
+        this.circuitBreaker = new PrintServiceCircuitBreaker(
+                properties.getCircuitBreaker().getFailureThreshold(),
+                properties.getCircuitBreaker().getOpenDuration()
+        );
+        this.executor = createExecutor(Math.max(properties.getMaxConcurrentCalls(), 1));
+    }
+
+    /**
+     * Получение полного каталога шаблонов.
+     *
+     * @return ответ поиска шаблонов print-service либо последний полученный каталог при недоступности сервиса.
+     */
+    public FindTemplateResponseDto findTemplates() {
+        try {
+            FindTemplateResponseDto response = await(coalesce(
+                    FIND_TEMPLATES, FIND_TEMPLATES, properties.getTimeout().getFind(),
+                    () -> templateServiceClient.findTemplates(new FindTemplateRequestDto())
+            ), FIND_TEMPLATES);
+            lastCatalog = response;
+            return response;
+        } catch (PrintServiceUnavailableException e) {
+            FindTemplateResponseDto fallback = lastCatalog;
+            if (fallback == null) {
+                throw e;
+            }
+            log.warn("print-service недоступен, используется последний полученный каталог шаблонов: {}", e.getMessage());
+            return fallback;
+        }
+    }
+
+    /**
+     * Скачивание файла шаблона.
+     *
+     * @param templateId UUID шаблона печатной формы.
+     * @return контент файла шаблона.
+     */
+    public byte[] downloadTemplate(UUID templateId) {
+        return await(downloadTemplateAsync(templateId), DOWNLOAD_TEMPLATE);
+    }
+
+    /**
+     * Скачивание файла шаблона без ожидания результата.
+     * <p>
+     * Результат завершается {@link PrintServiceUnavailableException}, если вызов отклонён
+     * или не завершился за таймаут скачивания. Отмена результата завершает ожидание вызывающего;
+     * вызов print-service прерывается, если его результат больше никто не ожидает.
+     * </p>
+     *
+     * @param templateId UUID шаблона печатной формы.
+     * @return контент файла шаблона.
+     */
+    public CompletableFuture<byte[]> downloadTemplateAsync(UUID templateId) {
+        return coalesce(
+                new DownloadKey(templateId), DOWNLOAD_TEMPLATE, properties.getTimeout().getDownload(),
+                () -> templateServiceClient.downloadTemplate(templateId)
+        );
+    }
+
+    /**
+     * Создание шаблона.
+     *
+     * @param request запрос на создание.
+     * @param file    файл шаблона.
+     */
+    public void createTemplate(CreateTemplateRequestDto request, File file) {
+        await(execute(CREATE_TEMPLATE, properties.getTimeout().getWrite(), () -> {
+            templateServiceClient.createTemplate(request, file);
+            return null;
+        }), CREATE_TEMPLATE);
+    }
+
+    /**
+     * Обновление шаблона.
+     *
+     * @param request запрос на обновление.
+     * @param file    файл шаблона.
+     */
+    public void updateTemplate(UpdateTemplateByIdRequestDto request, File file) {
+        await(execute(UPDATE_TEMPLATE, properties.getTimeout().getWrite(), () -> {
+            templateServiceClient.updateTemplate(request, file);
+            return null;
+        }), UPDATE_TEMPLATE);
+    }
+
+    /**
+     * Удаление шаблона.
+     *
+     * @param templateId UUID шаблона печатной формы.
+     */
+    public void deleteTemplateById(UUID templateId) {
+        await(execute(DELETE_TEMPLATE, properties.getTimeout().getWrite(), () -> {
+            templateServiceClient.deleteTemplateById(templateId);
+            return null;
+        }), DELETE_TEMPLATE);
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Пул потоков вызовов print-service.
+     * <p>
+     * Количество одновременных вызовов ограничено bulkhead, очередь принимает задачи,
+     * разрешение на которые получено до возврата потока предыдущего вызова в пул.
+     * </p>
+     *
+     * @param size количество потоков.
+     * @return пул потоков.
+     */
+    private static ExecutorService createExecutor(int size) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("print-service-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                size, size, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(size), threadFactory
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    /**
+     * Присоединение к выполняющемуся одинаковому вызову либо запуск нового.
+     *
+     * @param key       ключ объединения вызовов.
+     * @param operation название операции.
+     * @param timeout   таймаут ожидания результата.
+     * @param call      вызов клиента print-service.
+     * @return результат вызова для вызывающего.
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> coalesce(Object key, String operation, Duration timeout, Callable<T> call) {
+        if (!properties.isEnabled()) {
+            return callDirectly(call);
+        }
+
+        while (true) {
+            SharedCall<T> shared = new SharedCall<>(key);
+            SharedCall<T> existing = (SharedCall<T>) inFlight.putIfAbsent(key, shared);
+            if (existing == null) {
+                return start(shared, operation, timeout, call);
+            }
+            if (existing.join()) {
+                return subscribe(existing, operation, timeout);
+            }
+            inFlight.remove(key, existing);
+        }
+    }
+
+    private <T> CompletableFuture<T> execute(String operation, Duration timeout, Callable<T> call) {
+        if (!properties.isEnabled()) {
+            return callDirectly(call);
+        }
+        return start(new SharedCall<>(null), operation, timeout, call);
+    }
+
+    private <T> CompletableFuture<T> start(SharedCall<T> shared, String operation, Duration timeout, Callable<T> call) {
+        GuardedCall<T> task;
+        try {
+            task = launch(operation, call);
+        } catch (RuntimeException e) {
+            shared.fail(e);
+            return CompletableFuture.failedFuture(e);
+        }
+        shared.attach(task);
+        return subscribe(shared, operation, timeout);
+    }
+
+    /**
+     * Запуск вызова в пуле потоков в пределах bulkhead и выключателя.
+     *
+     * @param operation название операции.
+     * @param call      вызов клиента print-service.
+     * @return запущенный вызов.
+     */
+    private <T> GuardedCall<T> launch(String operation, Callable<T> call) {
+        acquireBulkhead(operation);
+        if (!circuitBreaker.tryAcquire()) {
+            bulkhead.release();
+            throw new PrintServiceUnavailableException(
+                    "print-service: вызов " + operation + " отклонён, сервис недоступен"
+            );
+        }
+
+        GuardedCall<T> task = new GuardedCall<>(call);
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            bulkhead.release();
+            circuitBreaker.onFailure();
+            throw new PrintServiceUnavailableException("print-service: вызов " + operation + " отклонён", e);
+        }
+        return task;
+    }
+
+    /**
+     * Результат общего вызова для одного вызывающего.
+     * <p>
+     * Таймаут и отмена завершают только ожидание этого вызывающего. Общий вызов отменяется,
+     * когда его результат больше никто не ожидает; отмена по таймауту учитывается выключателем как ошибка,
+     * отмена вызывающим — нет.
+     * </p>
+     *
+     * @param shared    общий вызов.
+     * @param operation название операции.
+     * @param timeout   таймаут ожидания результата.
+     * @return результат вызова.
+     */
+    private <T> CompletableFuture<T> subscribe(SharedCall<T> shared, String operation, Duration timeout) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        shared.result().whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(error);
+            }
+        });
+        CompletableFuture.delayedExecutor(timeout.toNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+            PrintServiceUnavailableException expired = new PrintServiceUnavailableException(
+                    "print-service: вызов " + operation + " не завершился за " + timeout
+            );
+            if (result.completeExceptionally(expired) && shared.leave()) {
+                circuitBreaker.onFailure();
+            }
+        });
+        result.whenComplete((value, error) -> {
+            if (result.isCancelled() && shared.leave()) {
+                circuitBreaker.onCancel();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Ожидание результата вызова.
+     * <p>
+     * Прерывание ожидающего потока отменяет только его ожидание.
+     * </p>
+     *
+     * @param result    результат вызова.
+     * @param operation название операции.
+     * @return результат вызова.
+     */
+    private static <T> T await(CompletableFuture<T> result, String operation) {
+        try {
+            return result.get();
+        } catch (CancellationException e) {
+            throw new PrintServiceUnavailableException("print-service: вызов " + operation + " отменён", e);
+        } catch (InterruptedException e) {
+            result.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PrintServiceUnavailableException("print-service: вызов " + operation + " прерван", e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private void acquireBulkhead(String operation) {
+        try {
+            if (!bulkhead.tryAcquire(properties.getMaxWaitDuration().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new PrintServiceUnavailableException(
+                        "print-service: превышено количество одновременных вызовов, " + operation + " отклонён"
+                );
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PrintServiceUnavailableException("print-service: вызов " + operation + " прерван", e);
+        }
+    }
+
+    private void recordOutcome(Throwable failure) {
+        if (isClientError(failure)) {
+            circuitBreaker.onSuccess();
+        } else {
+            circuitBreaker.onFailure();
+        }
+    }
+
+    /**
+     * Признак ответа 4xx: сервис доступен и отклонил запрос, выключатель такую ошибку не учитывает.
+     *
+     * @param failure исключение клиента print-service.
+     * @return true, если в цепочке причин есть ответ с кодом 4xx.
+     */
+    private static boolean isClientError(Throwable failure) {
+        for (Throwable e = failure; e != null; e = e.getCause()) {
+            HttpStatusCode status = null;
+            if (e instanceof RestClientResponseException responseException) {
+                status = responseException.getStatusCode();
+            } else if (e instanceof ErrorResponse errorResponse) {
+                status = errorResponse.getStatusCode();
+            }
+            if (status != null) {
+                return status.is4xxClientError();
+            }
+        }
+        return false;
+    }
+
+    private static <T> CompletableFuture<T> callDirectly(Callable<T> call) {
+        try {
+            return CompletableFuture.completedFuture(call.call());
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        return new IllegalStateException(e);
+    }
+
+    private record DownloadKey(UUID templateId) {
+    }
+
+    /**
+     * Вызов print-service, результат которого ожидают один или несколько вызывающих.
+     */
+    private final class SharedCall<T> {
+
+        private final Object key;
+        private final CompletableFuture<T> result = new CompletableFuture<>();
+        private GuardedCall<T> task;
+        private int waiters = 1;
+        private boolean abandoned;
+
+        /**
+         * @param key ключ объединения вызовов либо null для необъединяемого вызова.
+         */
+        private SharedCall(Object key) {
+            this.key = key;
+        }
+
+        CompletableFuture<T> result() {
+            return result;
+        }
+
+        /**
+         * Присоединение вызывающего.
+         *
+         * @return false, если вызов уже отменён и нужно запустить новый.
+         */
+        synchronized boolean join() {
+            if (abandoned) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        /**
+         * Завершение ожидания вызывающим.
+         *
+         * @return true, если это был последний вызывающий и вызов print-service отменён.
+         */
+        boolean leave() {
+            GuardedCall<T> call;
+            synchronized (this) {
+                if (--waiters > 0) {
+                    return false;
+                }
+                abandoned = true;
+                call = task;
+            }
+            remove();
+            return call != null && call.cancel(true);
+        }
+
+        void attach(GuardedCall<T> call) {
+            synchronized (this) {
+                task = call;
+            }
+            call.completion().whenComplete((value, error) -> {
+                remove();
+                if (error == null) {
+                    result.complete(value);
+                } else {
+                    result.completeExceptionally(error);
+                }
+            });
+        }
+
+        void fail(RuntimeException error) {
+            remove();
+            result.completeExceptionally(error);
+        }
+
+        private void remove() {
+            if (key != null) {
+                inFlight.remove(key, this);
+            }
+        }
+    }
+
+    /**
+     * Вызов print-service в пуле потоков.
+     * <p>
+     * Разрешение bulkhead возвращается после фактического завершения потока вызова,
+     * результат учитывается выключателем при завершении. Отменённый по таймауту вызов
+     * учитывается последним ожидавшим его вызывающим.
+     * </p>
+     */
+    private final class GuardedCall<T> extends FutureTask<T> {
+
+        private final CompletableFuture<T> completion = new CompletableFuture<>();
+
+        private GuardedCall(Callable<T> call) {
+            super(call);
+        }
+
+        CompletableFuture<T> completion() {
+            return completion;
+        }
+
+        @Override
+        public void run() {
+            try {
+                super.run();
+            } finally {
+                bulkhead.release();
+            }
+        }
+
+        @Override
+        protected void done() {
+            if (isCancelled()) {
+                completion.cancel(false);
+                return;
+            }
+            try {
+                T result = get();
+                circuitBreaker.onSuccess();
+                completion.complete(result);
+            } catch (ExecutionException e) {
+                recordOutcome(e.getCause());
+                completion.completeExceptionally(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                completion.completeExceptionally(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ru.axenix.smartax.dui.service.integration.resilience;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Вызов print-service отклонён или не завершился за отведённое время.
+ *
+ * @author Velikanov Artyom.
+ */
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PrintServiceUnavailableException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * @param message описание причины.
+     */
+    public PrintServiceUnavailableException(String message) {
+        super(message);
+    }
+
+    /**
+     * @param message описание причины.
+     * @param cause   исходная ошибка.
+     */
+    public PrintServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
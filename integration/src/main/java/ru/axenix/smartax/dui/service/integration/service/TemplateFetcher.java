@@ -0,0 +1,178 @@
+package ru.axenix.smartax.dui.service.integration.service;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.integration.cache.TemplateMetaCache;
+import ru.axenix.smartax.dui.service.integration.configuration.properties.PrintProperties;
+import ru.axenix.smartax.dui.service.integration.resilience.PrintServiceGateway;
+import ru.axenix.smartax.dui.service.integration.resilience.PrintServiceUnavailableException;
+import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Получение шаблонов печатных форм вместе с файлами.
+ *
+ * <p>
+ * Метаинформация шаблона и файл запрашиваются одновременно: скачивание файла
+ * запускается в пуле потоков {@link PrintServiceGateway} и отменяется, если шаблон не найден
+ * или поиск метаинформации завершился ошибкой. Вызов print-service при этом прерывается,
+ * если скачивание того же файла не ожидают другие вызывающие.
+ * Пакетное получение выполняется параллельно в пуле из {@code application.print.batch.max-concurrency}
+ * потоков с очередью на {@code application.print.batch.queue-capacity} шаблонов; при заполненной очереди
+ * пакет отклоняется. Ошибка одного шаблона или истечение {@code application.print.batch.timeout}
+ * отменяет остальные шаблоны пакета.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Component
+public class TemplateFetcher implements DisposableBean {
+
+    private static final long KEEP_ALIVE_SECONDS = 60;
+
+    private final TemplateMetaCache templateMetaCache;
+    private final PrintServiceGateway printServiceGateway;
+    private final Duration batchTimeout;
+    private final ExecutorService batchExecutor;
+
+    /**
+     * @param templateMetaCache   кэш метаинформации шаблонов.
+     * @param printServiceGateway доступ к print-service.
+     * @param printProperties     настройки интеграции с print-service.
+     */
+    public TemplateFetcher(
+            TemplateMetaCache templateMetaCache,
+            PrintServiceGateway printServiceGateway,
+            PrintProperties printProperties
+    ) {
+        PrintProperties.Batch batch = printProperties.getBatch();
+        this.templateMetaCache = templateMetaCache;
+        this.printServiceGateway = printServiceGateway;
+        this.batchTimeout = batch.getTimeout();
+        this.batchExecutor = createExecutor(
+                Math.max(batch.getMaxConcurrency(), 1), Math.max(batch.getQueueCapacity(), 1)
+        );
+    }
+
+    /**
+     * Получение шаблона с файлом.
+     * <p>
+     * Ожидание файла ограничено таймаутом скачивания {@link PrintServiceGateway}.
+     * </p>
+     *
+     * @param templateId UUID шаблона печатной формы.
+     * @return шаблон с файлом, если шаблон существует.
+     */
+    public Optional<FetchedTemplate> fetch(UUID templateId) {
+        CompletableFuture<byte[]> download = printServiceGateway.downloadTemplateAsync(templateId);
+
+        Optional<TemplateMeta> meta;
+        try {
+            meta = templateMetaCache.find(templateId);
+        } catch (RuntimeException e) {
+            download.cancel(false);
+            throw e;
+        }
+        if (meta.isEmpty()) {
+            download.cancel(false);
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(new FetchedTemplate(meta.get(), download.get()));
+        } catch (InterruptedException e) {
+            download.cancel(false);
+            Thread.currentThread().interrupt();
+            throw new PrintServiceUnavailableException("Получение шаблона прервано", e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    /**
+     * Пакетное получение шаблонов с файлами.
+     *
+     * @param templateIds UUID шаблонов печатных форм.
+     * @return найденные шаблоны с файлами в порядке запроса без повторов.
+     */
+    public List<FetchedTemplate> fetchAll(Collection<UUID> templateIds) {
+        List<Future<Optional<FetchedTemplate>>> tasks = new ArrayList<>();
+        try {
+            for (UUID templateId : new LinkedHashSet<>(templateIds)) {
+                tasks.add(batchExecutor.submit(() -> fetch(templateId)));
+            }
+
+            long deadline = System.nanoTime() + batchTimeout.toNanos();
+            List<FetchedTemplate> result = new ArrayList<>(tasks.size());
+            for (Future<Optional<FetchedTemplate>> task : tasks) {
+                await(task, deadline).ifPresent(result::add);
+            }
+            return result;
+        } catch (RejectedExecutionException e) {
+            throw new PrintServiceUnavailableException("Очередь получения шаблонов заполнена", e);
+        } finally {
+            tasks.forEach(task -> task.cancel(true));
+        }
+    }
+
+    @Override
+    public void destroy() {
+        batchExecutor.shutdownNow();
+    }
+
+    private static ExecutorService createExecutor(int size, int queueCapacity) {
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("template-batch-");
+        threadFactory.setDaemon(true);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(
+                size, size, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, new LinkedBlockingQueue<>(queueCapacity), threadFactory
+        );
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private <T> T await(Future<T> future, long deadline) {
+        try {
+            return future.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new PrintServiceUnavailableException("Пакет шаблонов не получен за " + batchTimeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PrintServiceUnavailableException("Получение шаблона прервано", e);
+        } catch (ExecutionException e) {
+            throw propagate(e.getCause());
+        }
+    }
+
+    private static RuntimeException propagate(Throwable e) {
+        if (e instanceof RuntimeException runtimeException) {
+            return runtimeException;
+        }
+        return new IllegalStateException(e);
+    }
+
+    /**
+     * Шаблон печатной формы с файлом.
+     *
+     * @param meta    метаинформация шаблона.
+     * @param content контент файла шаблона.
+     */
+    public record FetchedTemplate(TemplateMeta meta, byte[] content) {
+    }
+}
@@ -0,0 +1,13 @@
+package ru.axenix.smartax.dui.service.integration.stream;
+
+import ru.axenix.smartax.dui.service.integration.dto.TemplateDto;
+
+/**
+ * Шаблон печатной формы с контентом файла для потоковой записи.
+ *
+ * @param template шаблон печатной формы, поле {@code file.content} игнорируется.
+ * @param content  контент файла шаблона.
+ * @author Velikanov Artyom.
+ */
+public record TemplateContent(TemplateDto template, byte[] content) {
+}
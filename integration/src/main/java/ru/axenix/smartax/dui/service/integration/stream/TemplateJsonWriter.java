@@ -0,0 +1,129 @@
+package ru.axenix.smartax.dui.service.integration.stream;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.integration.dto.TemplateDto;
+import ru.axenix.smartax.dui.service.model.table.FileResponseDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Потоковая запись шаблона печатной формы в JSON.
+ *
+ * <p>
+ * Контент файла кодируется в Base64 по мере записи в выходной поток
+ * через {@link JsonGenerator#writeBinary(InputStream, int)}, поэтому Base64-строка
+ * целиком в памяти не создаётся. Остальные поля сериализуются так же,
+ * как при обычном ответе {@link TemplateDto}.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Component
+@RequiredArgsConstructor
+public class TemplateJsonWriter {
+
+    private static final String FILE = "file";
+    private static final String UUID = "uuid";
+    private static final String NAME = "name";
+    private static final String CONTENT = "content";
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Запись шаблона печатной формы с контентом файла.
+     *
+     * @param template шаблон печатной формы, поле {@code file.content} игнорируется.
+     * @param content  поток контента файла.
+     * @param length   длина контента в байтах.
+     * @param output   выходной поток.
+     * @throws IOException ошибка чтения контента или записи в поток.
+     */
+    public void write(TemplateDto template, InputStream content, int length, OutputStream output) throws IOException {
+        try (JsonGenerator generator = createGenerator(output)) {
+            writeTemplate(generator, template, content, length);
+        }
+    }
+
+    /**
+     * Запись массива шаблонов печатных форм с контентом файлов.
+     * <p>Элементы запрашиваются из итератора по мере записи, выходной поток
+     * сбрасывается после каждого шаблона. Контент файлов хранит вызывающий:
+     * метод не копирует его и не продлевает время его жизни.</p>
+     *
+     * @param templates шаблоны с контентом файлов.
+     * @param output    выходной поток.
+     * @throws IOException ошибка записи в поток.
+     */
+    public void writeAll(Iterator<TemplateContent> templates, OutputStream output) throws IOException {
+        try (JsonGenerator generator = createGenerator(output)) {
+            generator.writeStartArray();
+            while (templates.hasNext()) {
+                TemplateContent item = templates.next();
+                byte[] content = item.content();
+                writeTemplate(generator, item.template(), new ByteArrayInputStream(content), content.length);
+                generator.flush();
+            }
+            generator.writeEndArray();
+        }
+    }
+
+    /**
+     * Генератор JSON поверх выходного потока. Поток закрывает его владелец (контейнер сервлетов),
+     * генератор при закрытии только сбрасывает буфер.
+     *
+     * @param output выходной поток.
+     * @return генератор JSON.
+     * @throws IOException ошибка создания генератора.
+     */
+    private JsonGenerator createGenerator(OutputStream output) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(output);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    private void writeTemplate(
+            JsonGenerator generator,
+            TemplateDto template,
+            InputStream content,
+            int length
+    ) throws IOException {
+        if (template == null) {
+            generator.writeNull();
+            return;
+        }
+
+        ObjectNode tree = objectMapper.valueToTree(template);
+        tree.remove(FILE);
+
+        generator.writeStartObject();
+        Iterator<Map.Entry<String, JsonNode>> fields = tree.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            generator.writeFieldName(field.getKey());
+            objectMapper.writeTree(generator, field.getValue());
+        }
+
+        FileResponseDto file = template.getFile();
+        if (file == null) {
+            generator.writeNullField(FILE);
+        } else {
+            generator.writeObjectFieldStart(FILE);
+            generator.writeStringField(UUID, file.getUuid());
+            generator.writeStringField(NAME, file.getName());
+            generator.writeFieldName(CONTENT);
+            generator.writeBinary(content, length);
+            generator.writeEndObject();
+        }
+        generator.writeEndObject();
+    }
+}
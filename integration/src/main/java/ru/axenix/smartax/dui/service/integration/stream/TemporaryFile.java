@@ -0,0 +1,53 @@
+package ru.axenix.smartax.dui.service.integration.stream;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Временный файл, удаляемый при закрытии.
+ *
+ * <p>
+ * Используется для передачи контента в клиентов, принимающих только {@link File}.
+ * Должен использоваться в try-with-resources, чтобы файл не оставался на диске.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+public final class TemporaryFile implements Closeable {
+
+    private final Path path;
+
+    /**
+     * @param path путь к временному файлу.
+     */
+    public TemporaryFile(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @return путь к временному файлу.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return временный файл.
+     */
+    public File toFile() {
+        return path.toFile();
+    }
+
+    /**
+     * Удаление временного файла.
+     *
+     * @throws IOException ошибка удаления файла.
+     */
+    @Override
+    public void close() throws IOException {
+        Files.deleteIfExists(path);
+    }
+}
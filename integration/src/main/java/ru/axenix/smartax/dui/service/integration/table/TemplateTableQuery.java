@@ -0,0 +1,129 @@
+package ru.axenix.smartax.dui.service.integration.table;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.integration.cache.TemplateMetaCache;
+import ru.axenix.smartax.dui.service.integration.mapper.TemplateTableMapper;
+import ru.axenix.smartax.dui.service.model.table.TableFilter;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
+import ru.axenix.smartax.dui.service.model.table.TableRequestUtils;
+import ru.axenix.smartax.dui.service.model.table.TableResponse;
+import ru.axenix.smartax.dui.service.model.table.TableSort;
+import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Фильтрация, сортировка и пагинация списка шаблонов печатных форм по запросу sdi-table.
+ *
+ * <p>
+ * Запрос выполняется над кэшированным каталогом {@link TemplateMetaCache}:
+ * быстрый поиск использует предвычисленные строки поиска, фильтры сравнивают значение
+ * поля без учёта регистра (оператор {@code contains/like} ищет подстроку).
+ * Неизвестные поля фильтрации и сортировки игнорируются.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Component
+@RequiredArgsConstructor
+public class TemplateTableQuery {
+
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+
+    private static final String TEMPLATE_ID = "templateId";
+    private static final String TEMPLATE_CODE = "templateCode";
+    private static final String TEMPLATE_GROUP = "templateGroup";
+    private static final String DESCRIPTION = "description";
+    private static final String CREATION_DATE = "creationDate";
+    private static final String UPDATE_DATE = "updateDate";
+
+    private static final List<String> CONTAINS_OPERATORS = List.of("contains", "like");
+
+    private static final Map<String, Function<TemplateMeta, Object>> FIELDS = Map.of(
+            TEMPLATE_ID, TemplateMeta::getTemplateId,
+            TEMPLATE_CODE, TemplateMeta::getTemplateCode,
+            TEMPLATE_GROUP, TemplateMeta::getTemplateGroup,
+            DESCRIPTION, TemplateMeta::getDescription,
+            CREATION_DATE, TemplateMeta::getCreationDate,
+            UPDATE_DATE, TemplateMeta::getUpdateDate
+    );
+
+    private final TemplateMetaCache templateMetaCache;
+    private final TemplateTableMapper templateTableMapper;
+
+    /**
+     * Получение страницы списка шаблонов.
+     *
+     * @param request    запрос sdi-table (может быть null).
+     * @param withSchema признак включения схемы плейсхолдеров в записи.
+     * @return страница списка шаблонов.
+     */
+    public TableResponse find(TableRequest request, boolean withSchema) {
+        List<TemplateMeta> templates = TableRequestUtils.quickSearch(request)
+                .map(templateMetaCache::search)
+                .orElseGet(templateMetaCache::findAll);
+
+        Predicate<TemplateMeta> predicate = TableRequestUtils.filters(request).stream()
+                .map(this::toPredicate)
+                .filter(Objects::nonNull)
+                .reduce(t -> true, Predicate::and);
+
+        Comparator<TemplateMeta> comparator = TableRequestUtils.sorts(request).stream()
+                .map(this::toComparator)
+                .filter(Objects::nonNull)
+                .reduce(Comparator::thenComparing)
+                .orElse(null);
+
+        List<TemplateMeta> filtered = templates.stream()
+                .filter(predicate)
+                .toList();
+        if (comparator != null) {
+            filtered = filtered.stream().sorted(comparator).toList();
+        }
+
+        int limit = TableRequestUtils.limit(request, DEFAULT_LIMIT, MAX_LIMIT);
+        long from = Math.min((long) TableRequestUtils.pageIndex(request) * limit, filtered.size());
+        int to = (int) Math.min(from + limit, filtered.size());
+
+        return templateTableMapper.toTableResponse(filtered.size(), filtered.subList((int) from, to), withSchema);
+    }
+
+    private Predicate<TemplateMeta> toPredicate(TableFilter filter) {
+        Function<TemplateMeta, Object> field = FIELDS.get(filter.getName());
+        if (field == null || filter.getValue() == null) {
+            return null;
+        }
+
+        String expected = filter.getValue().toString().toLowerCase(Locale.ROOT);
+        boolean contains = filter.getOperator() != null
+                && CONTAINS_OPERATORS.contains(filter.getOperator().toLowerCase(Locale.ROOT));
+
+        return t -> {
+            Object value = field.apply(t);
+            if (value == null) {
+                return false;
+            }
+            String actual = value.toString().toLowerCase(Locale.ROOT);
+            return contains ? actual.contains(expected) : actual.equals(expected);
+        };
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private Comparator<TemplateMeta> toComparator(TableSort sort) {
+        Function<TemplateMeta, Object> field = FIELDS.get(sort.getName());
+        if (field == null) {
+            return null;
+        }
+
+        Comparator<Comparable> order = sort.isDescending() ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        return Comparator.comparing(t -> (Comparable) field.apply(t), Comparator.nullsLast(order));
+    }
+}
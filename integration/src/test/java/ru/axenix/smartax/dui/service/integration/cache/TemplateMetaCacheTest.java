@@ -0,0 +1,133 @@
+package ru.axenix.smartax.dui.service.integration.cache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.axenix.smartax.dui.service.integration.configuration.properties.PrintProperties;
+import ru.axenix.smartax.dui.service.integration.resilience.PrintServiceGateway;
+import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateResponseDto;
+import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+final class TemplateMetaCacheTest {
+
+    private static final UUID TEMPLATE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    @Mock
+    private PrintServiceGateway printServiceGateway;
+
+    @Test
+    void testFindUsesSingleCatalogFetch() {
+        TemplateMeta templateMeta = new TemplateMeta();
+        templateMeta.setTemplateId(TEMPLATE_ID);
+        FindTemplateResponseDto response = response(templateMeta);
+        when(printServiceGateway.findTemplates()).thenReturn(response);
+
+        TemplateMetaCache cache = new TemplateMetaCache(printServiceGateway, properties(Duration.ofMinutes(5)));
+
+        assertSame(templateMeta, cache.find(TEMPLATE_ID).orElseThrow());
+        assertTrue(cache.find(UUID.randomUUID()).isEmpty());
+        assertEquals(List.of(templateMeta), cache.findAll());
+        verify(printServiceGateway, times(1)).findTemplates();
+    }
+
+    @Test
+    void testInvalidateReloadsCatalog() {
+        TemplateMeta templateMeta = new TemplateMeta();
+        templateMeta.setTemplateId(TEMPLATE_ID);
+        when(printServiceGateway.findTemplates())
+                .thenReturn(response(), response(templateMeta));
+
+        TemplateMetaCache cache = new TemplateMetaCache(printServiceGateway, properties(Duration.ofMinutes(5)));
+
+        assertTrue(cache.find(TEMPLATE_ID).isEmpty());
+
+        cache.invalidate();
+
+        assertSame(templateMeta, cache.find(TEMPLATE_ID).orElseThrow());
+        verify(printServiceGateway, times(2)).findTemplates();
+    }
+
+    @Test
+    void testExpiredSnapshotReloadsCatalog() {
+        when(printServiceGateway.findTemplates()).thenReturn(response());
+
+        TemplateMetaCache cache = new TemplateMetaCache(printServiceGateway, properties(Duration.ZERO));
+
+        cache.findAll();
+        cache.findAll();
+
+        verify(printServiceGateway, times(2)).findTemplates();
+    }
+
+    @Test
+    void testNullResponse() {
+        when(printServiceGateway.findTemplates()).thenReturn(null);
+
+        TemplateMetaCache cache = new TemplateMetaCache(printServiceGateway, properties(Duration.ofMinutes(5)));
+
+        assertTrue(cache.find(TEMPLATE_ID).isEmpty());
+        assertTrue(cache.findAll().isEmpty());
+    }
+
+    @Test
+    void testSearch() {
+        TemplateMeta invoice = new TemplateMeta();
+        invoice.setTemplateId(TEMPLATE_ID);
+        invoice.setTemplateCode("INVOICE");
+        invoice.setDescription("Счёт на оплату");
+        TemplateMeta act = new TemplateMeta();
+        act.setTemplateId(UUID.randomUUID());
+        act.setTemplateCode("ACT");
+        act.setTemplateGroup("Акты");
+        when(printServiceGateway.findTemplates()).thenReturn(response(invoice, act));
+
+        TemplateMetaCache cache = new TemplateMetaCache(printServiceGateway, properties(Duration.ofMinutes(5)));
+
+        assertEquals(List.of(invoice), cache.search("invoice"));
+        assertEquals(List.of(invoice), cache.search("ОПЛАТ"));
+        assertEquals(List.of(act), cache.search("акты"));
+        assertTrue(cache.search("missing").isEmpty());
+    }
+
+    @Test
+    void testFindSchemaBuildsIndexOnce() {
+        TemplateMeta templateMeta = new TemplateMeta();
+        templateMeta.setTemplateId(TEMPLATE_ID);
+        templateMeta.setSchema(Map.of("clientName", Map.of("type", "string")));
+        when(printServiceGateway.findTemplates()).thenReturn(response(templateMeta));
+
+        TemplateMetaCache cache = new TemplateMetaCache(printServiceGateway, properties(Duration.ofMinutes(5)));
+
+        TemplateSchemaIndex index = cache.findSchema(TEMPLATE_ID).orElseThrow();
+
+        assertSame(index, cache.findSchema(TEMPLATE_ID).orElseThrow());
+        assertEquals(1, index.size());
+        assertEquals("clientName", index.search("name").get(0).getKey());
+        assertTrue(cache.findSchema(UUID.randomUUID()).isEmpty());
+    }
+
+    private FindTemplateResponseDto response(TemplateMeta... templates) {
+        FindTemplateResponseDto response = new FindTemplateResponseDto();
+        response.setTemplates(List.of(templates));
+        return response;
+    }
+
+    private static PrintProperties properties(Duration ttl) {
+        PrintProperties properties = new PrintProperties();
+        properties.getTemplateCache().setTtl(ttl);
+        return properties;
+    }
+}
@@ -2,47 +2,78 @@ package ru.axenix.smartax.dui.service.integration.controller;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import java.io.File;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.ByteArrayResource;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.axenix.smartax.dui.service.integration.cache.TemplateMetaCache;
+import ru.axenix.smartax.dui.service.integration.cache.TemplateSchemaIndex;
 import ru.axenix.smartax.dui.service.integration.dto.TemplateDto;
 import ru.axenix.smartax.dui.service.integration.dto.TemplateRequest;
 import ru.axenix.smartax.dui.service.integration.mapper.Base64FileMapper;
 import ru.axenix.smartax.dui.service.integration.mapper.TemplateMapper;
-import ru.axenix.smartax.dui.service.integration.mapper.TemplateTableMapper;
+import ru.axenix.smartax.dui.service.integration.resilience.PrintServiceGateway;
+import ru.axenix.smartax.dui.service.integration.service.TemplateFetcher;
+import ru.axenix.smartax.dui.service.integration.stream.TemplateContent;
+import ru.axenix.smartax.dui.service.integration.stream.TemplateJsonWriter;
+import ru.axenix.smartax.dui.service.integration.stream.TemporaryFile;
+import ru.axenix.smartax.dui.service.integration.table.TemplateTableQuery;
 import ru.axenix.smartax.dui.service.model.table.FileResponseDto;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
 import ru.axenix.smartax.dui.service.model.table.TableResponse;
-import ru.axenix.smartax.printservice.client.TemplateServiceClient;
 import ru.axenix.smartax.printservice.model.templateview.create.CreateTemplateRequestDto;
-import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateRequestDto;
-import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateResponseDto;
 import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
 import ru.axenix.smartax.printservice.model.templateview.update.UpdateTemplateByIdRequestDto;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
-import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doReturn;
-import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @ExtendWith(MockitoExtension.class)
 final class PrintControllerTest {
@@ -56,14 +87,23 @@ final class PrintControllerTest {
     private static final String TEMPLATE_CODE = "CODE";
     private static final String DOWNLOADED_FILE_NAME = "file.bin";
 
+    @TempDir
+    private Path tempDir;
+
+    @Mock
+    private PrintServiceGateway printServiceGateway;
+
     @Mock
-    private TemplateServiceClient templateServiceClient;
+    private TemplateMetaCache templateMetaCache;
 
     @Mock
     private ObjectMapper objectMapper;
 
     @Mock
-    private TemplateTableMapper templateTableMapper;
+    private TemplateTableQuery templateTableQuery;
+
+    @Mock
+    private TemplateFetcher templateFetcher;
 
     @Mock
     private Base64FileMapper base64FileMapper;
@@ -71,36 +111,33 @@ final class PrintControllerTest {
     @Mock
     private TemplateMapper templateMapper;
 
+    @Mock
+    private TemplateJsonWriter templateJsonWriter;
+
     @InjectMocks
     private PrintController printController;
 
     @Test
     void testGetTemplates() {
-        FindTemplateResponseDto findResponse = new FindTemplateResponseDto();
-        when(templateServiceClient.findTemplates(any(FindTemplateRequestDto.class))).thenReturn(findResponse);
-
+        TableRequest request = new TableRequest();
         TableResponse tableResponse = new TableResponse();
-        when(templateTableMapper.toTableResponse(findResponse)).thenReturn(tableResponse);
+        when(templateTableQuery.find(request, false)).thenReturn(tableResponse);
 
-        TableResponse result = printController.getTemplates();
+        TableResponse result = printController.getTemplates(request, false);
 
         assertEquals(tableResponse, result);
-        verify(templateServiceClient).findTemplates(any(FindTemplateRequestDto.class));
-        verify(templateTableMapper).toTableResponse(findResponse);
+        verify(templateTableQuery).find(request, false);
+        verifyNoMoreInteractions(printServiceGateway);
     }
 
     @Test
-    void testGetTemplateFound() {
+    void testGetTemplateFound() throws IOException {
         TemplateMeta templateMeta = new TemplateMeta();
         templateMeta.setTemplateId(TEMPLATE_ID);
 
-        FindTemplateResponseDto findResponse = new FindTemplateResponseDto();
-        findResponse.setTemplates(List.of(templateMeta));
-
-        when(templateServiceClient.findTemplates(any(FindTemplateRequestDto.class))).thenReturn(findResponse);
-
         byte[] fileContent = "content".getBytes(StandardCharsets.UTF_8);
-        when(templateServiceClient.downloadTemplate(TEMPLATE_ID)).thenReturn(fileContent);
+        when(templateFetcher.fetch(TEMPLATE_ID))
+                .thenReturn(Optional.of(new TemplateFetcher.FetchedTemplate(templateMeta, fileContent)));
 
         // мокаем поведение маппера: переносим templateId и сам FileResponseDto
         when(templateMapper.toDto(any(TemplateMeta.class), any(FileResponseDto.class)))
@@ -113,31 +150,105 @@ final class PrintControllerTest {
                     return dto;
                 });
 
-        TemplateDto result = printController.getTemplate(TEMPLATE_ID);
+        ResponseEntity<StreamingResponseBody> response = printController.getTemplate(TEMPLATE_ID);
+
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertNotNull(response.getBody());
+
+        OutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        ArgumentCaptor<TemplateDto> templateCaptor = ArgumentCaptor.forClass(TemplateDto.class);
+        ArgumentCaptor<InputStream> contentCaptor = ArgumentCaptor.forClass(InputStream.class);
+        verify(templateJsonWriter).write(
+                templateCaptor.capture(), contentCaptor.capture(), eq(fileContent.length), eq(output)
+        );
 
-        assertNotNull(result);
+        TemplateDto result = templateCaptor.getValue();
         assertEquals(TEMPLATE_ID, result.getTemplateId());
         assertNotNull(result.getFile());
         assertEquals(TEMPLATE_ID.toString(), result.getFile().getUuid());
         assertEquals(DOWNLOADED_FILE_NAME, result.getFile().getName());
-        assertNotNull(result.getFile().getContent());
+        assertArrayEquals(fileContent, contentCaptor.getValue().readAllBytes());
 
         verify(templateMapper).toDto(any(TemplateMeta.class), any(FileResponseDto.class));
     }
 
     @Test
     void testGetTemplateNotFound() {
-        FindTemplateResponseDto findResponse = new FindTemplateResponseDto();
-        findResponse.setTemplates(Collections.emptyList());
+        when(templateFetcher.fetch(TEMPLATE_ID)).thenReturn(Optional.empty());
 
-        when(templateServiceClient.findTemplates(any(FindTemplateRequestDto.class))).thenReturn(findResponse);
-        when(templateServiceClient.downloadTemplate(TEMPLATE_ID)).thenReturn(new byte[0]);
-        when(templateMapper.toDto(isNull(), any(FileResponseDto.class))).thenReturn(null);
+        ResponseEntity<StreamingResponseBody> response = printController.getTemplate(TEMPLATE_ID);
 
-        TemplateDto result = printController.getTemplate(TEMPLATE_ID);
+        assertEquals(HttpStatus.NOT_FOUND.value(), response.getStatusCode().value());
+        verifyNoInteractions(templateMapper, templateJsonWriter);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetTemplatesBatch() throws IOException {
+        UUID secondId = UUID.randomUUID();
+        TemplateMeta first = new TemplateMeta();
+        first.setTemplateId(TEMPLATE_ID);
+        TemplateMeta second = new TemplateMeta();
+        second.setTemplateId(secondId);
+        byte[] firstContent = {1};
+        byte[] secondContent = {2};
+
+        when(templateFetcher.fetchAll(List.of(TEMPLATE_ID, secondId))).thenReturn(List.of(
+                new TemplateFetcher.FetchedTemplate(first, firstContent),
+                new TemplateFetcher.FetchedTemplate(second, secondContent)
+        ));
+        when(templateMapper.toDto(any(TemplateMeta.class), any(FileResponseDto.class)))
+                .thenAnswer(invocation -> TemplateDto.builder()
+                        .templateId(invocation.<TemplateMeta>getArgument(0).getTemplateId())
+                        .file(invocation.getArgument(1))
+                        .build());
+
+        ResponseEntity<StreamingResponseBody> response =
+                printController.getTemplatesBatch(List.of(TEMPLATE_ID, secondId));
+
+        OutputStream output = new ByteArrayOutputStream();
+        response.getBody().writeTo(output);
+
+        ArgumentCaptor<Iterator<TemplateContent>> captor = ArgumentCaptor.forClass(Iterator.class);
+        verify(templateJsonWriter).writeAll(captor.capture(), eq(output));
+        List<TemplateContent> written = new ArrayList<>();
+        captor.getValue().forEachRemaining(written::add);
+
+        assertEquals(2, written.size());
+        assertEquals(TEMPLATE_ID, written.get(0).template().getTemplateId());
+        assertEquals(secondId.toString(), written.get(1).template().getFile().getUuid());
+        assertArrayEquals(secondContent, written.get(1).content());
+    }
+
+    @Test
+    void testGetTemplatesBatchTooLarge() {
+        List<UUID> templateIds = Stream.generate(UUID::randomUUID).limit(21).toList();
+
+        TemplateBatchTooLargeException exception = assertThrows(
+                TemplateBatchTooLargeException.class, () -> printController.getTemplatesBatch(templateIds)
+        );
 
-        assertNull(result);
-        verify(templateMapper).toDto(isNull(), any(FileResponseDto.class));
+        assertEquals(HttpStatus.BAD_REQUEST.value(), exception.getStatusCode().value());
+        assertTrue(exception.getReason().contains("20"));
+        verifyNoInteractions(templateFetcher);
+    }
+
+    @Test
+    void testGetTemplatesBatchTooLargeResponse() throws Exception {
+        String body = Stream.generate(() -> "\"" + UUID.randomUUID() + "\"")
+                .limit(21)
+                .collect(Collectors.joining(",", "[", "]"));
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(printController).build();
+
+        mockMvc.perform(post("/app/v1/print/template/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isBadRequest())
+                .andExpect(status().reason("Превышено количество шаблонов в запросе, допускается не более 20"));
+        verifyNoInteractions(templateFetcher);
     }
 
     @Test
@@ -150,17 +261,15 @@ final class PrintControllerTest {
         templateMeta.setTemplateId(TEMPLATE_ID);
         templateMeta.setSchema(Map.of("field1", schemaItem));
 
-        FindTemplateResponseDto findResponse = new FindTemplateResponseDto();
-        findResponse.setTemplates(List.of(templateMeta));
-
-        when(templateServiceClient.findTemplates(any(FindTemplateRequestDto.class))).thenReturn(findResponse);
+        when(templateMetaCache.findSchema(TEMPLATE_ID))
+                .thenReturn(Optional.of(TemplateSchemaIndex.of(templateMeta.getSchema())));
 
         Map<String, Object> convertedMap = Map.of("converted", "value");
         doReturn(convertedMap)
                 .when(objectMapper)
                 .convertValue(any(), any(TypeReference.class));
 
-        TableResponse result = printController.getTemplateSchema(TEMPLATE_ID);
+        TableResponse result = printController.getTemplateSchema(TEMPLATE_ID, null);
 
         assertEquals(1, result.getTotal());
         assertEquals(1, result.getRecords().size());
@@ -179,22 +288,69 @@ final class PrintControllerTest {
         templateMeta.setTemplateId(TEMPLATE_ID);
         templateMeta.setSchema(schemaMap);
 
-        FindTemplateResponseDto findResponse = new FindTemplateResponseDto();
-        findResponse.setTemplates(List.of(templateMeta));
-
-        when(templateServiceClient.findTemplates(any(FindTemplateRequestDto.class))).thenReturn(findResponse);
+        when(templateMetaCache.findSchema(TEMPLATE_ID))
+                .thenReturn(Optional.of(TemplateSchemaIndex.of(templateMeta.getSchema())));
 
         Map<String, Object> converted = Map.of("k", "v");
         doReturn(converted)
                 .when(objectMapper)
                 .convertValue(any(), any(TypeReference.class));
 
-        TableResponse result = printController.getTemplateSchema(TEMPLATE_ID);
+        TableResponse result = printController.getTemplateSchema(TEMPLATE_ID, null);
 
         assertEquals(6, result.getTotal());
         assertEquals(5, result.getRecords().size());
     }
 
+    @Test
+    void testGetTemplateSchemaSecondPageConvertsOnlyPage() {
+        Map<String, Object> schemaMap = new LinkedHashMap<>();
+        for (int i = 0; i < 12; i++) {
+            schemaMap.put("field" + i, Map.of("index", i));
+        }
+
+        when(templateMetaCache.findSchema(TEMPLATE_ID)).thenReturn(Optional.of(TemplateSchemaIndex.of(schemaMap)));
+        when(objectMapper.convertValue(any(), ArgumentMatchers.<TypeReference<Map<String, Object>>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        TableRequest request = TableRequest.builder().pager(new TableRequest.Pager(3, 5)).build();
+
+        TableResponse result = printController.getTemplateSchema(TEMPLATE_ID, request);
+
+        assertEquals(12, result.getTotal());
+        assertEquals(List.of(Map.of("index", 10), Map.of("index", 11)), result.getRecords());
+        verify(objectMapper, times(2)).convertValue(any(), ArgumentMatchers.<TypeReference<Map<String, Object>>>any());
+    }
+
+    @Test
+    void testGetTemplateSchemaQuickSearch() {
+        Map<String, Object> schemaMap = new LinkedHashMap<>();
+        schemaMap.put("clientName", Map.of("type", "string"));
+        schemaMap.put("clientInn", Map.of("type", "string"));
+        schemaMap.put("amount", Map.of("type", "number"));
+
+        when(templateMetaCache.findSchema(TEMPLATE_ID)).thenReturn(Optional.of(TemplateSchemaIndex.of(schemaMap)));
+        when(objectMapper.convertValue(any(), ArgumentMatchers.<TypeReference<Map<String, Object>>>any()))
+                .thenAnswer(invocation -> invocation.getArgument(0));
+
+        TableResponse result = printController.getTemplateSchema(
+                TEMPLATE_ID, TableRequest.builder().quickSearch("CLIENT").build()
+        );
+
+        assertEquals(2, result.getTotal());
+        assertEquals(2, result.getRecords().size());
+    }
+
+    @Test
+    void testGetTemplateSchemaTemplateNotFound() {
+        when(templateMetaCache.findSchema(TEMPLATE_ID)).thenReturn(Optional.empty());
+
+        TableResponse result = printController.getTemplateSchema(TEMPLATE_ID, null);
+
+        assertEquals(0, result.getTotal());
+        assertTrue(result.getRecords().isEmpty());
+    }
+
     @Test
     void testCreateTemplate() throws IOException {
         TemplateRequest request = new TemplateRequest();
@@ -206,13 +362,15 @@ final class PrintControllerTest {
         fileDto.setName(TEST_FILE_NAME);
         request.setFile(fileDto);
 
-        File mockFile = mock(File.class);
-        when(base64FileMapper.map(BASE64_CONTENT, TEST_FILE_NAME)).thenReturn(mockFile);
+        Path path = Files.createTempFile(tempDir, "file_", "_" + TEST_FILE_NAME);
+        when(base64FileMapper.map(BASE64_CONTENT, TEST_FILE_NAME)).thenReturn(new TemporaryFile(path));
 
         printController.createTemplate(request);
 
         verify(base64FileMapper).map(BASE64_CONTENT, TEST_FILE_NAME);
-        verify(templateServiceClient).createTemplate(any(CreateTemplateRequestDto.class), eq(mockFile));
+        verify(printServiceGateway).createTemplate(any(CreateTemplateRequestDto.class), eq(path.toFile()));
+        assertFalse(Files.exists(path));
+        verify(templateMetaCache).invalidate();
     }
 
     @Test
@@ -226,30 +384,87 @@ final class PrintControllerTest {
                 .file(fileDto)
                 .build();
 
-        File mockFile = mock(File.class);
-        when(base64FileMapper.map(BASE64_CONTENT, TEST_FILE_NAME)).thenReturn(mockFile);
+        Path path = Files.createTempFile(tempDir, "file_", "_" + TEST_FILE_NAME);
+        when(base64FileMapper.map(BASE64_CONTENT, TEST_FILE_NAME)).thenReturn(new TemporaryFile(path));
 
         printController.updateTemplate(TEMPLATE_ID, request);
 
         verify(base64FileMapper).map(BASE64_CONTENT, TEST_FILE_NAME);
-        verify(templateServiceClient).updateTemplate(any(UpdateTemplateByIdRequestDto.class), eq(mockFile));
+        verify(printServiceGateway).updateTemplate(any(UpdateTemplateByIdRequestDto.class), eq(path.toFile()));
+        assertFalse(Files.exists(path));
+        verify(templateMetaCache).invalidate();
+    }
+
+    @Test
+    void testCreateTemplateMultipart() throws IOException {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", TEST_FILE_NAME, MediaType.APPLICATION_OCTET_STREAM_VALUE, "content".getBytes(StandardCharsets.UTF_8)
+        );
+
+        Path path = Files.createTempFile(tempDir, "file_", "_" + TEST_FILE_NAME);
+        when(base64FileMapper.map(file)).thenReturn(new TemporaryFile(path));
+
+        printController.createTemplateMultipart(TEMPLATE_CODE, TEMPLATE_DESCRIPTION, file);
+
+        ArgumentCaptor<CreateTemplateRequestDto> requestCaptor = ArgumentCaptor.forClass(CreateTemplateRequestDto.class);
+        verify(printServiceGateway).createTemplate(requestCaptor.capture(), eq(path.toFile()));
+        assertEquals(TEMPLATE_CODE, requestCaptor.getValue().getTemplateCode());
+        assertEquals(TEMPLATE_DESCRIPTION, requestCaptor.getValue().getDescription());
+        verify(templateMetaCache).invalidate();
+        assertFalse(Files.exists(path));
+    }
+
+    @Test
+    void testUpdateTemplateMultipart() throws IOException {
+        MockMultipartFile file = new MockMultipartFile(
+                "file", TEST_FILE_NAME, MediaType.APPLICATION_OCTET_STREAM_VALUE, "content".getBytes(StandardCharsets.UTF_8)
+        );
+
+        Path path = Files.createTempFile(tempDir, "file_", "_" + TEST_FILE_NAME);
+        when(base64FileMapper.map(file)).thenReturn(new TemporaryFile(path));
+
+        printController.updateTemplateMultipart(TEMPLATE_ID, TEMPLATE_DESCRIPTION, file);
+
+        ArgumentCaptor<UpdateTemplateByIdRequestDto> requestCaptor =
+                ArgumentCaptor.forClass(UpdateTemplateByIdRequestDto.class);
+        verify(printServiceGateway).updateTemplate(requestCaptor.capture(), eq(path.toFile()));
+        assertEquals(TEMPLATE_ID, requestCaptor.getValue().getTemplateId());
+        assertEquals(TEMPLATE_DESCRIPTION, requestCaptor.getValue().getDescription());
+        verify(templateMetaCache).invalidate();
+        assertFalse(Files.exists(path));
     }
 
     @Test
     void testDeleteTemplate() {
         printController.deleteTemplate(TEMPLATE_ID);
-        verify(templateServiceClient).deleteTemplateById(TEMPLATE_ID);
+        verify(printServiceGateway).deleteTemplateById(TEMPLATE_ID);
+        verify(templateMetaCache).invalidate();
     }
 
     @Test
     void testDownloadTemplate() {
         byte[] content = "content".getBytes(StandardCharsets.UTF_8);
-        when(templateServiceClient.downloadTemplate(TEMPLATE_ID)).thenReturn(content);
+        when(printServiceGateway.downloadTemplate(TEMPLATE_ID)).thenReturn(content);
 
         ResponseEntity<ByteArrayResource> response = printController.downloadTemplate(TEMPLATE_ID);
 
         assertEquals(HttpStatus.OK.value(), response.getStatusCode().value());
         assertNotNull(response.getBody());
         assertArrayEquals(content, response.getBody().getByteArray());
+        assertEquals("bytes", response.getHeaders().getFirst(HttpHeaders.ACCEPT_RANGES));
+    }
+
+    @Test
+    void testDownloadTemplateRange() throws Exception {
+        byte[] content = "0123456789".getBytes(StandardCharsets.UTF_8);
+        when(printServiceGateway.downloadTemplate(TEMPLATE_ID)).thenReturn(content);
+
+        MockMvc mockMvc = MockMvcBuilders.standaloneSetup(printController).build();
+
+        mockMvc.perform(get("/app/v1/print/template/{templateId}/download", TEMPLATE_ID)
+                        .header(HttpHeaders.RANGE, "bytes=2-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 2-5/10"))
+                .andExpect(content().bytes("2345".getBytes(StandardCharsets.UTF_8)));
     }
 }
@@ -3,6 +3,8 @@ package ru.axenix.smartax.dui.service.integration.mapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mock.web.MockMultipartFile;
+import ru.axenix.smartax.dui.service.integration.stream.TemporaryFile;
 
 import java.io.File;
 import java.io.IOException;
@@ -10,9 +12,12 @@ import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Base64;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -36,16 +41,56 @@ class Base64FileMapperTest {
         byte[] originalBytes = content.getBytes(StandardCharsets.UTF_8);
         String base64 = Base64.getEncoder().encodeToString(originalBytes);
 
-        File file = mapper.map(base64, "test.txt");
+        try (TemporaryFile temporaryFile = mapper.map(base64, "test.txt")) {
+            File file = temporaryFile.toFile();
 
-        assertNotNull(file, "Файл не должен быть null");
-        assertTrue(file.exists(), "Файл должен существовать");
-        assertTrue(file.toPath().startsWith(tempDir),
-                "Файл должен создаваться в tempDir теста");
+            assertNotNull(file, "Файл не должен быть null");
+            assertTrue(file.exists(), "Файл должен существовать");
+            assertTrue(file.toPath().startsWith(tempDir),
+                    "Файл должен создаваться в tempDir теста");
 
-        byte[] fileBytes = Files.readAllBytes(file.toPath());
-        assertArrayEquals(originalBytes, fileBytes,
-                "Содержимое файла должно совпадать с исходным");
+            byte[] fileBytes = Files.readAllBytes(file.toPath());
+            assertArrayEquals(originalBytes, fileBytes,
+                    "Содержимое файла должно совпадать с исходным");
+        }
+    }
+
+    @Test
+    void mapShouldTransferMultipartFile() throws IOException {
+        byte[] content = "multipart".getBytes(StandardCharsets.UTF_8);
+        MockMultipartFile multipartFile = new MockMultipartFile("file", "test.txt", null, content);
+
+        try (TemporaryFile temporaryFile = mapper.map(multipartFile)) {
+            Path file = temporaryFile.getPath();
+
+            assertTrue(file.startsWith(tempDir), "Файл должен создаваться в tempDir теста");
+            assertTrue(file.getFileName().toString().endsWith("_test.txt"));
+            assertArrayEquals(content, Files.readAllBytes(file));
+        }
+    }
+
+    @Test
+    void closeShouldDeleteFile() throws IOException {
+        String base64 = Base64.getEncoder()
+                .encodeToString("data".getBytes(StandardCharsets.UTF_8));
+
+        TemporaryFile temporaryFile = mapper.map(base64, "test.txt");
+        Path path = temporaryFile.getPath();
+        assertTrue(Files.exists(path), "Файл должен существовать до закрытия");
+
+        temporaryFile.close();
+
+        assertFalse(Files.exists(path), "Файл должен удаляться при закрытии");
+    }
+
+    @Test
+    void mapShouldRejectInvalidBase64AndDeleteFile() throws IOException {
+        assertThrows(IOException.class, () -> mapper.map("не base64", "test.txt"));
+
+        try (Stream<Path> files = Files.walk(tempDir)) {
+            assertTrue(files.filter(Files::isRegularFile).findAny().isEmpty(),
+                    "Временный файл не должен оставаться после ошибки декодирования");
+        }
     }
 
     @Test
@@ -54,12 +99,12 @@ class Base64FileMapperTest {
         String base64 = Base64.getEncoder()
                 .encodeToString(content.getBytes(StandardCharsets.UTF_8));
 
-        File file = mapper.map(base64, null);
-
-        assertNotNull(file, "Файл не должен быть null");
-        String fileName = file.getName();
-        assertTrue(fileName.contains("_file"),
-                "Имя файла должно содержать суффикс по умолчанию");
+        try (TemporaryFile file = mapper.map(base64, null)) {
+            assertNotNull(file, "Файл не должен быть null");
+            String fileName = file.toFile().getName();
+            assertTrue(fileName.contains("_file"),
+                    "Имя файла должно содержать суффикс по умолчанию");
+        }
     }
 
     @Test
@@ -69,13 +114,13 @@ class Base64FileMapperTest {
                 .encodeToString(content.getBytes(StandardCharsets.UTF_8));
 
         String originalName = "inv@lid имя.txt";
-        File file = mapper.map(base64, originalName);
-
-        String fileName = file.getName();
-
-        assertTrue(!fileName.contains(" ") && !fileName.contains("@"),
-                "Имя файла не должно содержать недопустимые символы");
-        assertTrue(fileName.endsWith(".txt"),
-                "Расширение .txt должно сохраниться после нормализации");
+        try (TemporaryFile file = mapper.map(base64, originalName)) {
+            String fileName = file.toFile().getName();
+
+            assertTrue(!fileName.contains(" ") && !fileName.contains("@"),
+                    "Имя файла не должно содержать недопустимые символы");
+            assertTrue(fileName.endsWith(".txt"),
+                    "Расширение .txt должно сохраниться после нормализации");
+        }
     }
 }
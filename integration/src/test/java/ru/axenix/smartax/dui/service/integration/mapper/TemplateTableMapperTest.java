@@ -156,4 +156,19 @@ class TemplateTableMapperTest {
         assertEquals(created, record.get(KEY_CREATION_DATE));
         assertEquals(updated, record.get(KEY_UPDATE_DATE));
     }
+
+    @Test
+    void templateToRecordShouldOmitSchemaWhenNotRequested() {
+        TemplateMeta meta = new TemplateMeta();
+        meta.setTemplateId(UUID.randomUUID());
+        meta.setTemplateCode(VALUE_CODE_1);
+        meta.setSchema(Collections.singletonMap(SCHEMA_KEY_1, SCHEMA_VALUE_1));
+
+        TableResponse result = mapper.toTableResponse(5, List.of(meta), false);
+
+        assertEquals(5, result.getTotal());
+        assertEquals(1, result.getRecords().size());
+        assertEquals(VALUE_CODE_1, result.getRecords().get(0).get(KEY_TEMPLATE_CODE));
+        assertTrue(!result.getRecords().get(0).containsKey(KEY_SCHEMA));
+    }
 }
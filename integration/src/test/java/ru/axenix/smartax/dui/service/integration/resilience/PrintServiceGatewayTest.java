@@ -0,0 +1,309 @@
+package ru.axenix.smartax.dui.service.integration.resilience;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import ru.axenix.smartax.dui.service.integration.configuration.properties.PrintProperties;
+import ru.axenix.smartax.dui.service.integration.configuration.properties.PrintServiceResilienceProperties;
+import ru.axenix.smartax.printservice.model.templateview.create.CreateTemplateRequestDto;
+import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateResponseDto;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+final class PrintServiceGatewayTest {
+
+    private static final byte[] CONTENT = "content".getBytes(StandardCharsets.UTF_8);
+
+    @TempDir
+    private Path tempDir;
+
+    private PrintServiceStub stub;
+    private PrintProperties printProperties;
+    private PrintServiceResilienceProperties properties;
+    private PrintServiceGateway gateway;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        stub = new PrintServiceStub();
+        printProperties = new PrintProperties();
+        properties = printProperties.getResilience();
+        properties.getTimeout().setFind(Duration.ofSeconds(5));
+        properties.getTimeout().setDownload(Duration.ofSeconds(5));
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        stub.release();
+        callers.shutdownNow();
+        if (gateway != null) {
+            gateway.destroy();
+        }
+    }
+
+    @Test
+    void testFindTemplatesCoalescesConcurrentCalls() throws Exception {
+        stub.addTemplate("INVOICE", CONTENT);
+        gateway = gateway();
+        stub.hold();
+
+        List<Future<FindTemplateResponseDto>> results = new ArrayList<>();
+        results.add(callers.submit(gateway::findTemplates));
+        awaitCondition(() -> stub.activeCalls() == 1);
+        for (int i = 0; i < 4; i++) {
+            results.add(callers.submit(gateway::findTemplates));
+        }
+        Thread.sleep(100);
+        stub.release();
+
+        FindTemplateResponseDto first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (Future<FindTemplateResponseDto> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, stub.findCalls());
+        assertEquals(1, first.getTemplates().size());
+    }
+
+    @Test
+    void testDownloadCoalescesPerTemplate() throws Exception {
+        UUID invoice = stub.addTemplate("INVOICE", CONTENT);
+        UUID act = stub.addTemplate("ACT", new byte[]{1});
+        gateway = gateway();
+        stub.hold();
+
+        Future<byte[]> first = callers.submit(() -> gateway.downloadTemplate(invoice));
+        awaitCondition(() -> stub.activeCalls() == 1);
+        Future<byte[]> second = callers.submit(() -> gateway.downloadTemplate(invoice));
+        Future<byte[]> other = callers.submit(() -> gateway.downloadTemplate(act));
+        awaitCondition(() -> stub.activeCalls() == 2);
+        Thread.sleep(100);
+        stub.release();
+
+        assertArrayEquals(CONTENT, first.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(CONTENT, second.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(new byte[]{1}, other.get(5, TimeUnit.SECONDS));
+        assertEquals(2, stub.downloadCalls());
+    }
+
+    @Test
+    void testInterruptedCallerDoesNotCancelCoalescedDownload() throws Exception {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        properties.getCircuitBreaker().setFailureThreshold(1);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        gateway = gateway();
+        stub.hold();
+
+        Future<byte[]> first = callers.submit(() -> gateway.downloadTemplate(templateId));
+        awaitCondition(() -> stub.activeCalls() == 1);
+        Future<byte[]> second = callers.submit(() -> gateway.downloadTemplate(templateId));
+        Thread.sleep(100);
+        first.cancel(true);
+        stub.release();
+
+        assertArrayEquals(CONTENT, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, stub.downloadCalls());
+        assertArrayEquals(CONTENT, gateway.downloadTemplate(templateId));
+        assertEquals(2, stub.downloadCalls());
+    }
+
+    @Test
+    void testCancelledDownloadStopsCallWithoutWaiters() {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        properties.getCircuitBreaker().setFailureThreshold(1);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        gateway = gateway();
+        stub.hold();
+
+        CompletableFuture<byte[]> download = gateway.downloadTemplateAsync(templateId);
+        awaitCondition(() -> stub.activeCalls() == 1);
+        download.cancel(false);
+
+        awaitCondition(() -> stub.activeCalls() == 0);
+        stub.release();
+        assertArrayEquals(CONTENT, gateway.downloadTemplate(templateId));
+        assertEquals(2, stub.downloadCalls());
+    }
+
+    @Test
+    void testCancelledDownloadContinuesForOtherWaiters() throws Exception {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        gateway = gateway();
+        stub.hold();
+
+        CompletableFuture<byte[]> first = gateway.downloadTemplateAsync(templateId);
+        awaitCondition(() -> stub.activeCalls() == 1);
+        CompletableFuture<byte[]> second = gateway.downloadTemplateAsync(templateId);
+        first.cancel(false);
+        Thread.sleep(100);
+        stub.release();
+
+        assertArrayEquals(CONTENT, second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, stub.downloadCalls());
+    }
+
+    @Test
+    void testTimeout() {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        properties.getTimeout().setDownload(Duration.ofMillis(100));
+        gateway = gateway();
+        stub.hold();
+
+        long started = System.nanoTime();
+        assertThrows(PrintServiceUnavailableException.class, () -> gateway.downloadTemplate(templateId));
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - started).compareTo(Duration.ofSeconds(2)) < 0);
+        awaitCondition(() -> stub.activeCalls() == 0);
+    }
+
+    @Test
+    void testBulkheadRejectsExcessCalls() throws Exception {
+        UUID invoice = stub.addTemplate("INVOICE", CONTENT);
+        UUID act = stub.addTemplate("ACT", CONTENT);
+        properties.setMaxConcurrentCalls(1);
+        properties.setMaxWaitDuration(Duration.ofMillis(50));
+        gateway = gateway();
+        stub.hold();
+
+        Future<byte[]> first = callers.submit(() -> gateway.downloadTemplate(invoice));
+        awaitCondition(() -> stub.activeCalls() == 1);
+
+        assertThrows(PrintServiceUnavailableException.class, () -> gateway.downloadTemplate(act));
+
+        stub.release();
+        assertArrayEquals(CONTENT, first.get(5, TimeUnit.SECONDS));
+        assertArrayEquals(CONTENT, gateway.downloadTemplate(act));
+    }
+
+    @Test
+    void testCircuitBreakerFallsBackToLastCatalog() {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        properties.getCircuitBreaker().setFailureThreshold(2);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        gateway = gateway();
+
+        FindTemplateResponseDto catalog = gateway.findTemplates();
+
+        IllegalStateException failure = new IllegalStateException("print-service is down");
+        stub.fail(failure);
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> gateway.downloadTemplate(templateId)));
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> gateway.downloadTemplate(templateId)));
+        int downloadCalls = stub.downloadCalls();
+
+        assertThrows(PrintServiceUnavailableException.class, () -> gateway.downloadTemplate(templateId));
+        assertEquals(downloadCalls, stub.downloadCalls());
+        assertSame(catalog, gateway.findTemplates());
+        assertEquals(1, stub.findCalls());
+    }
+
+    @Test
+    void testCircuitBreakerRecovers() throws Exception {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        properties.getCircuitBreaker().setFailureThreshold(1);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMillis(100));
+        gateway = gateway();
+
+        stub.fail(new IllegalStateException("print-service is down"));
+        assertThrows(IllegalStateException.class, () -> gateway.downloadTemplate(templateId));
+        assertThrows(PrintServiceUnavailableException.class, () -> gateway.downloadTemplate(templateId));
+
+        stub.recover();
+        Thread.sleep(150);
+
+        assertArrayEquals(CONTENT, gateway.downloadTemplate(templateId));
+        assertArrayEquals(CONTENT, gateway.downloadTemplate(templateId));
+    }
+
+    @Test
+    void testClientErrorsDoNotOpenCircuitBreaker() {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        properties.getCircuitBreaker().setFailureThreshold(2);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        gateway = gateway();
+
+        stub.fail(new HttpClientErrorException(HttpStatus.NOT_FOUND));
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpClientErrorException.class, () -> gateway.downloadTemplate(templateId));
+        }
+
+        stub.recover();
+        assertArrayEquals(CONTENT, gateway.downloadTemplate(templateId));
+        assertEquals(4, stub.downloadCalls());
+    }
+
+    @Test
+    void testServerErrorsOpenCircuitBreaker() {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        properties.getCircuitBreaker().setFailureThreshold(2);
+        properties.getCircuitBreaker().setOpenDuration(Duration.ofMinutes(1));
+        gateway = gateway();
+
+        stub.fail(new HttpServerErrorException(HttpStatus.BAD_GATEWAY));
+        assertThrows(HttpServerErrorException.class, () -> gateway.downloadTemplate(templateId));
+        assertThrows(HttpServerErrorException.class, () -> gateway.downloadTemplate(templateId));
+
+        stub.recover();
+        assertThrows(PrintServiceUnavailableException.class, () -> gateway.downloadTemplate(templateId));
+        assertEquals(2, stub.downloadCalls());
+    }
+
+    @Test
+    void testWriteOperations() throws Exception {
+        gateway = gateway();
+        Path file = Files.write(tempDir.resolve("template.docx"), CONTENT);
+
+        CreateTemplateRequestDto request = new CreateTemplateRequestDto();
+        request.setTemplateCode("INVOICE");
+        gateway.createTemplate(request, file.toFile());
+
+        UUID templateId = gateway.findTemplates().getTemplates().get(0).getTemplateId();
+        assertArrayEquals(CONTENT, gateway.downloadTemplate(templateId));
+
+        gateway.deleteTemplateById(templateId);
+
+        assertTrue(gateway.findTemplates().getTemplates().isEmpty());
+    }
+
+    @Test
+    void testDisabledCallsDirectly() {
+        UUID templateId = stub.addTemplate("INVOICE", CONTENT);
+        properties.setEnabled(false);
+        gateway = gateway();
+
+        assertArrayEquals(CONTENT, gateway.downloadTemplate(templateId));
+        assertEquals(1, gateway.findTemplates().getTemplates().size());
+    }
+
+    private PrintServiceGateway gateway() {
+        return new PrintServiceGateway(stub.client(), printProperties);
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        CompletableFuture.runAsync(() -> {
+            while (!condition.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+        }).orTimeout(5, TimeUnit.SECONDS).join();
+    }
+}
@@ -0,0 +1,172 @@
+package ru.axenix.smartax.dui.service.integration.resilience;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import ru.axenix.smartax.printservice.client.TemplateServiceClient;
+import ru.axenix.smartax.printservice.model.templateview.create.CreateTemplateRequestDto;
+import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateRequestDto;
+import ru.axenix.smartax.printservice.model.templateview.find.FindTemplateResponseDto;
+import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
+import ru.axenix.smartax.printservice.model.templateview.update.UpdateTemplateByIdRequestDto;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+/**
+ * Локальная заглушка print-service для тестов.
+ *
+ * <p>
+ * Хранит шаблоны в памяти, считает обращения и позволяет задержать ответы
+ * ({@link #hold()}/{@link #release()}) или завершать их ошибкой ({@link #fail(RuntimeException)}).
+ * </p>
+ */
+final class PrintServiceStub {
+
+    private final TemplateServiceClient client = mock(TemplateServiceClient.class, withSettings().stubOnly());
+    private final Map<UUID, TemplateMeta> templates = new ConcurrentHashMap<>();
+    private final Map<UUID, byte[]> files = new ConcurrentHashMap<>();
+    private final AtomicInteger findCalls = new AtomicInteger();
+    private final AtomicInteger downloadCalls = new AtomicInteger();
+    private final AtomicInteger activeCalls = new AtomicInteger();
+
+    private volatile CountDownLatch gate = new CountDownLatch(0);
+    private volatile RuntimeException failure;
+
+    PrintServiceStub() {
+        when(client.findTemplates(any(FindTemplateRequestDto.class))).thenAnswer(invocation -> {
+            findCalls.incrementAndGet();
+            return respond(() -> {
+                FindTemplateResponseDto response = new FindTemplateResponseDto();
+                response.setTemplates(new ArrayList<>(templates.values()));
+                return response;
+            });
+        });
+        when(client.downloadTemplate(any(UUID.class))).thenAnswer(invocation -> {
+            downloadCalls.incrementAndGet();
+            UUID templateId = invocation.getArgument(0);
+            return respond(() -> files.get(templateId));
+        });
+        doAnswer(invocation -> {
+            CreateTemplateRequestDto request = invocation.getArgument(0);
+            File file = invocation.getArgument(1);
+            return respond(() -> {
+                UUID templateId = UUID.randomUUID();
+                templates.put(templateId, meta(templateId, request.getTemplateCode(), request.getDescription()));
+                files.put(templateId, read(file));
+                return null;
+            });
+        }).when(client).createTemplate(any(CreateTemplateRequestDto.class), any(File.class));
+        doAnswer(invocation -> {
+            UpdateTemplateByIdRequestDto request = invocation.getArgument(0);
+            File file = invocation.getArgument(1);
+            return respond(() -> {
+                TemplateMeta meta = templates.get(request.getTemplateId());
+                meta.setDescription(request.getDescription());
+                meta.setUpdateDate(LocalDateTime.now());
+                files.put(request.getTemplateId(), read(file));
+                return null;
+            });
+        }).when(client).updateTemplate(any(UpdateTemplateByIdRequestDto.class), any(File.class));
+        doAnswer(invocation -> {
+            UUID templateId = invocation.getArgument(0);
+            return respond(() -> {
+                templates.remove(templateId);
+                files.remove(templateId);
+                return null;
+            });
+        }).when(client).deleteTemplateById(any(UUID.class));
+    }
+
+    TemplateServiceClient client() {
+        return client;
+    }
+
+    UUID addTemplate(String code, byte[] content) {
+        UUID templateId = UUID.randomUUID();
+        templates.put(templateId, meta(templateId, code, null));
+        files.put(templateId, content);
+        return templateId;
+    }
+
+    /**
+     * Задержка всех последующих ответов до вызова {@link #release()}.
+     */
+    void hold() {
+        gate = new CountDownLatch(1);
+    }
+
+    void release() {
+        gate.countDown();
+    }
+
+    void fail(RuntimeException failure) {
+        this.failure = failure;
+    }
+
+    void recover() {
+        this.failure = null;
+    }
+
+    int findCalls() {
+        return findCalls.get();
+    }
+
+    int downloadCalls() {
+        return downloadCalls.get();
+    }
+
+    int activeCalls() {
+        return activeCalls.get();
+    }
+
+    private <T> T respond(ThrowingSupplier<T> supplier) throws Exception {
+        activeCalls.incrementAndGet();
+        try {
+            if (!gate.await(10, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("print-service stub was not released");
+            }
+            RuntimeException error = failure;
+            if (error != null) {
+                throw error;
+            }
+            return supplier.get();
+        } finally {
+            activeCalls.decrementAndGet();
+        }
+    }
+
+    private static TemplateMeta meta(UUID templateId, String code, String description) {
+        TemplateMeta meta = new TemplateMeta();
+        meta.setTemplateId(templateId);
+        meta.setTemplateCode(code);
+        meta.setDescription(description);
+        meta.setCreationDate(LocalDateTime.now());
+        return meta;
+    }
+
+    private static byte[] read(File file) {
+        try {
+            return Files.readAllBytes(file.toPath());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @FunctionalInterface
+    private interface ThrowingSupplier<T> {
+        T get() throws Exception;
+    }
+}
@@ -0,0 +1,189 @@
+package ru.axenix.smartax.dui.service.integration.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.axenix.smartax.dui.service.integration.cache.TemplateMetaCache;
+import ru.axenix.smartax.dui.service.integration.configuration.properties.PrintProperties;
+import ru.axenix.smartax.dui.service.integration.resilience.PrintServiceGateway;
+import ru.axenix.smartax.dui.service.integration.resilience.PrintServiceUnavailableException;
+import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+final class TemplateFetcherTest {
+
+    private static final byte[] CONTENT = {1, 2, 3};
+
+    @Mock
+    private TemplateMetaCache templateMetaCache;
+
+    @Mock
+    private PrintServiceGateway printServiceGateway;
+
+    private TemplateFetcher fetcher;
+
+    @BeforeEach
+    void setUp() {
+        fetcher = new TemplateFetcher(templateMetaCache, printServiceGateway, properties(2, 8, Duration.ofSeconds(5)));
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetcher.destroy();
+    }
+
+    @Test
+    void testFetchRunsLookupAndDownloadConcurrently() throws Exception {
+        UUID templateId = UUID.randomUUID();
+        TemplateMeta meta = meta(templateId);
+        CompletableFuture<byte[]> download = new CompletableFuture<>();
+        when(printServiceGateway.downloadTemplateAsync(templateId)).thenReturn(download);
+        when(templateMetaCache.find(templateId)).thenAnswer(invocation -> {
+            download.complete(CONTENT);
+            return Optional.of(meta);
+        });
+
+        TemplateFetcher.FetchedTemplate result = fetcher.fetch(templateId).orElseThrow();
+
+        assertSame(meta, result.meta());
+        assertArrayEquals(CONTENT, result.content());
+    }
+
+    @Test
+    void testFetchCancelsDownloadWhenNotFound() {
+        UUID templateId = UUID.randomUUID();
+        CompletableFuture<byte[]> download = new CompletableFuture<>();
+        when(printServiceGateway.downloadTemplateAsync(templateId)).thenReturn(download);
+        when(templateMetaCache.find(templateId)).thenReturn(Optional.empty());
+
+        assertTrue(fetcher.fetch(templateId).isEmpty());
+        assertTrue(download.isCancelled());
+    }
+
+    @Test
+    void testFetchCancelsDownloadWhenLookupFails() {
+        UUID templateId = UUID.randomUUID();
+        CompletableFuture<byte[]> download = new CompletableFuture<>();
+        IllegalStateException failure = new IllegalStateException("lookup failed");
+        when(printServiceGateway.downloadTemplateAsync(templateId)).thenReturn(download);
+        when(templateMetaCache.find(templateId)).thenThrow(failure);
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> fetcher.fetch(templateId)));
+        assertTrue(download.isCancelled());
+    }
+
+    @Test
+    void testFetchAllKeepsOrderAndBoundsConcurrency() {
+        List<UUID> templateIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        UUID missing = templateIds.get(2);
+        AtomicInteger active = new AtomicInteger();
+        AtomicInteger maxActive = new AtomicInteger();
+        when(printServiceGateway.downloadTemplateAsync(any(UUID.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(CONTENT));
+        when(templateMetaCache.find(any(UUID.class))).thenAnswer(invocation -> {
+            maxActive.accumulateAndGet(active.incrementAndGet(), Math::max);
+            try {
+                Thread.sleep(50);
+            } finally {
+                active.decrementAndGet();
+            }
+            UUID templateId = invocation.getArgument(0);
+            return missing.equals(templateId) ? Optional.empty() : Optional.of(meta(templateId));
+        });
+
+        List<TemplateFetcher.FetchedTemplate> result = fetcher.fetchAll(templateIds);
+
+        assertEquals(
+                List.of(templateIds.get(0), templateIds.get(1), templateIds.get(3)),
+                result.stream().map(fetched -> fetched.meta().getTemplateId()).toList()
+        );
+        assertTrue(maxActive.get() <= 2);
+    }
+
+    @Test
+    void testFetchAllPropagatesFailure() {
+        UUID templateId = UUID.randomUUID();
+        IllegalStateException failure = new IllegalStateException("download failed");
+        when(printServiceGateway.downloadTemplateAsync(templateId)).thenReturn(CompletableFuture.failedFuture(failure));
+        when(templateMetaCache.find(templateId)).thenReturn(Optional.of(meta(templateId)));
+
+        assertSame(failure, assertThrows(IllegalStateException.class, () -> fetcher.fetchAll(List.of(templateId))));
+    }
+
+    @Test
+    void testFetchAllRejectsWhenQueueIsFull() {
+        fetcher.destroy();
+        fetcher = new TemplateFetcher(templateMetaCache, printServiceGateway, properties(1, 1, Duration.ofSeconds(5)));
+        CountDownLatch release = new CountDownLatch(1);
+        when(printServiceGateway.downloadTemplateAsync(any(UUID.class)))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(CONTENT));
+        when(templateMetaCache.find(any(UUID.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(meta(invocation.getArgument(0)));
+        });
+
+        try {
+            assertThrows(
+                    PrintServiceUnavailableException.class,
+                    () -> fetcher.fetchAll(List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID()))
+            );
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    void testFetchAllTimesOut() {
+        fetcher.destroy();
+        fetcher = new TemplateFetcher(templateMetaCache, printServiceGateway, properties(2, 8, Duration.ofMillis(100)));
+        UUID templateId = UUID.randomUUID();
+        CompletableFuture<byte[]> download = new CompletableFuture<>();
+        when(printServiceGateway.downloadTemplateAsync(templateId)).thenReturn(download);
+        when(templateMetaCache.find(templateId)).thenReturn(Optional.of(meta(templateId)));
+
+        assertThrows(PrintServiceUnavailableException.class, () -> fetcher.fetchAll(List.of(templateId)));
+        awaitCondition(download::isCancelled);
+    }
+
+    private static PrintProperties properties(int maxConcurrency, int queueCapacity, Duration timeout) {
+        PrintProperties properties = new PrintProperties();
+        properties.getBatch().setMaxConcurrency(maxConcurrency);
+        properties.getBatch().setQueueCapacity(queueCapacity);
+        properties.getBatch().setTimeout(timeout);
+        return properties;
+    }
+
+    private TemplateMeta meta(UUID templateId) {
+        TemplateMeta meta = new TemplateMeta();
+        meta.setTemplateId(templateId);
+        return meta;
+    }
+
+    private static void awaitCondition(BooleanSupplier condition) {
+        CompletableFuture.runAsync(() -> {
+            while (!condition.getAsBoolean()) {
+                Thread.onSpinWait();
+            }
+        }).orTimeout(5, TimeUnit.SECONDS).join();
+    }
+}
@@ -0,0 +1,104 @@
+package ru.axenix.smartax.dui.service.integration.stream;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+import ru.axenix.smartax.dui.service.integration.dto.TemplateDto;
+import ru.axenix.smartax.dui.service.model.table.FileResponseDto;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+final class TemplateJsonWriterTest {
+
+    private static final UUID TEMPLATE_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private final TemplateJsonWriter writer = new TemplateJsonWriter(objectMapper);
+
+    @Test
+    void testWriteMatchesBufferedSerialization() throws IOException {
+        byte[] content = "template content".getBytes(StandardCharsets.UTF_8);
+        TemplateDto template = template(null);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.write(template, new ByteArrayInputStream(content), content.length, output);
+
+        TemplateDto expected = template(Base64.getEncoder().encodeToString(content));
+        assertEquals(
+                objectMapper.readTree(objectMapper.writeValueAsBytes(expected)),
+                objectMapper.readTree(output.toByteArray())
+        );
+    }
+
+    @Test
+    void testWriteAll() throws IOException {
+        byte[] first = "first".getBytes(StandardCharsets.UTF_8);
+        byte[] second = "second".getBytes(StandardCharsets.UTF_8);
+
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        writer.writeAll(List.of(
+                new TemplateContent(template(null), first),
+                new TemplateContent(template(null), second)
+        ).iterator(), output);
+
+        assertEquals(
+                objectMapper.readTree(objectMapper.writeValueAsBytes(List.of(
+                        template(Base64.getEncoder().encodeToString(first)),
+                        template(Base64.getEncoder().encodeToString(second))
+                ))),
+                objectMapper.readTree(output.toByteArray())
+        );
+    }
+
+    @Test
+    void testWriteLeavesOutputOpen() throws IOException {
+        byte[] content = "content".getBytes(StandardCharsets.UTF_8);
+        CloseTrackingOutputStream output = new CloseTrackingOutputStream();
+
+        writer.write(template(null), new ByteArrayInputStream(content), content.length, output);
+        writer.writeAll(List.of(new TemplateContent(template(null), content)).iterator(), output);
+
+        assertFalse(output.closed);
+    }
+
+    @Test
+    void testWriteNullTemplate() throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        writer.write(null, new ByteArrayInputStream(new byte[0]), 0, output);
+
+        assertNull(objectMapper.readValue(output.toByteArray(), TemplateDto.class));
+    }
+
+    private TemplateDto template(String content) {
+        return TemplateDto.builder()
+                .templateId(TEMPLATE_ID)
+                .templateCode("CODE")
+                .description("DESC")
+                .schema(Map.of("field", Map.of("type", "string")))
+                .creationDate(LocalDateTime.of(2026, 1, 1, 10, 0))
+                .file(new FileResponseDto(TEMPLATE_ID.toString(), "file.bin", content))
+                .build();
+    }
+
+    private static final class CloseTrackingOutputStream extends ByteArrayOutputStream {
+
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package ru.axenix.smartax.dui.service.integration.table;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.axenix.smartax.dui.service.integration.cache.TemplateMetaCache;
+import ru.axenix.smartax.dui.service.integration.mapper.TemplateTableMapper;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
+import ru.axenix.smartax.dui.service.model.table.TableResponse;
+import ru.axenix.smartax.printservice.model.templateview.find.TemplateMeta;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+final class TemplateTableQueryTest {
+
+    private static final String TEMPLATE_CODE = "templateCode";
+
+    @Mock
+    private TemplateMetaCache templateMetaCache;
+
+    private TemplateTableQuery query;
+
+    private TemplateMeta invoice;
+    private TemplateMeta act;
+    private TemplateMeta contract;
+
+    @BeforeEach
+    void setUp() {
+        query = new TemplateTableQuery(templateMetaCache, Mappers.getMapper(TemplateTableMapper.class));
+        invoice = template("INVOICE", "FINANCE", LocalDateTime.of(2026, 1, 3, 0, 0));
+        act = template("ACT", "FINANCE", LocalDateTime.of(2026, 1, 1, 0, 0));
+        contract = template("CONTRACT", "LEGAL", null);
+    }
+
+    @Test
+    void testDefaultRequestReturnsCatalogWithoutSchema() {
+        when(templateMetaCache.findAll()).thenReturn(List.of(invoice, act, contract));
+
+        TableResponse result = query.find(null, false);
+
+        assertEquals(3, result.getTotal());
+        assertEquals(3, result.getRecords().size());
+        assertFalse(result.getRecords().get(0).containsKey("schema"));
+    }
+
+    @Test
+    void testWithSchema() {
+        when(templateMetaCache.findAll()).thenReturn(List.of(invoice));
+
+        TableResponse result = query.find(new TableRequest(), true);
+
+        assertTrue(result.getRecords().get(0).containsKey("schema"));
+    }
+
+    @Test
+    void testQuickSearchUsesIndex() {
+        when(templateMetaCache.search("inv")).thenReturn(List.of(invoice));
+
+        TableResponse result = query.find(TableRequest.builder().quickSearch(" inv ").build(), false);
+
+        assertEquals(1, result.getTotal());
+        assertEquals("INVOICE", result.getRecords().get(0).get(TEMPLATE_CODE));
+        verify(templateMetaCache, never()).findAll();
+    }
+
+    @Test
+    void testFilterSortAndPage() {
+        when(templateMetaCache.findAll()).thenReturn(List.of(invoice, act, contract));
+
+        TableRequest request = TableRequest.builder()
+                .filter(List.of(Map.of("name", "templateGroup", "value", "finance")))
+                .sort(List.of(Map.of("name", "creationDate", "direction", "desc")))
+                .pager(new TableRequest.Pager(2, 1))
+                .build();
+
+        TableResponse result = query.find(request, false);
+
+        assertEquals(2, result.getTotal());
+        assertEquals(1, result.getRecords().size());
+        assertEquals("ACT", result.getRecords().get(0).get(TEMPLATE_CODE));
+    }
+
+    @Test
+    void testContainsFilterAndNullsLastSort() {
+        when(templateMetaCache.findAll()).thenReturn(List.of(contract, invoice, act));
+
+        TableRequest request = TableRequest.builder()
+                .filter(List.of(Map.of("name", "templateCode", "operator", "LIKE", "value", "c")))
+                .sort(List.of("creationDate"))
+                .build();
+
+        TableResponse result = query.find(request, false);
+
+        assertEquals(3, result.getTotal());
+        assertEquals(List.of("ACT", "INVOICE", "CONTRACT"),
+                result.getRecords().stream().map(r -> r.get(TEMPLATE_CODE)).toList());
+    }
+
+    @Test
+    void testPageOutOfRange() {
+        when(templateMetaCache.findAll()).thenReturn(List.of(invoice, act));
+
+        TableResponse result = query.find(TableRequest.builder().pager(new TableRequest.Pager(10, 5)).build(), false);
+
+        assertEquals(2, result.getTotal());
+        assertTrue(result.getRecords().isEmpty());
+    }
+
+    private TemplateMeta template(String code, String group, LocalDateTime creationDate) {
+        TemplateMeta meta = new TemplateMeta();
+        meta.setTemplateId(UUID.randomUUID());
+        meta.setTemplateCode(code);
+        meta.setTemplateGroup(group);
+        meta.setCreationDate(creationDate);
+        meta.setSchema(Map.of("field", Map.of("type", "string")));
+        return meta;
+    }
+}
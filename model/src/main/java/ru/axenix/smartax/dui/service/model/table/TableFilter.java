@@ -0,0 +1,38 @@
+package ru.axenix.smartax.dui.service.model.table;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Параметр фильтрации sdi-table.
+ *
+ * @author Artem Velikanov.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Параметр фильтрации sdi-table")
+public class TableFilter {
+
+    /**
+     * Наименование поля
+     */
+    @Schema(description = "Наименование поля")
+    private String name;
+
+    /**
+     * Оператор сравнения (EQUAL, LIKE и т.д.)
+     */
+    @Schema(description = "Оператор сравнения (EQUAL, LIKE и т.д.)")
+    private String operator;
+
+    /**
+     * Значение фильтра
+     */
+    @Schema(description = "Значение фильтра")
+    private Object value;
+}
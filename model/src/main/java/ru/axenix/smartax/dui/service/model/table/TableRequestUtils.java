@@ -0,0 +1,146 @@
+package ru.axenix.smartax.dui.service.model.table;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * Разбор универсального запроса sdi-table {@link TableRequest}.
+ *
+ * <p>
+ * Параметры фильтрации и сортировки приходят в виде произвольных объектов json,
+ * поэтому поддерживаются синонимы ключей: {@code name/field/column} для наименования поля,
+ * {@code direction/order} для направления сортировки ({@code asc/desc}).
+ * Номер страницы в {@link TableRequest.Pager} считается с единицы.
+ * </p>
+ *
+ * @author Artem Velikanov.
+ */
+public final class TableRequestUtils {
+
+    private static final List<String> NAME_KEYS = List.of("name", "field", "column");
+    private static final List<String> DIRECTION_KEYS = List.of("direction", "order");
+    private static final String OPERATOR_KEY = "operator";
+    private static final String VALUE_KEY = "value";
+    private static final String DESC = "desc";
+
+    private TableRequestUtils() {
+    }
+
+    /**
+     * Строка быстрого поиска без пробелов по краям.
+     *
+     * @param request запрос sdi-table (может быть null).
+     * @return строка поиска либо пустой Optional.
+     */
+    public static Optional<String> quickSearch(TableRequest request) {
+        return Optional.ofNullable(request)
+                .map(TableRequest::getQuickSearch)
+                .map(String::trim)
+                .filter(s -> !s.isEmpty());
+    }
+
+    /**
+     * Список параметров фильтрации.
+     *
+     * @param request запрос sdi-table (может быть null).
+     * @return параметры фильтрации с заполненным наименованием поля.
+     */
+    public static List<TableFilter> filters(TableRequest request) {
+        List<TableFilter> result = new ArrayList<>();
+        if (request == null || request.getFilter() == null) {
+            return result;
+        }
+        for (Object item : request.getFilter()) {
+            if (item instanceof Map<?, ?> map) {
+                String name = firstString(map, NAME_KEYS);
+                if (name != null) {
+                    result.add(new TableFilter(name, firstString(map, List.of(OPERATOR_KEY)), map.get(VALUE_KEY)));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Значение фильтра по наименованию поля.
+     *
+     * @param request запрос sdi-table (может быть null).
+     * @param name    наименование поля.
+     * @return значение фильтра либо пустой Optional.
+     */
+    public static Optional<Object> filterValue(TableRequest request, String name) {
+        return filters(request).stream()
+                .filter(f -> name.equals(f.getName()))
+                .map(TableFilter::getValue)
+                .filter(Objects::nonNull)
+                .findFirst();
+    }
+
+    /**
+     * Список параметров сортировки.
+     * <p>Элементом может быть как объект, так и строка с наименованием поля (сортировка по возрастанию).</p>
+     *
+     * @param request запрос sdi-table (может быть null).
+     * @return параметры сортировки.
+     */
+    public static List<TableSort> sorts(TableRequest request) {
+        List<TableSort> result = new ArrayList<>();
+        if (request == null || request.getSort() == null) {
+            return result;
+        }
+        for (Object item : request.getSort()) {
+            if (item instanceof String name && !name.isBlank()) {
+                result.add(new TableSort(name, false));
+            } else if (item instanceof Map<?, ?> map) {
+                String name = firstString(map, NAME_KEYS);
+                String direction = firstString(map, DIRECTION_KEYS);
+                if (name != null) {
+                    result.add(new TableSort(name, direction != null && DESC.equals(direction.toLowerCase(Locale.ROOT))));
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Номер запрашиваемой страницы, начиная с нуля.
+     *
+     * @param request запрос sdi-table (может быть null).
+     * @return номер страницы (0 при отсутствии пагинации).
+     */
+    public static int pageIndex(TableRequest request) {
+        if (request == null || request.getPager() == null) {
+            return 0;
+        }
+        return Math.max(request.getPager().getPage() - 1, 0);
+    }
+
+    /**
+     * Количество элементов страницы, ограниченное сверху.
+     *
+     * @param request      запрос sdi-table (может быть null).
+     * @param defaultLimit значение по умолчанию при отсутствии пагинации.
+     * @param maxLimit     максимально допустимое значение.
+     * @return количество элементов страницы.
+     */
+    public static int limit(TableRequest request, int defaultLimit, int maxLimit) {
+        if (request == null || request.getPager() == null || request.getPager().getLimit() <= 0) {
+            return defaultLimit;
+        }
+        return Math.min(request.getPager().getLimit(), maxLimit);
+    }
+
+    private static String firstString(Map<?, ?> map, List<String> keys) {
+        for (String key : keys) {
+            Object value = map.get(key);
+            if (value != null && !value.toString().isBlank()) {
+                return value.toString();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,32 @@
+package ru.axenix.smartax.dui.service.model.table;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Параметр сортировки sdi-table.
+ *
+ * @author Artem Velikanov.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "Параметр сортировки sdi-table")
+public class TableSort {
+
+    /**
+     * Наименование поля
+     */
+    @Schema(description = "Наименование поля")
+    private String name;
+
+    /**
+     * Признак сортировки по убыванию
+     */
+    @Schema(description = "Признак сортировки по убыванию")
+    private boolean descending;
+}
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.annotation.Nulls;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
 import java.time.LocalDateTime;
@@ -21,6 +23,7 @@ import lombok.NoArgsConstructor;
 import lombok.Setter;
 import org.hibernate.annotations.JdbcTypeCode;
 import org.hibernate.type.SqlTypes;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionStorageType;
 
 /**
  * Доменная модель <strong>Запись коллекции</strong>.
@@ -64,6 +67,13 @@ public class CollectionEntity {
     @Column(name = "is_current", columnDefinition = "BIT")
     private Boolean isCurrent;
 
+    /**
+     * Признак черновика: запись создана автосохранением и изменяется на месте до фиксации версии.
+     */
+    @Builder.Default
+    @Column(name = "is_draft", nullable = false)
+    private boolean draft = false;
+
     /**
      * Идентификатор пользователя создавшего коллекцию.
      */
@@ -87,6 +97,17 @@ public class CollectionEntity {
     @Column(nullable = false, columnDefinition = "jsonb")
     private List<Map<String, Object>> pages = new ArrayList<>();
 
+    /**
+     * Хэши страниц коллекции в хранилище страниц {@code collection_page} в порядке следования.
+     * <p>Пустой список означает, что страницы хранятся в {@link #pages}.</p>
+     */
+    @NotNull
+    @Builder.Default
+    @JsonSetter(nulls = Nulls.AS_EMPTY)
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "page_refs", nullable = false, columnDefinition = "jsonb")
+    private List<String> pageRefs = new ArrayList<>();
+
     /**
      * Список моков запросов коллекции.
      */
@@ -106,4 +127,32 @@ public class CollectionEntity {
     @JdbcTypeCode(SqlTypes.JSON)
     @Column(nullable = false, columnDefinition = "jsonb")
     private Map<String, Object> config = new HashMap<>();
+
+    /**
+     * Канонический хэш контента записи (страницы, моки и конфигурация).
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    /**
+     * Способ хранения записи (полный снимок или JSON-patch).
+     */
+    @Builder.Default
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_type", nullable = false)
+    private CollectionStorageType storageType = CollectionStorageType.FULL;
+
+    /**
+     * Идентификатор записи-снимка, относительно которой хранится JSON-patch.
+     */
+    @JdbcTypeCode(SqlTypes.UUID)
+    @Column(name = "base_history_uuid")
+    private UUID baseHistoryId;
+
+    /**
+     * JSON-patch (RFC 6902) контента записи относительно снимка {@link #baseHistoryId}.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "delta", columnDefinition = "jsonb")
+    private List<Map<String, Object>> delta;
 }
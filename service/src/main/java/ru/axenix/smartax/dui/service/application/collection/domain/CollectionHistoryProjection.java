@@ -0,0 +1,32 @@
+package ru.axenix.smartax.dui.service.application.collection.domain;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Проекция исторической записи коллекции (без контента).
+ *
+ * @author Velikanov Artyom.
+ */
+public interface CollectionHistoryProjection {
+
+    /**
+     * @return технический идентификатор записи коллекции.
+     */
+    UUID getHistoryId();
+
+    /**
+     * @return заголовок (название) коллекции.
+     */
+    String getTitle();
+
+    /**
+     * @return дата создания записи в коллекции.
+     */
+    LocalDateTime getCreationDate();
+
+    /**
+     * @return признак, что запись коллекции является текущей используемой.
+     */
+    Boolean getIsCurrent();
+}
@@ -0,0 +1,55 @@
+package ru.axenix.smartax.dui.service.application.collection.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.util.Map;
+
+/**
+ * Доменная модель <strong>Страница коллекции</strong> в хранилище страниц.
+ *
+ * <p>
+ * Инструкция страницы хранится один раз по каноническому хэшу и используется всеми
+ * записями коллекций, содержащими такую же страницу.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@Entity
+@Table(name = "collection_page")
+public class CollectionPageEntity {
+
+    /**
+     * Канонический хэш инструкции страницы (SHA-256 в hex).
+     */
+    @Id
+    @Column(name = "hash", length = 64)
+    private String hash;
+
+    /**
+     * Инструкция страницы.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "content", nullable = false, columnDefinition = "jsonb")
+    private Map<String, Object> content;
+
+    /**
+     * Количество ссылок на страницу из записей коллекций.
+     */
+    @Column(name = "ref_count", nullable = false)
+    private int refCount;
+}
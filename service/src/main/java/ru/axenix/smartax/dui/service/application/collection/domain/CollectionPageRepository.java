@@ -0,0 +1,68 @@
+package ru.axenix.smartax.dui.service.application.collection.domain;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Репозиторий взаимодействия с БД таблицы <strong>collection_page</strong>
+ *
+ * @author Velikanov Artyom.
+ */
+@Repository
+public interface CollectionPageRepository extends JpaRepository<CollectionPageEntity, String> {
+
+    /**
+     * Добавление ссылок на страницы одним запросом.
+     * <p>Отсутствующие страницы создаются, у существующих увеличивается счётчик ссылок, контент не изменяется.
+     * Страницы блокируются в порядке хэшей, как и при освобождении ссылок.</p>
+     *
+     * @param pages Массив json объектов {@code {"hash", "content", "refs"}}.
+     * @return количество затронутых страниц.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            insert into dui_service.collection_page (hash, content, ref_count)
+            select p.hash, p.content, p.refs
+            from jsonb_to_recordset(cast(:pages as jsonb)) as p(hash varchar, content jsonb, refs integer)
+            order by p.hash
+            on conflict (hash) do update set ref_count = collection_page.ref_count + excluded.ref_count
+            """)
+    int acquire(@Param("pages") String pages);
+
+    /**
+     * Уменьшение счётчиков ссылок на страницы и удаление страниц без ссылок одним запросом.
+     * <p>
+     * Страницы блокируются в порядке хэшей до изменения, оставшиеся ссылки считаются по заблокированной
+     * версии строки: конкурирующее добавление ссылки ожидает блокировку и не может потерять страницу,
+     * удаляемую этим запросом, - после удаления она будет вставлена заново.
+     * </p>
+     *
+     * @param pages Массив json объектов {@code {"hash", "refs"}}.
+     * @return количество страниц, на которые остались ссылки.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = """
+            with p as (
+                select * from jsonb_to_recordset(cast(:pages as jsonb)) as p(hash varchar, refs integer)
+            ),
+            locked as (
+                select cp.hash, cp.ref_count - p.refs as ref_count
+                from dui_service.collection_page cp
+                join p on p.hash = cp.hash
+                order by cp.hash
+                for update of cp
+            ),
+            deleted as (
+                delete from dui_service.collection_page cp
+                using locked l
+                where cp.hash = l.hash and l.ref_count <= 0
+            )
+            update dui_service.collection_page cp set ref_count = l.ref_count
+            from locked l
+            where cp.hash = l.hash and l.ref_count > 0
+            """)
+    int release(@Param("pages") String pages);
+}
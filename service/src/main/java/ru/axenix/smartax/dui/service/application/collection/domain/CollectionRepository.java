@@ -1,8 +1,15 @@
 package ru.axenix.smartax.dui.service.application.collection.domain;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -16,20 +23,53 @@ import java.util.UUID;
 public interface CollectionRepository extends JpaRepository<CollectionEntity, UUID> {
 
     /**
-     * Получение списка актуальных коллекции администратора.
+     * Получение страницы актуальных коллекций администратора.
+     * <p>Выбираются только метаданные записей, jsonb-колонки не читаются.</p>
      *
-     * @param id идентификатор администратора.
-     * @return Список коллекций без контента.
+     * @param userId   идентификатор администратора.
+     * @param search   шаблон поиска по наименованию в нижнем регистре (LIKE).
+     * @param pageable параметры пагинации и сортировки.
+     * @return Страница коллекций без контента.
      */
-    List<CollectionEntity> findAllByUserIdAndIsCurrentTrue(String id);
+    @Query(value = """
+            select c.collectionId as collectionId, c.title as title, c.creationDate as creationDate
+            from CollectionEntity c
+            where c.userId = :userId and c.isCurrent = true and lower(c.title) like :search
+            """,
+            countQuery = """
+            select count(c) from CollectionEntity c
+            where c.userId = :userId and c.isCurrent = true and lower(c.title) like :search
+            """)
+    Page<CollectionShortProjection> findShortPage(@Param("userId") String userId,
+                                                  @Param("search") String search,
+                                                  Pageable pageable);
 
     /**
-     * Получение списка исторических записей коллекций в порядке убывания даты.
+     * Получение страницы исторических записей коллекции.
+     * <p>Выбираются только метаданные записей, jsonb-колонки не читаются.</p>
      *
      * @param collectionId Идентификатор коллекции.
-     * @return Список истории коллекции без контента.
+     * @param search       шаблон поиска по наименованию в нижнем регистре (LIKE).
+     * @param currentOnly  признак выборки только текущей записи.
+     * @param pageable     параметры пагинации и сортировки.
+     * @return Страница истории коллекции без контента.
      */
-    List<CollectionEntity> findAllByCollectionIdOrderByCreationDateAsc(UUID collectionId);
+    @Query(value = """
+            select c.historyId as historyId, c.title as title,
+                   c.creationDate as creationDate, c.isCurrent as isCurrent
+            from CollectionEntity c
+            where c.collectionId = :collectionId and lower(c.title) like :search
+              and (:currentOnly = false or c.isCurrent = true)
+            """,
+            countQuery = """
+            select count(c) from CollectionEntity c
+            where c.collectionId = :collectionId and lower(c.title) like :search
+              and (:currentOnly = false or c.isCurrent = true)
+            """)
+    Page<CollectionHistoryProjection> findHistoryPage(@Param("collectionId") UUID collectionId,
+                                                      @Param("search") String search,
+                                                      @Param("currentOnly") boolean currentOnly,
+                                                      Pageable pageable);
 
     /**
      * Получение контента актуальной коллекции по ее идентификатору.
@@ -39,6 +79,167 @@ public interface CollectionRepository extends JpaRepository<CollectionEntity, UU
      */
     Optional<CollectionEntity> findByCollectionIdAndIsCurrentTrue(UUID collectionId);
 
+    /**
+     * Получение идентификатора актуальной записи коллекции без чтения контента.
+     *
+     * @param collectionId Идентификатор коллекции.
+     * @return Идентификатор актуальной записи коллекции.
+     */
+    @Query("select c.historyId from CollectionEntity c where c.collectionId = :collectionId and c.isCurrent = true")
+    Optional<UUID> findCurrentHistoryId(@Param("collectionId") UUID collectionId);
+
+    /**
+     * Получение версии актуальной записи коллекции без чтения контента.
+     *
+     * @param collectionId Идентификатор коллекции.
+     * @return Идентификатор, наименование, хэш контента и признак черновика актуальной записи.
+     */
+    @Query("""
+            select c.historyId as historyId, c.title as title, c.contentHash as contentHash, c.draft as draft,
+                   c.creationDate as creationDate
+            from CollectionEntity c
+            where c.collectionId = :collectionId and c.isCurrent = true
+            """)
+    Optional<CollectionVersionProjection> findCurrentVersion(@Param("collectionId") UUID collectionId);
+
+    /**
+     * Получение версии записи коллекции без чтения контента.
+     *
+     * @param historyId Идентификатор записи коллекции.
+     * @return Идентификатор, наименование, хэш контента, признак черновика и дата создания записи.
+     */
+    @Query("""
+            select c.historyId as historyId, c.title as title, c.contentHash as contentHash, c.draft as draft,
+                   c.creationDate as creationDate
+            from CollectionEntity c
+            where c.historyId = :historyId
+            """)
+    Optional<CollectionVersionProjection> findVersion(@Param("historyId") UUID historyId);
+
+    /**
+     * Попытка захвата транзакционной advisory-блокировки редактирования коллекции.
+     * <p>Блокировка освобождается при завершении транзакции, ожидание не выполняется.</p>
+     *
+     * @param collectionId Идентификатор коллекции.
+     * @return true, если блокировка захвачена.
+     */
+    @Query(nativeQuery = true,
+            value = "select pg_try_advisory_xact_lock(hashtextextended(cast(:collectionId as text), 0))")
+    boolean tryLockForEdit(@Param("collectionId") UUID collectionId);
+
+    /**
+     * Получение идентификатора администратора актуальной записи коллекции без чтения контента.
+     *
+     * @param collectionId Идентификатор коллекции.
+     * @return Идентификатор пользователя создавшего коллекцию.
+     */
+    @Query("select c.userId from CollectionEntity c where c.collectionId = :collectionId and c.isCurrent = true")
+    Optional<String> findCurrentUserId(@Param("collectionId") UUID collectionId);
+
+    /**
+     * Снятие признака актуальности с текущей записи коллекции без чтения записи.
+     *
+     * @param collectionId Идентификатор коллекции.
+     * @return количество изменённых записей.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update CollectionEntity c set c.isCurrent = null where c.collectionId = :collectionId and c.isCurrent = true")
+    int clearCurrent(@Param("collectionId") UUID collectionId);
+
+    /**
+     * Замена актуальной записи коллекции новой полной записью одним запросом.
+     *
+     * <p>
+     * Признак актуальности снимается с текущей записи точечным UPDATE, новая запись вставляется
+     * в том же выражении (CTE), контент текущей записи не читается. Если наименование уже занято другой
+     * коллекцией администратора, запрос ничего не изменяет.
+     * </p>
+     *
+     * @param historyId    Идентификатор новой записи.
+     * @param collectionId Идентификатор коллекции.
+     * @param creationDate Дата создания новой записи.
+     * @param title        Наименование коллекции.
+     * @param pages        Инструкции страниц в виде json.
+     * @param pageRefs     Хэши страниц в хранилище страниц в виде json.
+     * @param mocks        Моки запросов в виде json.
+     * @param config       Конфигурация стилей в виде json.
+     * @param draft        Признак черновика.
+     * @param contentHash  Канонический хэш контента.
+     * @return Идентификатор администратора коллекции, пусто если запись не создана.
+     */
+    @Query(nativeQuery = true, value = """
+            with previous as (
+                update dui_service.collection cur set is_current = null
+                where cur.collection_uuid = :collectionId and cur.is_current = true
+                  and not exists (
+                      select 1 from dui_service.collection c
+                      where c.user_id = cur.user_id and c.title = :title and c.collection_uuid <> :collectionId
+                  )
+                returning cur.user_id
+            )
+            insert into dui_service.collection
+                (history_uuid, collection_uuid, creation_date, is_current, is_draft, user_id, title,
+                 pages, page_refs, mocks, config, storage_type, content_hash)
+            select :historyId, :collectionId, :creationDate, true, :draft, previous.user_id, :title,
+                   cast(:pages as jsonb), cast(:pageRefs as jsonb), cast(:mocks as jsonb), cast(:config as jsonb),
+                   'FULL', :contentHash
+            from previous
+            returning user_id
+            """)
+    Optional<String> replaceCurrent(@Param("historyId") UUID historyId,
+                                    @Param("collectionId") UUID collectionId,
+                                    @Param("creationDate") LocalDateTime creationDate,
+                                    @Param("title") String title,
+                                    @Param("pages") String pages,
+                                    @Param("pageRefs") String pageRefs,
+                                    @Param("mocks") String mocks,
+                                    @Param("config") String config,
+                                    @Param("draft") boolean draft,
+                                    @Param("contentHash") String contentHash);
+
+    /**
+     * Получение актуальной записи-черновика коллекции, сохранённой не ранее указанного момента.
+     *
+     * @param collectionId Идентификатор коллекции.
+     * @param savedAfter   Начало окна объединения автосохранений.
+     * @return Черновик коллекции.
+     */
+    @Query("""
+            select c from CollectionEntity c
+            where c.collectionId = :collectionId and c.isCurrent = true and c.draft = true
+              and c.creationDate >= :savedAfter
+            """)
+    Optional<CollectionEntity> findCurrentDraft(@Param("collectionId") UUID collectionId,
+                                                @Param("savedAfter") LocalDateTime savedAfter);
+
+    /**
+     * Фиксация черновика коллекции в качестве версии истории.
+     *
+     * @param collectionId Идентификатор коллекции.
+     * @return количество изменённых записей.
+     */
+    @Modifying
+    @Query("""
+            update CollectionEntity c set c.draft = false
+            where c.collectionId = :collectionId and c.isCurrent = true and c.draft = true
+            """)
+    int commitDraft(@Param("collectionId") UUID collectionId);
+
+    /**
+     * Получение хэшей страниц из хранилища страниц по всем записям коллекции.
+     * <p>Хэш повторяется столько раз, сколько ссылок на страницу содержат записи.</p>
+     *
+     * @param collectionId Идентификатор коллекции.
+     * @return Хэши страниц.
+     */
+    @Query(nativeQuery = true, value = """
+            select r.hash
+            from dui_service.collection c
+            cross join lateral jsonb_array_elements_text(c.page_refs) as r(hash)
+            where c.collection_uuid = :collectionId
+            """)
+    List<String> findPageRefs(@Param("collectionId") UUID collectionId);
+
     /**
      * Удаление всех записей по коллекции.
      *
@@ -63,4 +264,22 @@ public interface CollectionRepository extends JpaRepository<CollectionEntity, UU
      * @return true/false признак наличия наименования коллекции записях коллекции.
      */
     boolean existsByTitleAndUserIdAndCollectionIdIsNot(String title, String userId, UUID collectionId);
+
+    /**
+     * Поиск занятых наименований коллекций администратора из списка одним запросом.
+     *
+     * @param userId Идентификатор пользователя.
+     * @param titles Проверяемые наименования коллекций.
+     * @return Наименования, уже используемые в записях коллекций пользователя.
+     */
+    @Query("select distinct c.title from CollectionEntity c where c.userId = :userId and c.title in :titles")
+    List<String> findExistingTitles(@Param("userId") String userId, @Param("titles") Collection<String> titles);
+
+    /**
+     * Количество записей, хранящихся в виде JSON-patch относительно снимка.
+     *
+     * @param baseHistoryId Идентификатор записи-снимка.
+     * @return количество записей-дельт.
+     */
+    long countByBaseHistoryId(UUID baseHistoryId);
 }
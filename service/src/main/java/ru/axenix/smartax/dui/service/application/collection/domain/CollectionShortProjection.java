@@ -0,0 +1,27 @@
+package ru.axenix.smartax.dui.service.application.collection.domain;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Проекция записи коллекции для списка коллекций (без контента).
+ *
+ * @author Velikanov Artyom.
+ */
+public interface CollectionShortProjection {
+
+    /**
+     * @return технический идентификатор коллекции.
+     */
+    UUID getCollectionId();
+
+    /**
+     * @return заголовок (название) коллекции.
+     */
+    String getTitle();
+
+    /**
+     * @return дата создания текущей записи коллекции.
+     */
+    LocalDateTime getCreationDate();
+}
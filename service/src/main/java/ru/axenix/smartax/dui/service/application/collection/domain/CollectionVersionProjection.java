@@ -0,0 +1,37 @@
+package ru.axenix.smartax.dui.service.application.collection.domain;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Проекция версии записи коллекции (без контента).
+ *
+ * @author Velikanov Artyom.
+ */
+public interface CollectionVersionProjection {
+
+    /**
+     * @return технический идентификатор записи коллекции.
+     */
+    UUID getHistoryId();
+
+    /**
+     * @return заголовок (название) коллекции.
+     */
+    String getTitle();
+
+    /**
+     * @return канонический хэш контента записи (null для записей, созданных до появления хэша).
+     */
+    String getContentHash();
+
+    /**
+     * @return признак черновика.
+     */
+    Boolean getDraft();
+
+    /**
+     * @return дата создания записи (для черновика — дата последнего автосохранения).
+     */
+    LocalDateTime getCreationDate();
+}
@@ -0,0 +1,186 @@
+package ru.axenix.smartax.dui.service.application.collection.export;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionRepository;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionHistoryCodec;
+import ru.axenix.smartax.dui.service.application.collection.mapper.CollectionMapper;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionStorageType;
+import ru.axenix.smartax.dui.service.error.ErrorDescription;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+
+/**
+ * Потоковая запись коллекции в формате экспорта.
+ *
+ * <p>
+ * Строка записи читается из БД целиком (драйвер уже буферизует её), соединение возвращается в пул,
+ * и только затем коллекция пишется в выходной поток генератором Jackson: jsonb-колонки копируются
+ * потокенно без построения дерева, поэтому медленный клиент не удерживает соединение с БД.
+ * Страницы из хранилища страниц собираются тем же запросом в порядке ссылок записи.
+ * Записи, хранимые в виде JSON-patch, восстанавливаются через {@link CollectionHistoryCodec}.
+ * Документ экспорта в обоих случаях содержит одни и те же поля: uuid, title, pages, mocks, config.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CollectionExportWriter {
+
+    private static final String SELECT_COLLECTION = """
+            select c.collection_uuid, c.title, c.storage_type,
+                   jsonb_array_length(c.page_refs) as page_ref_count, p.page_count,
+                   coalesce(p.pages, c.pages)::text as pages, c.mocks::text as mocks, c.config::text as config
+            from collection c
+            left join lateral (
+                select jsonb_agg(cp.content order by r.ord) as pages, count(cp.hash) as page_count
+                from jsonb_array_elements_text(c.page_refs) with ordinality as r(hash, ord)
+                join collection_page cp on cp.hash = r.hash
+            ) p on true
+            where c.history_uuid = ?
+            """;
+
+    private static final String UUID_FIELD = "uuid";
+    private static final String TITLE = "title";
+    private static final String PAGES = "pages";
+    private static final String MOCKS = "mocks";
+    private static final String CONFIG = "config";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final CollectionRepository collectionRepository;
+    private final CollectionHistoryCodec historyCodec;
+    private final CollectionMapper collectionMapper;
+
+    /**
+     * Запись записи коллекции в поток.
+     *
+     * @param historyId идентификатор записи коллекции.
+     * @param out       выходной поток, не закрывается.
+     * @param pretty    признак форматированного вывода.
+     * @throws IOException ошибка записи в поток.
+     */
+    public void write(UUID historyId, OutputStream out, boolean pretty) throws IOException {
+        StoredRow row = jdbcTemplate.query(SELECT_COLLECTION, rs -> rs.next() ? StoredRow.of(rs) : null, historyId);
+        if (row == null) {
+            throw ErrorDescription.COLLECTION_NOT_FOUND.exception();
+        }
+        if (row.pageCount() != row.pageRefCount()) {
+            log.error("Collection pages not found in page store for history record {}", historyId);
+            throw ErrorDescription.COLLECTION_PAGE_NOT_FOUND.exception();
+        }
+        CollectionDto materialized = row.isInline() ? null : materialize(historyId);
+
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(out, JsonEncoding.UTF8)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            if (pretty) {
+                generator.useDefaultPrettyPrinter();
+            }
+            if (materialized == null) {
+                write(row, generator);
+            } else {
+                write(materialized, generator);
+            }
+        }
+    }
+
+    private CollectionDto materialize(UUID historyId) {
+        var entity = collectionRepository.findById(historyId)
+                .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
+        return collectionMapper.toDto(historyCodec.materialize(entity));
+    }
+
+    private void write(StoredRow row, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField(UUID_FIELD, row.collectionId());
+        generator.writeStringField(TITLE, row.title());
+        copyJson(PAGES, row.pages(), "[]", generator);
+        copyJson(MOCKS, row.mocks(), "[]", generator);
+        copyJson(CONFIG, row.config(), "{}", generator);
+        generator.writeEndObject();
+    }
+
+    private void write(CollectionDto collection, JsonGenerator generator) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField(UUID_FIELD, Objects.toString(collection.getUuid(), null));
+        generator.writeStringField(TITLE, collection.getTitle());
+        generator.writeObjectField(PAGES, Objects.requireNonNullElse(collection.getPages(), List.of()));
+        generator.writeObjectField(MOCKS, Objects.requireNonNullElse(collection.getMocks(), List.of()));
+        generator.writeObjectField(CONFIG, Objects.requireNonNullElse(collection.getConfig(), Map.of()));
+        generator.writeEndObject();
+    }
+
+    /**
+     * Копирование json из jsonb-колонки в генератор без построения дерева.
+     *
+     * @param field        наименование поля.
+     * @param json         значение колонки.
+     * @param defaultValue значение для пустой колонки.
+     * @param generator    генератор json.
+     */
+    private void copyJson(String field, String json, String defaultValue, JsonGenerator generator) throws IOException {
+        generator.writeFieldName(field);
+        if (json == null) {
+            generator.writeRawValue(defaultValue);
+            return;
+        }
+        try (JsonParser parser = objectMapper.getFactory().createParser(json)) {
+            parser.nextToken();
+            generator.copyCurrentStructure(parser);
+        }
+    }
+
+    /**
+     * Строка записи коллекции, прочитанная из БД.
+     *
+     * @param collectionId идентификатор коллекции.
+     * @param title        наименование коллекции.
+     * @param storageType  способ хранения записи.
+     * @param pageRefCount количество ссылок на хранилище страниц.
+     * @param pageCount    количество найденных в хранилище страниц.
+     * @param pages        страницы в виде json (из хранилища страниц, если запись ссылается на него).
+     * @param mocks        моки в виде json.
+     * @param config       конфигурация в виде json.
+     */
+    private record StoredRow(String collectionId, String title, String storageType, int pageRefCount,
+                             int pageCount, String pages, String mocks, String config) {
+
+        private static StoredRow of(ResultSet rs) throws SQLException {
+            return new StoredRow(
+                    rs.getString("collection_uuid"),
+                    rs.getString(TITLE),
+                    rs.getString("storage_type"),
+                    rs.getInt("page_ref_count"),
+                    rs.getInt("page_count"),
+                    rs.getString(PAGES),
+                    rs.getString(MOCKS),
+                    rs.getString(CONFIG)
+            );
+        }
+
+        /**
+         * Признак записи, контент которой прочитан запросом без восстановления из JSON-patch.
+         *
+         * @return true для полного снимка, в том числе со страницами из хранилища страниц.
+         */
+        private boolean isInline() {
+            return !CollectionStorageType.DELTA.name().equals(storageType);
+        }
+    }
+}
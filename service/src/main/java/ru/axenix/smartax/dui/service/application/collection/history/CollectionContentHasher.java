@@ -0,0 +1,99 @@
+package ru.axenix.smartax.dui.service.application.collection.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Канонический хэш контента коллекции (страницы, моки и конфигурация).
+ *
+ * <p>
+ * Контент сериализуется в json с упорядоченными по ключу полями объектов, поэтому хэш
+ * не зависит от порядка ключей. Отсутствующие списки и конфигурация равнозначны пустым.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Component
+public class CollectionContentHasher {
+
+    private static final String PAGES = "pages";
+    private static final String MOCKS = "mocks";
+    private static final String CONFIG = "config";
+
+    private final ObjectWriter writer;
+
+    public CollectionContentHasher(ObjectMapper objectMapper) {
+        this.writer = objectMapper.copy()
+                .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+                .configure(SerializationFeature.INDENT_OUTPUT, false)
+                .writer();
+    }
+
+    /**
+     * Хэш контента коллекции.
+     *
+     * @param collection коллекция.
+     * @return SHA-256 канонического json контента в hex.
+     */
+    public String hash(CollectionDto collection) {
+        return hash(collection.getPages(), collection.getMocks(), collection.getConfig());
+    }
+
+    /**
+     * Хэш контента коллекции.
+     *
+     * @param pages  инструкции страниц.
+     * @param mocks  моки запросов.
+     * @param config конфигурация стилей.
+     * @return SHA-256 канонического json контента в hex.
+     */
+    public String hash(List<Map<String, Object>> pages, List<Map<String, Object>> mocks, Map<String, Object> config) {
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put(CONFIG, config == null ? Map.of() : config);
+        content.put(MOCKS, mocks == null ? List.of() : mocks);
+        content.put(PAGES, pages == null ? List.of() : pages);
+        return digest(content);
+    }
+
+    /**
+     * Хэш инструкции страницы, ключ страницы в хранилище страниц коллекций.
+     *
+     * @param page инструкция страницы.
+     * @return SHA-256 канонического json страницы в hex.
+     */
+    public String hashPage(Map<String, Object> page) {
+        return digest(page == null ? Map.of() : page);
+    }
+
+    private String digest(Object value) {
+        MessageDigest digest = sha256();
+        try (OutputStream out = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            writer.writeValue(out, value);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
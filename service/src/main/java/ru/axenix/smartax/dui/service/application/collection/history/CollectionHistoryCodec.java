@@ -0,0 +1,144 @@
+package ru.axenix.smartax.dui.service.application.collection.history;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.flipkart.zjsonpatch.JsonDiff;
+import com.flipkart.zjsonpatch.JsonPatch;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionRepository;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionStorageType;
+import ru.axenix.smartax.dui.service.configuration.properties.CollectionHistoryProperties;
+import ru.axenix.smartax.dui.service.error.ErrorDescription;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Кодирование истории коллекции в виде полных снимков и JSON-patch между ними.
+ *
+ * <p>
+ * Запись-дельта хранит патч относительно ближайшего полного снимка, поэтому
+ * восстановление любой версии требует чтения не более одной дополнительной записи.
+ * Новый снимок создаётся каждые {@code checkpointInterval} записей.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Component
+@RequiredArgsConstructor
+public class CollectionHistoryCodec {
+
+    private static final String PAGES = "pages";
+    private static final String MOCKS = "mocks";
+    private static final String CONFIG = "config";
+
+    private static final TypeReference<List<Map<String, Object>>> LIST_TYPE = new TypeReference<>() { };
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() { };
+
+    private final CollectionRepository collectionRepository;
+    private final CollectionHistoryProperties properties;
+    private final CollectionPageStore pageStore;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Признак включенного режима хранения истории в виде дельт.
+     *
+     * @return true, если новые записи коллекции кодируются JSON-patch.
+     */
+    public boolean isDeltaEnabled() {
+        return properties.getMode() == CollectionHistoryProperties.Mode.DELTA;
+    }
+
+    /**
+     * Кодирование новой записи коллекции относительно предыдущей текущей записи.
+     *
+     * @param previous предыдущая текущая запись коллекции.
+     * @param next     новая запись коллекции с полным контентом.
+     * @return запись для сохранения: полный снимок либо дельта.
+     */
+    public CollectionEntity encode(CollectionEntity previous, CollectionEntity next) {
+        boolean previousIsDelta = previous.getStorageType() == CollectionStorageType.DELTA;
+        UUID baseHistoryId = previousIsDelta ? previous.getBaseHistoryId() : previous.getHistoryId();
+
+        if (collectionRepository.countByBaseHistoryId(baseHistoryId) + 1 >= properties.getCheckpointInterval()) {
+            return next;
+        }
+
+        CollectionEntity base = previousIsDelta ? findBase(baseHistoryId) : previous;
+        JsonNode patch = JsonDiff.asJson(toContent(base), toContent(next));
+
+        return CollectionEntity.builder()
+                .historyId(next.getHistoryId())
+                .collectionId(next.getCollectionId())
+                .creationDate(next.getCreationDate())
+                .isCurrent(next.getIsCurrent())
+                .draft(next.isDraft())
+                .contentHash(next.getContentHash())
+                .userId(next.getUserId())
+                .title(next.getTitle())
+                .storageType(CollectionStorageType.DELTA)
+                .baseHistoryId(baseHistoryId)
+                .delta(objectMapper.convertValue(patch, LIST_TYPE))
+                .build();
+    }
+
+    /**
+     * Восстановление полного контента записи коллекции.
+     * <p>Возвращается новый объект, управляемая сущность не изменяется.</p>
+     *
+     * @param entity запись коллекции.
+     * @return запись коллекции с полным контентом.
+     */
+    public CollectionEntity materialize(CollectionEntity entity) {
+        if (entity.getStorageType() != CollectionStorageType.DELTA) {
+            return entity;
+        }
+
+        JsonNode content = JsonPatch.apply(
+                objectMapper.valueToTree(entity.getDelta()),
+                toContent(findBase(entity.getBaseHistoryId()))
+        );
+
+        return CollectionEntity.builder()
+                .historyId(entity.getHistoryId())
+                .collectionId(entity.getCollectionId())
+                .creationDate(entity.getCreationDate())
+                .isCurrent(entity.getIsCurrent())
+                .draft(entity.isDraft())
+                .contentHash(entity.getContentHash())
+                .userId(entity.getUserId())
+                .title(entity.getTitle())
+                .pages(readList(content.get(PAGES)))
+                .mocks(readList(content.get(MOCKS)))
+                .config(readMap(content.get(CONFIG)))
+                .build();
+    }
+
+    private CollectionEntity findBase(UUID baseHistoryId) {
+        return collectionRepository.findById(baseHistoryId)
+                .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
+    }
+
+    private ObjectNode toContent(CollectionEntity entity) {
+        ObjectNode content = objectMapper.createObjectNode();
+        content.set(PAGES, objectMapper.valueToTree(pageStore.pages(entity)));
+        content.set(MOCKS, objectMapper.valueToTree(entity.getMocks()));
+        content.set(CONFIG, objectMapper.valueToTree(entity.getConfig()));
+        return content;
+    }
+
+    private List<Map<String, Object>> readList(JsonNode node) {
+        return node == null || node.isNull() ? new ArrayList<>() : objectMapper.convertValue(node, LIST_TYPE);
+    }
+
+    private Map<String, Object> readMap(JsonNode node) {
+        return node == null || node.isNull() ? new HashMap<>() : objectMapper.convertValue(node, MAP_TYPE);
+    }
+}
@@ -0,0 +1,206 @@
+package ru.axenix.smartax.dui.service.application.collection.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.mapstruct.Named;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionPageEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionPageRepository;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionStorageType;
+import ru.axenix.smartax.dui.service.configuration.properties.CollectionHistoryProperties;
+import ru.axenix.smartax.dui.service.error.ErrorDescription;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Хранилище страниц коллекций с адресацией по содержимому.
+ *
+ * <p>
+ * Инструкция страницы хранится один раз по каноническому хэшу ({@link CollectionContentHasher#hashPage}),
+ * полные записи коллекций содержат только список хэшей. Неизменённые страницы не копируются в новые
+ * записи истории и совпадающие страницы разных коллекций не дублируются. Счётчик ссылок страницы
+ * увеличивается при сохранении записи и уменьшается при её удалении либо перезаписи черновика;
+ * страница без ссылок удаляется.
+ * </p>
+ * <p>
+ * Записи, хранимые в виде JSON-patch, и записи, сохранённые до появления хранилища, содержат
+ * страницы в колонке {@code pages}.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CollectionPageStore {
+
+    private static final String HASH = "hash";
+    private static final String CONTENT = "content";
+    private static final String REFS = "refs";
+
+    private final CollectionPageRepository pageRepository;
+    private final CollectionContentHasher contentHasher;
+    private final CollectionHistoryProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Признак хранения страниц новых записей в хранилище страниц.
+     *
+     * @return true, если страницы полных записей сохраняются по хэшу.
+     */
+    public boolean isEnabled() {
+        return properties.isPageStore();
+    }
+
+    /**
+     * Сохранение страниц в хранилище с увеличением счётчиков ссылок.
+     *
+     * @param pages инструкции страниц.
+     * @return хэши страниц в порядке следования.
+     */
+    public List<String> store(List<Map<String, Object>> pages) {
+        if (pages == null || pages.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        Map<String, Integer> counts = new TreeMap<>();
+        Map<String, Map<String, Object>> contents = new HashMap<>();
+        List<String> refs = hash(pages, counts, contents);
+        pageRepository.acquire(toJson(counts, contents));
+        return refs;
+    }
+
+    /**
+     * Перенос страниц полной записи коллекции в хранилище страниц.
+     * <p>Запись изменяется на месте: страницы заменяются списком хэшей.</p>
+     *
+     * @param entity запись коллекции для сохранения.
+     * @return та же запись коллекции.
+     */
+    public CollectionEntity externalize(CollectionEntity entity) {
+        externalizeAll(List.of(entity));
+        return entity;
+    }
+
+    /**
+     * Перенос страниц пачки полных записей коллекций в хранилище страниц одним запросом.
+     * <p>Записи изменяются на месте: страницы заменяются списками хэшей.</p>
+     *
+     * @param entities записи коллекций для сохранения.
+     */
+    public void externalizeAll(List<CollectionEntity> entities) {
+        if (!isEnabled()) {
+            return;
+        }
+
+        Map<String, Integer> counts = new TreeMap<>();
+        Map<String, Map<String, Object>> contents = new HashMap<>();
+        for (CollectionEntity entity : entities) {
+            if (CollectionStorageType.DELTA != entity.getStorageType()) {
+                entity.setPageRefs(hash(entity.getPages(), counts, contents));
+                entity.setPages(new ArrayList<>());
+            }
+        }
+        if (!counts.isEmpty()) {
+            pageRepository.acquire(toJson(counts, contents));
+        }
+    }
+
+    /**
+     * Освобождение ссылок на страницы и удаление страниц, на которые не осталось ссылок.
+     *
+     * @param refs хэши страниц, хэш повторяется по количеству ссылок.
+     */
+    public void release(List<String> refs) {
+        if (refs == null || refs.isEmpty()) {
+            return;
+        }
+
+        pageRepository.release(toJson(count(refs), Map.of()));
+    }
+
+    /**
+     * Инструкции страниц записи коллекции: из хранилища страниц либо из самой записи.
+     *
+     * @param entity запись коллекции.
+     * @return инструкции страниц в порядке следования.
+     */
+    @Named("collectionPages")
+    public List<Map<String, Object>> pages(CollectionEntity entity) {
+        List<String> refs = entity.getPageRefs();
+        if (refs == null || refs.isEmpty()) {
+            return entity.getPages();
+        }
+
+        Map<String, Map<String, Object>> contents = pageRepository.findAllById(new HashSet<>(refs)).stream()
+                .collect(Collectors.toMap(CollectionPageEntity::getHash, CollectionPageEntity::getContent));
+        List<Map<String, Object>> pages = new ArrayList<>(refs.size());
+        for (String hash : refs) {
+            Map<String, Object> content = contents.get(hash);
+            if (content == null) {
+                log.error("Collection page {} not found for history record {}", hash, entity.getHistoryId());
+                throw ErrorDescription.COLLECTION_PAGE_NOT_FOUND.exception();
+            }
+            pages.add(content);
+        }
+        return pages;
+    }
+
+    /**
+     * Хэширование страниц с накоплением количества ссылок и контента по хэшу.
+     *
+     * @param pages    инструкции страниц.
+     * @param counts   количество ссылок по хэшу, дополняется.
+     * @param contents контент страниц по хэшу, дополняется.
+     * @return хэши страниц в порядке следования.
+     */
+    private List<String> hash(List<Map<String, Object>> pages,
+                              Map<String, Integer> counts,
+                              Map<String, Map<String, Object>> contents) {
+        if (pages == null) {
+            return new ArrayList<>();
+        }
+        List<String> refs = new ArrayList<>(pages.size());
+        for (Map<String, Object> page : pages) {
+            String hash = contentHasher.hashPage(page);
+            refs.add(hash);
+            counts.merge(hash, 1, Integer::sum);
+            contents.putIfAbsent(hash, page);
+        }
+        return refs;
+    }
+
+    /**
+     * Количество ссылок по хэшу страницы.
+     * <p>Хэши упорядочены: конкурирующие сохранения блокируют страницы в одном порядке.</p>
+     *
+     * @param refs хэши страниц.
+     * @return количество ссылок по хэшу.
+     */
+    private static Map<String, Integer> count(List<String> refs) {
+        Map<String, Integer> counts = new TreeMap<>();
+        refs.forEach(hash -> counts.merge(hash, 1, Integer::sum));
+        return counts;
+    }
+
+    private String toJson(Map<String, Integer> counts, Map<String, Map<String, Object>> contents) {
+        ArrayNode rows = objectMapper.createArrayNode();
+        counts.forEach((hash, refs) -> {
+            ObjectNode row = rows.addObject().put(HASH, hash).put(REFS, refs);
+            if (contents.containsKey(hash)) {
+                row.set(CONTENT, objectMapper.valueToTree(contents.get(hash)));
+            }
+        });
+        return rows.toString();
+    }
+}
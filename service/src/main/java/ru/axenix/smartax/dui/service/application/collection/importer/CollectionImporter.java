@@ -0,0 +1,186 @@
+package ru.axenix.smartax.dui.service.application.collection.importer;
+
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionRepository;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionContentHasher;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionPageStore;
+import ru.axenix.smartax.dui.service.application.collection.mapper.CollectionMapper;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionShortDto;
+import ru.axenix.smartax.dui.service.error.ErrorDescription;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Массовый импорт коллекций из файлов экспорта.
+ *
+ * <p>
+ * Поддерживаются файлы экспорта коллекции (.json), json-массивы и NDJSON с несколькими
+ * коллекциями, а также zip-архивы с такими файлами. Файлы читаются потоково в два прохода:
+ * первый собирает наименования для проверки уникальности одним запросом, второй сохраняет
+ * коллекции пачками размера {@code hibernate.jdbc.batch_size}, очищая контекст после каждой пачки.
+ * Страницы пачки переносятся в хранилище страниц одним запросом до сохранения записей пачки,
+ * чтобы запрос к хранилищу не прерывал пакетную вставку записей.
+ * Импорт выполняется в одной транзакции.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Slf4j
+@Component
+public class CollectionImporter {
+
+    private static final List<String> JSON_EXTENSIONS = List.of(".json", ".ndjson", ".jsonl");
+
+    private final CollectionRepository collectionRepository;
+    private final CollectionMapper collectionMapper;
+    private final CollectionContentHasher contentHasher;
+    private final CollectionPageStore pageStore;
+    private final EntityManager entityManager;
+    private final ObjectReader reader;
+    private final int batchSize;
+
+    public CollectionImporter(CollectionRepository collectionRepository,
+                              CollectionMapper collectionMapper,
+                              CollectionContentHasher contentHasher,
+                              CollectionPageStore pageStore,
+                              EntityManager entityManager,
+                              ObjectMapper objectMapper,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:20}") int batchSize) {
+        this.collectionRepository = collectionRepository;
+        this.collectionMapper = collectionMapper;
+        this.contentHasher = contentHasher;
+        this.pageStore = pageStore;
+        this.entityManager = entityManager;
+        this.reader = objectMapper.readerFor(CollectionDto.class);
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Импорт коллекций администратора.
+     *
+     * @param userId идентификатор администратора.
+     * @param files  файлы экспорта коллекций либо архивы.
+     * @return созданные коллекции.
+     */
+    @Transactional
+    public List<CollectionShortDto> importCollections(String userId, List<MultipartFile> files) {
+        List<String> titles = new ArrayList<>();
+        read(files, collection -> titles.add(collection.getTitle()));
+        validateTitles(userId, titles);
+
+        List<CollectionShortDto> imported = new ArrayList<>(titles.size());
+        List<CollectionEntity> batch = new ArrayList<>(batchSize);
+        read(files, collection -> {
+            CollectionEntity entity = collectionMapper.toEntity(collection, UUID.randomUUID(), null, userId);
+            entity.setContentHash(contentHasher.hash(collection));
+            batch.add(entity);
+            imported.add(new CollectionShortDto(entity.getCollectionId(), entity.getTitle(), entity.getCreationDate()));
+            if (batch.size() == batchSize) {
+                save(batch);
+            }
+        });
+        save(batch);
+        return imported;
+    }
+
+    /**
+     * Сохранение пачки коллекций с очисткой контекста.
+     *
+     * @param batch записи коллекций пачки, очищается.
+     */
+    private void save(List<CollectionEntity> batch) {
+        pageStore.externalizeAll(batch);
+        batch.forEach(entityManager::persist);
+        entityManager.flush();
+        entityManager.clear();
+        batch.clear();
+    }
+
+    /**
+     * Проверка наименований: заполнены, не повторяются в импорте и не заняты у администратора.
+     *
+     * @param userId идентификатор администратора.
+     * @param titles наименования импортируемых коллекций.
+     */
+    private void validateTitles(String userId, List<String> titles) {
+        Set<String> unique = new HashSet<>();
+        for (String title : titles) {
+            if (title == null || title.isBlank()) {
+                throw ErrorDescription.IMPORT_COLLECTION_ERROR.exception();
+            }
+            ErrorDescription.COLLECTION_TITLE_ALREADY_EXISTS.throwIfFalse(unique.add(title));
+        }
+        if (!unique.isEmpty()) {
+            ErrorDescription.COLLECTION_TITLE_ALREADY_EXISTS
+                    .throwIfFalse(collectionRepository.findExistingTitles(userId, unique).isEmpty());
+        }
+    }
+
+    private void read(List<MultipartFile> files, Consumer<CollectionDto> consumer) {
+        for (MultipartFile file : files) {
+            try (InputStream in = file.getInputStream()) {
+                if (isZip(file)) {
+                    readZip(in, consumer);
+                } else {
+                    readValues(in, consumer);
+                }
+            } catch (IOException e) {
+                log.error("Import collection error for {}", file.getOriginalFilename(), e);
+                throw ErrorDescription.IMPORT_COLLECTION_ERROR.exception();
+            }
+        }
+    }
+
+    private void readZip(InputStream in, Consumer<CollectionDto> consumer) throws IOException {
+        ZipInputStream zip = new ZipInputStream(in);
+        ZipEntry entry;
+        while ((entry = zip.getNextEntry()) != null) {
+            if (!entry.isDirectory() && isJson(entry.getName())) {
+                readValues(StreamUtils.nonClosing(zip), consumer);
+            }
+        }
+    }
+
+    /**
+     * Потоковое чтение коллекций: одиночный объект, json-массив либо последовательность объектов (NDJSON).
+     */
+    private void readValues(InputStream in, Consumer<CollectionDto> consumer) throws IOException {
+        try (MappingIterator<CollectionDto> iterator = reader.readValues(in)) {
+            while (iterator.hasNextValue()) {
+                consumer.accept(iterator.nextValue());
+            }
+        }
+    }
+
+    private static boolean isZip(MultipartFile file) {
+        String filename = file.getOriginalFilename();
+        return (filename != null && filename.toLowerCase(Locale.ROOT).endsWith(".zip"))
+                || "application/zip".equals(file.getContentType());
+    }
+
+    private static boolean isJson(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        return !lower.startsWith("__macosx/") && JSON_EXTENSIONS.stream().anyMatch(lower::endsWith);
+    }
+}
@@ -5,12 +5,17 @@ import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
 import org.mapstruct.NullValuePropertyMappingStrategy;
 import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionHistoryProjection;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionShortProjection;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionPageStore;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionHistoryDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionShortDto;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -22,17 +27,21 @@ import java.util.UUID;
 @Mapper(
         componentModel = "spring",
         nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE,
-        imports = {LocalDateTime.class}
+        imports = {LocalDateTime.class},
+        uses = CollectionPageStore.class
 )
 public interface CollectionMapper {
 
     /**
      * Преобразование доменной сущности в полную DTO-модель.
+     * <p>Страницы, вынесенные в хранилище страниц, восстанавливаются по хэшам.</p>
      *
      * @param entity сущность коллекции.
      * @return полная DTO-модель коллекции.
      */
     @Mapping(target = "uuid", source = "collectionId")
+    @Mapping(target = "historyUuid", source = "historyId")
+    @Mapping(target = "pages", source = "entity", qualifiedByName = "collectionPages")
     CollectionDto toDto(CollectionEntity entity);
 
     /**
@@ -53,6 +62,15 @@ public interface CollectionMapper {
     @Mapping(target = "uuid", source = "collectionId")
     CollectionShortDto toShortDto(CollectionEntity entity);
 
+    /**
+     * Преобразование проекции записи коллекции в сокращённую DTO-модель.
+     *
+     * @param projection проекция записи коллекции.
+     * @return краткая DTO-модель коллекции.
+     */
+    @Mapping(target = "uuid", source = "collectionId")
+    CollectionShortDto toShortDto(CollectionShortProjection projection);
+
     /**
      * Преобразование списка сущностей в список сокращённых DTO.
      *
@@ -68,6 +86,7 @@ public interface CollectionMapper {
      * @return DTO исторической записи коллекции.
      */
     @Mapping(target = "uuid", source = "historyId")
+    @Mapping(target = "pages", source = "entity", qualifiedByName = "collectionPages")
     CollectionHistoryDto toHistoryDto(CollectionEntity entity);
 
     /**
@@ -78,6 +97,53 @@ public interface CollectionMapper {
      */
     List<CollectionHistoryDto> toHistoryDtoList(List<CollectionEntity> entities);
 
+    /**
+     * Преобразование проекции исторической записи в DTO без контента (pages/mocks/config).
+     *
+     * @param projection проекция исторической записи коллекции.
+     * @return DTO исторической записи коллекции без контента.
+     */
+    @Mapping(target = "uuid", source = "historyId")
+    @Mapping(target = "pages", ignore = true)
+    @Mapping(target = "mocks", ignore = true)
+    @Mapping(target = "config", ignore = true)
+    CollectionHistoryDto toHistoryMetaDto(CollectionHistoryProjection projection);
+
+    /**
+     * Преобразование сокращённой DTO-модели коллекции в запись sdi-table.
+     *
+     * @param dto краткая DTO-модель коллекции.
+     * @return запись таблицы.
+     */
+    default Map<String, Object> toShortRecord(CollectionShortDto dto) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("uuid", dto.getUuid());
+        map.put("title", dto.getTitle());
+        map.put("creationDate", dto.getCreationDate());
+        return map;
+    }
+
+    /**
+     * Преобразование DTO исторической записи коллекции в запись sdi-table.
+     * <p>Контент (pages/mocks/config) добавляется только если он был загружен.</p>
+     *
+     * @param dto DTO исторической записи коллекции.
+     * @return запись таблицы.
+     */
+    default Map<String, Object> toHistoryRecord(CollectionHistoryDto dto) {
+        Map<String, Object> map = new HashMap<>();
+        map.put("uuid", dto.getUuid());
+        map.put("title", dto.getTitle());
+        map.put("creationDate", dto.getCreationDate());
+        map.put("isCurrent", dto.getIsCurrent());
+        if (dto.getPages() != null) {
+            map.put("pages", dto.getPages());
+            map.put("mocks", dto.getMocks());
+            map.put("config", dto.getConfig());
+        }
+        return map;
+    }
+
     /**
      * Создание новой сущности коллекции из DTO.
      * <p>Технические поля (historyId, creationDate, isCurrent, userId) заполняются в сервисе.</p>
@@ -90,6 +156,12 @@ public interface CollectionMapper {
     @Mapping(target = "creationDate", ignore = true)
     @Mapping(target = "isCurrent", ignore = true)
     @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "storageType", ignore = true)
+    @Mapping(target = "baseHistoryId", ignore = true)
+    @Mapping(target = "delta", ignore = true)
+    @Mapping(target = "draft", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "pageRefs", ignore = true)
     CollectionEntity toEntity(CollectionDto dto);
 
     /**
@@ -111,6 +183,12 @@ public interface CollectionMapper {
     @Mapping(target = "mocks", source = "dto.mocks")
     @Mapping(target = "config", source = "dto.config")
     @Mapping(target = "title", source = "dto.title")
+    @Mapping(target = "storageType", ignore = true)
+    @Mapping(target = "baseHistoryId", ignore = true)
+    @Mapping(target = "delta", ignore = true)
+    @Mapping(target = "draft", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "pageRefs", ignore = true)
     CollectionEntity toEntity(CollectionDto dto,
                               UUID historyUUID,
                               UUID collectionUUID,
@@ -131,5 +209,11 @@ public interface CollectionMapper {
     @Mapping(target = "creationDate", ignore = true)
     @Mapping(target = "isCurrent", ignore = true)
     @Mapping(target = "userId", ignore = true)
+    @Mapping(target = "storageType", ignore = true)
+    @Mapping(target = "baseHistoryId", ignore = true)
+    @Mapping(target = "delta", ignore = true)
+    @Mapping(target = "draft", ignore = true)
+    @Mapping(target = "contentHash", ignore = true)
+    @Mapping(target = "pageRefs", ignore = true)
     void updateEntityFromDto(CollectionDto dto, @MappingTarget CollectionEntity entity);
 }
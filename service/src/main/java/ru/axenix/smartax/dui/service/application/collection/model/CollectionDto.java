@@ -33,6 +33,17 @@ public class CollectionDto {
     @NotNull
     @Schema(description = "Идентификаторы записи коллекции")
     private UUID uuid;
+    /**
+     * Идентификатор записи коллекции, от которой выполняется редактирование (версия коллекции)
+     */
+    @Schema(description = "Идентификатор записи коллекции (версия). При редактировании - версия, "
+            + "от которой выполнено изменение; если не указан, версия не проверяется")
+    private UUID historyUuid;
+    /**
+     * Признак незафиксированного черновика коллекции
+     */
+    @Schema(description = "Признак незафиксированного черновика (автосохранение)")
+    private boolean draft;
 
     /**
      * Наименование коллекции
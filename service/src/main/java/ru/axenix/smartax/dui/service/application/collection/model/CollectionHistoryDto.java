@@ -1,17 +1,15 @@
 package ru.axenix.smartax.dui.service.application.collection.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonSetter;
 import com.fasterxml.jackson.annotation.Nulls;
 import io.swagger.v3.oas.annotations.media.Schema;
-import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
@@ -54,27 +52,24 @@ public class CollectionHistoryDto {
     /**
      * Объект json со списком страниц
      */
-    @NotNull
-    @Builder.Default
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     @JsonSetter(nulls = Nulls.AS_EMPTY)
-    @Schema(description = "Объект json со списком страниц")
-    private List<Map<String, Object>> pages = new ArrayList<>();
+    @Schema(description = "Объект json со списком страниц (только при запросе истории с контентом)")
+    private List<Map<String, Object>> pages;
 
     /**
      * Объект json со списком моков запросов
      */
-    @NotNull
-    @Builder.Default
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     @JsonSetter(nulls = Nulls.AS_EMPTY)
-    @Schema(description = "Объект json со списком моков запросов")
-    private List<Map<String, Object>> mocks = new ArrayList<>();
+    @Schema(description = "Объект json со списком моков запросов (только при запросе истории с контентом)")
+    private List<Map<String, Object>> mocks;
 
     /**
      * Объект json конфигурации стилей коллекции.
      */
-    @NotNull
-    @Builder.Default
+    @JsonInclude(JsonInclude.Include.NON_NULL)
     @JsonSetter(nulls = Nulls.AS_EMPTY)
-    @Schema(description = "Объект json конфигурации стилей коллекции")
-    private Map<String, Object> config = new HashMap<>();
+    @Schema(description = "Объект json конфигурации стилей коллекции (только при запросе истории с контентом)")
+    private Map<String, Object> config;
 }
\ No newline at end of file
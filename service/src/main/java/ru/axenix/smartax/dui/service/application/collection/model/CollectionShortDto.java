@@ -7,6 +7,7 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.UUID;
 
 /**
@@ -34,4 +35,10 @@ public class CollectionShortDto {
     @NotNull
     @Schema(description = "Наименование коллекции")
     private String title;
-}
\ No newline at end of file
+
+    /**
+     * Дата последнего изменения коллекции
+     */
+    @Schema(description = "Дата последнего изменения коллекции")
+    private LocalDateTime creationDate;
+}
@@ -0,0 +1,19 @@
+package ru.axenix.smartax.dui.service.application.collection.model;
+
+/**
+ * Способ хранения записи коллекции.
+ *
+ * @author Velikanov Artyom.
+ */
+public enum CollectionStorageType {
+
+    /**
+     * Полный снимок контента коллекции (контрольная точка).
+     */
+    FULL,
+
+    /**
+     * JSON-patch относительно ближайшей контрольной точки.
+     */
+    DELTA
+}
@@ -3,10 +3,12 @@ package ru.axenix.smartax.dui.service.application.collection.service;
 import java.util.List;
 import java.util.UUID;
 
+import org.springframework.web.multipart.MultipartFile;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
-import ru.axenix.smartax.dui.service.application.collection.model.CollectionHistoryDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionShortDto;
-import ru.axenix.smartax.dui.service.application.template.model.FileDto;
+import ru.axenix.smartax.dui.service.application.template.model.StreamingFileDto;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
+import ru.axenix.smartax.dui.service.model.table.TableResponse;
 
 /**
  * Интерфейс сервиса управления коллекциями.
@@ -18,10 +20,11 @@ public interface CollectionService {
     /**
      * Получение списка коллекций по идентификатору администратора
      *
-     * @param userId идентификатор администратора.
-     * @return Список записей коллекций без контента.
+     * @param userId  идентификатор администратора.
+     * @param request параметры поиска, сортировки и пагинации (может быть null).
+     * @return Страница записей коллекций без контента.
      */
-    List<CollectionShortDto> getAllCollections(String userId);
+    TableResponse getAllCollections(String userId, TableRequest request);
 
     /**
      * Получение текущей используемой записи коллекции по идентификатору
@@ -35,17 +38,20 @@ public interface CollectionService {
      * Экспорт файла текущей актуальной коллекции по ее идентификатору.
      *
      * @param collectionUUID Идентификатор коллекции.
-     * @return файл коллекции.
+     * @param pretty         признак форматированного вывода json.
+     * @return файл коллекции, записываемый в поток ответа.
      */
-    FileDto exportCollection(UUID collectionUUID);
+    StreamingFileDto exportCollection(UUID collectionUUID, boolean pretty);
 
     /**
      * Получение истории изменений коллекции.
      *
      * @param collectionUUID идентификатор коллекции.
-     * @return Список коллекций по истории изменений.
+     * @param request        параметры поиска, сортировки и пагинации (может быть null).
+     * @param withContent    признак загрузки контента (pages/mocks/config) каждой записи.
+     * @return Страница коллекций по истории изменений.
      */
-    List<CollectionHistoryDto> getCollectionHistory(UUID collectionUUID);
+    TableResponse getCollectionHistory(UUID collectionUUID, TableRequest request, boolean withContent);
 
     /**
      * Получение конкретной исторической записи коллекции.
@@ -55,6 +61,14 @@ public interface CollectionService {
      */
     CollectionDto getCollectionByHistoryUUID(UUID historyUUID);
 
+    /**
+     * Получение ETag записи коллекции без чтения контента.
+     *
+     * @param historyUUID идентификатор записи коллекции.
+     * @return ETag записи коллекции.
+     */
+    String getCollectionHistoryETag(UUID historyUUID);
+
     /**
      * Создание новой записи коллекции администратором.
      *
@@ -73,6 +87,22 @@ public interface CollectionService {
      */
     CollectionDto editCollection(UUID collectionUUID, CollectionDto collection);
 
+    /**
+     * Автосохранение коллекции (изменение черновика либо создание новой записи-черновика).
+     *
+     * @param collectionUUID идентификатор коллекции.
+     * @param collection контент коллекции.
+     * @return результат автосохранения коллекции (черновик).
+     */
+    CollectionDto autosaveCollection(UUID collectionUUID, CollectionDto collection);
+
+    /**
+     * Фиксация черновика коллекции в качестве версии истории.
+     *
+     * @param collectionUUID идентификатор коллекции.
+     */
+    void commitCollection(UUID collectionUUID);
+
     /**
      * Удаление всех записей по коллекции.
      *
@@ -86,4 +116,13 @@ public interface CollectionService {
      * @param collectionUUID идентификатор коллекции.
      */
     void existsCollection(UUID collectionUUID);
+
+    /**
+     * Массовый импорт коллекций администратора из файлов экспорта.
+     *
+     * @param userId идентификатор администратора.
+     * @param files  файлы экспорта коллекций (.json, NDJSON) либо zip-архивы с ними.
+     * @return созданные коллекции.
+     */
+    List<CollectionShortDto> importCollections(String userId, List<MultipartFile> files);
 }
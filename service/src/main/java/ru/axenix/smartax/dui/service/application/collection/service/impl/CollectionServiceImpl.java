@@ -1,26 +1,50 @@
 package ru.axenix.smartax.dui.service.application.collection.service.impl;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionHistoryProjection;
 import ru.axenix.smartax.dui.service.application.collection.domain.CollectionRepository;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionVersionProjection;
+import ru.axenix.smartax.dui.service.application.collection.export.CollectionExportWriter;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionContentHasher;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionHistoryCodec;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionPageStore;
+import ru.axenix.smartax.dui.service.application.collection.importer.CollectionImporter;
 import ru.axenix.smartax.dui.service.application.collection.mapper.CollectionMapper;
 import ru.axenix.smartax.dui.service.application.collection.service.CollectionService;
 import ru.axenix.smartax.dui.service.error.ErrorDescription;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionHistoryDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionShortDto;
-import ru.axenix.smartax.dui.service.application.template.model.FileDto;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionStorageType;
+import ru.axenix.smartax.dui.service.application.template.model.StreamingFileDto;
+import ru.axenix.smartax.dui.service.configuration.properties.CollectionHistoryProperties;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
+import ru.axenix.smartax.dui.service.model.table.TableRequestUtils;
+import ru.axenix.smartax.dui.service.model.table.TableResponse;
+import ru.axenix.smartax.dui.service.util.ETagUtils;
 
-import java.io.ByteArrayInputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Сервис управления коллекциями.
@@ -32,25 +56,48 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class CollectionServiceImpl implements CollectionService {
 
+    private static final int DEFAULT_LIMIT = 50;
+    private static final int MAX_LIMIT = 500;
+    private static final String TITLE = "title";
+    private static final String CREATION_DATE = "creationDate";
+    private static final String IS_CURRENT = "isCurrent";
+    private static final Set<String> SORTABLE_FIELDS = Set.of(TITLE, CREATION_DATE);
+
     private final CollectionRepository collectionRepository;
-    private final ObjectMapper objectMapper;
     private final CollectionMapper collectionMapper;
+    private final CollectionHistoryCodec historyCodec;
+    private final CollectionExportWriter exportWriter;
+    private final CollectionImporter collectionImporter;
+    private final ObjectMapper objectMapper;
+    private final CollectionHistoryProperties historyProperties;
+    private final CollectionContentHasher contentHasher;
+    private final CollectionPageStore pageStore;
 
     /**
      * Получение списка коллекций по идентификатору администратора.
      *
      * <p>
-     * Возвращаются только идентификатор и наименование коллекции
-     * (контент страниц и конфигурация не загружаются в DTO).
+     * Возвращаются только идентификатор, наименование и дата изменения коллекции
+     * (контент страниц и конфигурация не загружаются). Поиск, сортировка и пагинация
+     * выполняются на стороне БД.
      * </p>
      *
-     * @param userId идентификатор администратора.
-     * @return список записей коллекций без контента.
+     * @param userId  идентификатор администратора.
+     * @param request параметры поиска, сортировки и пагинации (может быть null).
+     * @return страница записей коллекций без контента.
      */
     @Override
-    public List<CollectionShortDto> getAllCollections(String userId) {
-        var entities = collectionRepository.findAllByUserIdAndIsCurrentTrue(userId);
-        return collectionMapper.toShortDtoList(entities);
+    public TableResponse getAllCollections(String userId, TableRequest request) {
+        var page = collectionRepository.findShortPage(
+                userId,
+                searchPattern(request),
+                pageable(request, Sort.by(Sort.Direction.DESC, CREATION_DATE), "collectionId")
+        );
+        var records = page.getContent().stream()
+                .map(collectionMapper::toShortDto)
+                .map(collectionMapper::toShortRecord)
+                .toList();
+        return new TableResponse((int) page.getTotalElements(), records);
     }
 
     /**
@@ -63,44 +110,85 @@ public class CollectionServiceImpl implements CollectionService {
     public CollectionDto getCollection(UUID collectionUUID) {
         var entity = collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionUUID)
                 .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
-        return collectionMapper.toDto(entity);
+        return collectionMapper.toDto(resolve(entity));
+    }
+
+    /**
+     * Получение ETag записи коллекции без чтения контента.
+     * <p>
+     * Зафиксированная запись неизменяема, её ETag — идентификатор записи. Черновик изменяется на месте
+     * при автосохранении, поэтому его ETag дополнительно содержит хэш контента и дату сохранения.
+     * </p>
+     *
+     * @param historyUUID идентификатор записи коллекции.
+     * @return ETag записи коллекции.
+     */
+    @Override
+    public String getCollectionHistoryETag(UUID historyUUID) {
+        var version = collectionRepository.findVersion(historyUUID)
+                .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
+        return Boolean.TRUE.equals(version.getDraft())
+                ? ETagUtils.version(historyUUID, version.getContentHash(), version.getCreationDate())
+                : ETagUtils.version(historyUUID);
     }
 
     /**
      * Экспорт файла текущей актуальной коллекции по её идентификатору.
+     * <p>Контент записывается в поток ответа при отдаче файла, без построения json в памяти.</p>
      *
      * @param collectionUUID идентификатор коллекции.
+     * @param pretty         признак форматированного вывода json.
      * @return файл коллекции в формате JSON.
      */
     @Override
-    public FileDto exportCollection(UUID collectionUUID) {
-        var entity = collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionUUID)
+    public StreamingFileDto exportCollection(UUID collectionUUID, boolean pretty) {
+        var historyId = collectionRepository.findCurrentHistoryId(collectionUUID)
                 .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
-        var dto = collectionMapper.toDto(entity);
 
-        try {
-            ObjectWriter ow = objectMapper.writer().withDefaultPrettyPrinter();
-            String json = ow.writeValueAsString(dto);
-            return new FileDto(
-                    entity.getHistoryId().toString(),
-                    new InputStreamResource(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)))
-            );
-        } catch (Exception e) {
-            log.error("Export collection error for {}", entity.getHistoryId(), e);
-            throw ErrorDescription.EXPORT_COLLECTION_ERROR.exception();
-        }
+        return new StreamingFileDto(historyId.toString(), out -> {
+            try {
+                exportWriter.write(historyId, out, pretty);
+            } catch (IOException e) {
+                log.error("Export collection error for {}", historyId, e);
+                throw e;
+            }
+        });
     }
 
     /**
      * Получение истории изменений коллекции.
      *
+     * <p>
+     * Из БД выбирается только страница метаданных записей (без jsonb-колонок),
+     * контент записей страницы загружается только при {@code withContent = true}.
+     * Поддерживается фильтр {@code isCurrent} и поиск по наименованию.
+     * </p>
+     *
      * @param collectionUUID идентификатор коллекции.
-     * @return список DTO по истории изменений коллекции.
+     * @param request        параметры поиска, сортировки и пагинации (может быть null).
+     * @param withContent    признак загрузки контента (pages/mocks/config) каждой записи.
+     * @return страница DTO по истории изменений коллекции.
      */
     @Override
-    public List<CollectionHistoryDto> getCollectionHistory(UUID collectionUUID) {
-        var entities = collectionRepository.findAllByCollectionIdOrderByCreationDateAsc(collectionUUID);
-        return collectionMapper.toHistoryDtoList(entities);
+    public TableResponse getCollectionHistory(UUID collectionUUID, TableRequest request, boolean withContent) {
+        boolean currentOnly = TableRequestUtils.filterValue(request, IS_CURRENT)
+                .map(v -> Boolean.parseBoolean(v.toString()))
+                .orElse(false);
+        var page = collectionRepository.findHistoryPage(
+                collectionUUID,
+                searchPattern(request),
+                currentOnly,
+                pageable(request, Sort.by(Sort.Direction.ASC, CREATION_DATE), "historyId")
+        );
+
+        List<CollectionHistoryDto> history = withContent
+                ? loadHistoryContent(page.getContent())
+                : page.getContent().stream().map(collectionMapper::toHistoryMetaDto).toList();
+
+        var records = history.stream()
+                .map(collectionMapper::toHistoryRecord)
+                .toList();
+        return new TableResponse((int) page.getTotalElements(), records);
     }
 
     /**
@@ -113,7 +201,7 @@ public class CollectionServiceImpl implements CollectionService {
     public CollectionDto getCollectionByHistoryUUID(UUID historyUUID) {
         var entity = collectionRepository.findById(historyUUID)
                 .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
-        return collectionMapper.toDto(entity);
+        return collectionMapper.toDto(resolve(entity));
     }
 
     /**
@@ -126,7 +214,7 @@ public class CollectionServiceImpl implements CollectionService {
     @Transactional
     @Override
     public CollectionDto createCollection(String userId, CollectionDto collection) {
-        return createCollection(null, userId, collection);
+        return createCollection(null, userId, collection, null, false, contentHasher.hash(collection));
     }
 
     /**
@@ -141,9 +229,17 @@ public class CollectionServiceImpl implements CollectionService {
      * @param collectionUUID идентификатор коллекции (может быть null при создании новой коллекции).
      * @param userId         идентификатор администратора.
      * @param collection     контент коллекции.
+     * @param previous       предыдущая текущая запись коллекции (null при создании новой коллекции).
+     * @param draft          признак черновика.
+     * @param contentHash    канонический хэш контента коллекции.
      * @return результат создания/редактирования коллекции.
      */
-    private CollectionDto createCollection(UUID collectionUUID, String userId, CollectionDto collection) {
+    private CollectionDto createCollection(UUID collectionUUID,
+                                           String userId,
+                                           CollectionDto collection,
+                                           CollectionEntity previous,
+                                           boolean draft,
+                                           String contentHash) {
         validateCollectionTitle(userId, collection.getTitle(), collectionUUID);
 
         UUID historyUUID = UUID.randomUUID();
@@ -151,8 +247,14 @@ public class CollectionServiceImpl implements CollectionService {
         try {
             CollectionEntity entity = collectionMapper
                     .toEntity(collection, historyUUID, collectionUUID, userId);
-            var saved = collectionRepository.save(entity);
-            return collectionMapper.toDto(saved);
+            entity.setDraft(draft);
+            entity.setContentHash(contentHash);
+            CollectionEntity stored = previous != null && historyCodec.isDeltaEnabled()
+                    ? historyCodec.encode(previous, entity)
+                    : entity;
+            CollectionDto result = collectionMapper.toDto(entity);
+            collectionRepository.save(pageStore.externalize(stored));
+            return result;
         } catch (Exception e) {
             log.error("Create collection error", e);
             throw ErrorDescription.EXPORT_COLLECTION_ERROR.exception();
@@ -162,6 +264,21 @@ public class CollectionServiceImpl implements CollectionService {
     /**
      * Редактирование коллекции (создание новой записи по коллекции).
      *
+     * <p>
+     * При хранении полными снимками текущая запись не читается: снятие признака актуальности
+     * и вставка новой записи выполняются одним запросом. При хранении дельтами текущая запись
+     * читается как основа JSON-patch, признак актуальности снимается точечным UPDATE.
+     * </p>
+     * <p>
+     * Редактирования одной коллекции выполняются последовательно: конкурирующий запрос, а также запрос
+     * от устаревшей версии ({@link CollectionDto#getHistoryUuid()}) завершаются ошибкой конфликта
+     * до сериализации контента.
+     * </p>
+     * <p>
+     * Сохранение без изменений (совпадают наименование и канонический хэш контента) не создаёт
+     * новую запись: возвращается актуальная запись, черновик фиксируется в качестве версии.
+     * </p>
+     *
      * @param collectionUUID идентификатор коллекции.
      * @param collection     контент коллекции.
      * @return результат редактирования коллекции (новая созданная запись).
@@ -169,25 +286,232 @@ public class CollectionServiceImpl implements CollectionService {
     @Transactional
     @Override
     public CollectionDto editCollection(UUID collectionUUID, CollectionDto collection) {
+        CollectionVersionProjection current = lockForEdit(collectionUUID, collection.getHistoryUuid());
+
+        String contentHash = contentHasher.hash(collection);
+        if (isUnchanged(current, collection, contentHash)) {
+            if (Boolean.TRUE.equals(current.getDraft())) {
+                collectionRepository.commitDraft(collectionUUID);
+            }
+            return unchanged(collectionUUID, current, collection, false);
+        }
+        return saveVersion(collectionUUID, collection, false, contentHash);
+    }
+
+    /**
+     * Автосохранение коллекции.
+     *
+     * <p>
+     * Если актуальная запись коллекции - черновик, сохранённый в пределах окна объединения
+     * ({@code application.collection.history.draft-window}), черновик изменяется на месте без создания
+     * записи истории. Иначе создаётся новая запись-черновик. Черновик становится версией истории
+     * при фиксации либо при обычном редактировании коллекции.
+     * </p>
+     *
+     * @param collectionUUID идентификатор коллекции.
+     * @param collection     контент коллекции.
+     * @return результат автосохранения коллекции (черновик).
+     */
+    @Transactional
+    @Override
+    public CollectionDto autosaveCollection(UUID collectionUUID, CollectionDto collection) {
+        CollectionVersionProjection current = lockForEdit(collectionUUID, collection.getHistoryUuid());
+
+        String contentHash = contentHasher.hash(collection);
+        if (isUnchanged(current, collection, contentHash)) {
+            return unchanged(collectionUUID, current, collection, Boolean.TRUE.equals(current.getDraft()));
+        }
+
+        Duration window = historyProperties.getDraftWindow();
+        if (window == null || window.isZero() || window.isNegative()) {
+            return saveVersion(collectionUUID, collection, true, contentHash);
+        }
+        return collectionRepository.findCurrentDraft(collectionUUID, LocalDateTime.now().minus(window))
+                .map(draft -> updateDraft(draft, collection, contentHash))
+                .orElseGet(() -> saveVersion(collectionUUID, collection, true, contentHash));
+    }
+
+    /**
+     * Фиксация черновика коллекции в качестве версии истории.
+     *
+     * @param collectionUUID идентификатор коллекции.
+     */
+    @Transactional
+    @Override
+    public void commitCollection(UUID collectionUUID) {
+        if (collectionRepository.commitDraft(collectionUUID) == 0) {
+            existsCollection(collectionUUID);
+        }
+    }
+
+    /**
+     * Создание новой актуальной записи коллекции.
+     *
+     * @param collectionUUID идентификатор коллекции.
+     * @param collection     контент коллекции.
+     * @param draft          признак черновика.
+     * @param contentHash    канонический хэш контента коллекции.
+     * @return новая запись коллекции.
+     */
+    private CollectionDto saveVersion(UUID collectionUUID, CollectionDto collection, boolean draft, String contentHash) {
+        if (historyCodec.isDeltaEnabled()) {
+            return editCollectionDelta(collectionUUID, collection, draft, contentHash);
+        }
+
+        CollectionEntity entity = collectionMapper.toEntity(collection, UUID.randomUUID(), collectionUUID, null);
+        entity.setDraft(draft);
+        entity.setContentHash(contentHash);
+        List<String> pageRefs = pageStore.isEnabled() ? pageStore.store(entity.getPages()) : List.of();
+        Optional<String> userId = collectionRepository.replaceCurrent(
+                entity.getHistoryId(),
+                collectionUUID,
+                entity.getCreationDate(),
+                entity.getTitle(),
+                toJson(pageRefs.isEmpty() ? entity.getPages() : List.of()),
+                toJson(pageRefs),
+                toJson(entity.getMocks()),
+                toJson(entity.getConfig()),
+                draft,
+                contentHash
+        );
+        if (userId.isEmpty()) {
+            String owner = collectionRepository.findCurrentUserId(collectionUUID)
+                    .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
+            validateCollectionTitle(owner, collection.getTitle(), collectionUUID);
+            throw ErrorDescription.COLLECTION_NOT_FOUND.exception();
+        }
+
+        entity.setUserId(userId.get());
+        return collectionMapper.toDto(entity);
+    }
+
+    /**
+     * Захват блокировки редактирования коллекции и проверка версии, от которой выполнено редактирование.
+     *
+     * @param collectionUUID    идентификатор коллекции.
+     * @param expectedHistoryId идентификатор записи коллекции, от которой выполнено редактирование (может быть null).
+     * @return версия актуальной записи коллекции.
+     */
+    private CollectionVersionProjection lockForEdit(UUID collectionUUID, UUID expectedHistoryId) {
+        ErrorDescription.COLLECTION_EDIT_CONFLICT.throwIfFalse(collectionRepository.tryLockForEdit(collectionUUID));
+
+        CollectionVersionProjection current = collectionRepository.findCurrentVersion(collectionUUID)
+                .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
+        ErrorDescription.COLLECTION_EDIT_CONFLICT
+                .throwIfTrue(expectedHistoryId != null && !expectedHistoryId.equals(current.getHistoryId()));
+        return current;
+    }
+
+    /**
+     * Проверка совпадения контента и наименования с актуальной записью коллекции.
+     *
+     * @param current     версия актуальной записи коллекции.
+     * @param collection  контент коллекции.
+     * @param contentHash канонический хэш контента коллекции.
+     * @return true, если сохранение не изменяет коллекцию.
+     */
+    private boolean isUnchanged(CollectionVersionProjection current, CollectionDto collection, String contentHash) {
+        return contentHash.equals(current.getContentHash()) && Objects.equals(current.getTitle(), collection.getTitle());
+    }
+
+    /**
+     * Результат сохранения, не изменившего коллекцию: актуальная запись без чтения контента из БД.
+     *
+     * @param collectionUUID идентификатор коллекции.
+     * @param current        версия актуальной записи коллекции.
+     * @param collection     контент коллекции, совпадающий с актуальной записью.
+     * @param draft          признак черновика актуальной записи.
+     * @return актуальная запись коллекции.
+     */
+    private CollectionDto unchanged(UUID collectionUUID,
+                                    CollectionVersionProjection current,
+                                    CollectionDto collection,
+                                    boolean draft) {
+        return CollectionDto.builder()
+                .uuid(collectionUUID)
+                .historyUuid(current.getHistoryId())
+                .draft(draft)
+                .title(current.getTitle())
+                .pages(collection.getPages())
+                .mocks(collection.getMocks())
+                .config(collection.getConfig())
+                .build();
+    }
+
+    /**
+     * Редактирование коллекции при хранении истории дельтами.
+     *
+     * @param collectionUUID идентификатор коллекции.
+     * @param collection     контент коллекции.
+     * @param draft          признак черновика.
+     * @param contentHash    канонический хэш контента коллекции.
+     * @return результат редактирования коллекции (новая созданная запись).
+     */
+    private CollectionDto editCollectionDelta(UUID collectionUUID,
+                                              CollectionDto collection,
+                                              boolean draft,
+                                              String contentHash) {
         var entity = collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionUUID)
                 .orElseThrow(ErrorDescription.COLLECTION_NOT_FOUND::exception);
 
         validateCollectionTitle(entity.getUserId(), collection.getTitle(), entity.getCollectionId());
 
-        entity.setIsCurrent(null);
-        collectionRepository.save(entity);
+        collectionRepository.clearCurrent(entity.getCollectionId());
+
+        return createCollection(entity.getCollectionId(), entity.getUserId(), collection, entity, draft, contentHash);
+    }
+
+    /**
+     * Изменение черновика коллекции на месте.
+     * <p>
+     * Черновик, хранимый в виде JSON-patch, перекодируется относительно того же снимка.
+     * Ссылки перезаписанного черновика на хранилище страниц освобождаются.
+     * </p>
+     *
+     * @param draft       актуальная запись-черновик коллекции.
+     * @param collection  контент коллекции.
+     * @param contentHash канонический хэш контента коллекции.
+     * @return результат автосохранения коллекции.
+     */
+    private CollectionDto updateDraft(CollectionEntity draft, CollectionDto collection, String contentHash) {
+        validateCollectionTitle(draft.getUserId(), collection.getTitle(), draft.getCollectionId());
+
+        CollectionEntity next = collectionMapper
+                .toEntity(collection, draft.getHistoryId(), draft.getCollectionId(), draft.getUserId());
+        next.setDraft(true);
+        next.setContentHash(contentHash);
+        CollectionDto result = collectionMapper.toDto(next);
+        CollectionEntity stored = pageStore.externalize(CollectionStorageType.DELTA == draft.getStorageType()
+                ? historyCodec.encode(draft, next)
+                : next);
+        List<String> previousPageRefs = draft.getPageRefs();
+
+        draft.setCreationDate(next.getCreationDate());
+        draft.setTitle(next.getTitle());
+        draft.setPages(stored.getPages());
+        draft.setPageRefs(stored.getPageRefs());
+        draft.setMocks(stored.getMocks());
+        draft.setConfig(stored.getConfig());
+        draft.setStorageType(stored.getStorageType());
+        draft.setBaseHistoryId(stored.getBaseHistoryId());
+        draft.setDelta(stored.getDelta());
+        draft.setContentHash(contentHash);
+        collectionRepository.save(draft);
+        pageStore.release(previousPageRefs);
 
-        return createCollection(entity.getCollectionId(), entity.getUserId(), collection);
+        return result;
     }
 
     /**
      * Удаление всех записей по коллекции.
+     * <p>Ссылки записей на хранилище страниц освобождаются, страницы без ссылок удаляются.</p>
      *
      * @param collectionUUID идентификатор коллекции.
      */
     @Transactional
     @Override
     public void deleteCollection(UUID collectionUUID) {
+        pageStore.release(collectionRepository.findPageRefs(collectionUUID));
         collectionRepository.removeAllByCollectionId(collectionUUID);
     }
 
@@ -202,6 +526,96 @@ public class CollectionServiceImpl implements CollectionService {
                 .throwIfFalse(collectionRepository.existsByCollectionId(collectionUUID));
     }
 
+    /**
+     * Массовый импорт коллекций администратора из файлов экспорта.
+     *
+     * @param userId идентификатор администратора.
+     * @param files  файлы экспорта коллекций (.json, NDJSON) либо zip-архивы с ними.
+     * @return созданные коллекции.
+     */
+    @Override
+    public List<CollectionShortDto> importCollections(String userId, List<MultipartFile> files) {
+        return collectionImporter.importCollections(userId, files);
+    }
+
+    /**
+     * Загрузка контента исторических записей с сохранением порядка страницы.
+     *
+     * @param projections проекции исторических записей страницы.
+     * @return DTO исторических записей с контентом.
+     */
+    private List<CollectionHistoryDto> loadHistoryContent(List<CollectionHistoryProjection> projections) {
+        var ids = projections.stream().map(CollectionHistoryProjection::getHistoryId).toList();
+        Map<UUID, CollectionEntity> entities = collectionRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(CollectionEntity::getHistoryId, Function.identity()));
+        return ids.stream()
+                .map(entities::get)
+                .filter(Objects::nonNull)
+                .map(this::resolve)
+                .map(collectionMapper::toHistoryDto)
+                .toList();
+    }
+
+    /**
+     * Шаблон поиска по наименованию коллекции для LIKE (быстрый поиск либо фильтр title).
+     *
+     * @param request параметры запроса sdi-table.
+     * @return шаблон поиска в нижнем регистре.
+     */
+    private String searchPattern(TableRequest request) {
+        return TableRequestUtils.quickSearch(request)
+                .or(() -> TableRequestUtils.filterValue(request, TITLE).map(Object::toString))
+                .map(s -> "%" + s.toLowerCase(Locale.ROOT) + "%")
+                .orElse("%");
+    }
+
+    /**
+     * Параметры пагинации и сортировки для запроса в БД.
+     * <p>Последним добавляется сортировка по идентификатору для стабильного порядка страниц.</p>
+     *
+     * @param request     параметры запроса sdi-table.
+     * @param defaultSort сортировка по умолчанию.
+     * @param tieBreaker  поле-идентификатор для стабильного порядка.
+     * @return параметры пагинации.
+     */
+    private Pageable pageable(TableRequest request, Sort defaultSort, String tieBreaker) {
+        List<Sort.Order> orders = TableRequestUtils.sorts(request).stream()
+                .filter(item -> SORTABLE_FIELDS.contains(item.getName()))
+                .map(item -> item.isDescending() ? Sort.Order.desc(item.getName()) : Sort.Order.asc(item.getName()))
+                .toList();
+        Sort sort = orders.isEmpty() ? defaultSort : Sort.by(orders);
+        return PageRequest.of(
+                TableRequestUtils.pageIndex(request),
+                TableRequestUtils.limit(request, DEFAULT_LIMIT, MAX_LIMIT),
+                sort.and(Sort.by(tieBreaker))
+        );
+    }
+
+    /**
+     * Восстановление полного контента записи коллекции, сохранённой в виде JSON-patch.
+     *
+     * @param entity запись коллекции.
+     * @return запись коллекции с полным контентом.
+     */
+    private CollectionEntity resolve(CollectionEntity entity) {
+        return CollectionStorageType.DELTA == entity.getStorageType() ? historyCodec.materialize(entity) : entity;
+    }
+
+    /**
+     * Сериализация контента коллекции в json для записи в jsonb-колонку.
+     *
+     * @param value контент коллекции.
+     * @return json.
+     */
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            log.error("Collection serialization error", e);
+            throw ErrorDescription.EXPORT_COLLECTION_ERROR.exception();
+        }
+    }
+
     /**
      * Валидация записи коллекции на уникальность по названию и пользователю.
      *
@@ -7,8 +7,8 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,17 +17,24 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.axenix.smartax.common.security.Authorization;
 
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
-import ru.axenix.smartax.dui.service.application.collection.model.CollectionHistoryDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionShortDto;
 import ru.axenix.smartax.dui.service.application.collection.service.CollectionService;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
+import ru.axenix.smartax.dui.service.model.table.TableResponse;
 import ru.axenix.smartax.web.swagger.annotation.BaseResponse;
 
 import java.util.List;
 import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * Контроллер для управления коллекциями администратора.
@@ -49,14 +56,15 @@ public class CollectionController {
     @Operation(
             tags = "Коллекции администратора",
             summary = "Получение списка коллекций администратора",
-            description = "Получение списка коллекций администратора по его ID из контекста авторизации",
+            description = "Получение списка коллекций администратора по его ID из контекста авторизации "
+                    + "с быстрым поиском, сортировкой и пагинацией",
             security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
     )
     @BaseResponse
     @Authorization
     @PostMapping("/collection/list")
-    public List<CollectionShortDto> getAllCollections() {
-        return collectionService.getAllCollections(USER_ID);
+    public TableResponse getAllCollections(@RequestBody(required = false) TableRequest request) {
+        return collectionService.getAllCollections(USER_ID, request);
     }
 
     @Operation(
@@ -82,44 +90,61 @@ public class CollectionController {
     @Authorization
     @GetMapping("/collection/{collectionUUID}/history/{historyUUID}")
     public CollectionDto getCollectionByHistory(@PathVariable UUID collectionUUID,
-                                       @PathVariable UUID historyUUID) {
+                                                @PathVariable UUID historyUUID,
+                                                WebRequest request) {
+        // ETag проверяется до чтения контента записи
+        if (request.checkNotModified(collectionService.getCollectionHistoryETag(historyUUID))) {
+            return null;
+        }
         return collectionService.getCollectionByHistoryUUID(historyUUID);
     }
 
     @Operation(
             tags = "Коллекции администратора",
             summary = "Экспорт коллекции администратора",
-            description = "Экспорт коллекции администратора в формате .json файла",
+            description = "Экспорт коллекции администратора в формате .json файла (при gzip=true - .json.gz)",
             security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
     )
     @BaseResponse
     @Authorization
     @GetMapping("/collection/{collectionUUID}/export")
-    public ResponseEntity<Resource> exportCollection(@PathVariable UUID collectionUUID) {
-        var dto = collectionService.exportCollection(collectionUUID);
+    public ResponseEntity<StreamingResponseBody> exportCollection(
+            @PathVariable UUID collectionUUID,
+            @RequestParam(name = "pretty", defaultValue = "true") boolean pretty,
+            @RequestParam(name = "gzip", defaultValue = "false") boolean gzip) {
+        var file = collectionService.exportCollection(collectionUUID, pretty);
 
         HttpHeaders headers = new HttpHeaders();
-        headers.add(HttpHeaders.CONTENT_TYPE, "application/json");
+        headers.add(HttpHeaders.CONTENT_TYPE, gzip ? "application/gzip" : "application/json");
         headers.add(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS, "Content-Disposition");
         headers.add(HttpHeaders.CONTENT_DISPOSITION,
-                "attachment; filename=\"" + dto.getFilename() + ".json\"");
+                "attachment; filename=\"" + file.getFilename() + (gzip ? ".json.gz" : ".json") + "\"");
 
+        StreamingResponseBody body = !gzip ? file.getBody() : out -> {
+            GZIPOutputStream gzipStream = new GZIPOutputStream(out);
+            file.getBody().writeTo(gzipStream);
+            gzipStream.finish();
+        };
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(dto.getFile());
+                .body(body);
     }
 
     @Operation(
             tags = "Коллекции администратора",
             summary = "Получение истории изменений коллекции администратора",
-            description = "Получение списка коллекций в истории изменений по UUID коллекции",
+            description = "Получение списка коллекций в истории изменений по UUID коллекции. "
+                    + "Контент записей (pages/mocks/config) возвращается только при withContent=true",
             security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
     )
     @BaseResponse
     @Authorization
     @PostMapping("/collection/{collectionUUID}/history")
-    public List<CollectionHistoryDto> getCollectionHistory(@PathVariable UUID collectionUUID) {
-        return collectionService.getCollectionHistory(collectionUUID);
+    public TableResponse getCollectionHistory(@PathVariable UUID collectionUUID,
+                                              @RequestBody(required = false) TableRequest request,
+                                              @RequestParam(name = "withContent", defaultValue = "false")
+                                              boolean withContent) {
+        return collectionService.getCollectionHistory(collectionUUID, request, withContent);
     }
 
     @Operation(
@@ -135,6 +160,20 @@ public class CollectionController {
         return collectionService.createCollection(USER_ID, collection);
     }
 
+    @Operation(
+            tags = "Коллекции администратора",
+            summary = "Импорт коллекций администратора",
+            description = "Массовый импорт коллекций из файлов экспорта (.json, NDJSON) либо zip-архивов с ними. "
+                    + "Наименования коллекций должны быть уникальны, импорт выполняется целиком либо не выполняется",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @Authorization
+    @PostMapping(value = "/collection/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public List<CollectionShortDto> importCollections(@RequestPart("files") List<MultipartFile> files) {
+        return collectionService.importCollections(USER_ID, files);
+    }
+
     @Operation(
             tags = "Коллекции администратора",
             summary = "Редактирование коллекций администратора",
@@ -149,6 +188,34 @@ public class CollectionController {
         return collectionService.editCollection(collectionUUID, collection);
     }
 
+    @Operation(
+            tags = "Коллекции администратора",
+            summary = "Автосохранение коллекции администратора",
+            description = "Автосохранение коллекции администратора. Автосохранения в пределах окна объединения "
+                    + "изменяют черновик коллекции без создания записи истории",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @Authorization
+    @PutMapping("/collection/{collectionUUID}/draft")
+    public CollectionDto autosaveCollection(@PathVariable UUID collectionUUID,
+                                            @RequestBody CollectionDto collection) {
+        return collectionService.autosaveCollection(collectionUUID, collection);
+    }
+
+    @Operation(
+            tags = "Коллекции администратора",
+            summary = "Фиксация версии коллекции администратора",
+            description = "Фиксация черновика коллекции в качестве версии истории",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @Authorization
+    @PostMapping("/collection/{collectionUUID}/commit")
+    public void commitCollection(@PathVariable UUID collectionUUID) {
+        collectionService.commitCollection(collectionUUID);
+    }
+
     @Operation(
             tags = "Коллекции администратора",
             summary = "Удаление коллекции администратора",
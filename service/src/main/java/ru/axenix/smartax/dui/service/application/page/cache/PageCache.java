@@ -0,0 +1,169 @@
+package ru.axenix.smartax.dui.service.application.page.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.application.page.model.PageDto;
+import ru.axenix.smartax.dui.service.application.page.model.PageInstructions;
+import ru.axenix.smartax.dui.service.configuration.properties.PageCacheProperties;
+import ru.axenix.smartax.dui.service.util.ETagUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц по нормализованному названию.
+ *
+ * <p>
+ * Вместе со страницей хранятся инструкции в виде готовых UTF-8 байт и их ETag для отдачи
+ * без повторной сериализации. Размер кэша ограничен суммарным объёмом инструкций страниц. Изменение страницы
+ * сбрасывает запись локально и, при включенной инвалидации, на всех экземплярах сервиса.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Component
+public class PageCache {
+
+    /**
+     * Оценка размера записи без учёта инструкций, байт.
+     */
+    private static final int ENTRY_OVERHEAD = 256;
+
+    private final PageCacheProperties properties;
+    private final ObjectProvider<PageCacheEventPublisher> eventPublisher;
+    private final Cache<String, Entry> cache;
+
+    public PageCache(PageCacheProperties properties, ObjectProvider<PageCacheEventPublisher> eventPublisher) {
+        this.properties = properties;
+        this.eventPublisher = eventPublisher;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaximumWeight())
+                .weigher(PageCache::weigh)
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .build();
+    }
+
+    /**
+     * Получение страницы из кэша либо загрузка и сохранение в кэш.
+     * <p>Ошибка загрузки не кэшируется.</p>
+     *
+     * @param name   маршрут или имя страницы.
+     * @param loader загрузка страницы из БД.
+     * @return объект страницы.
+     */
+    public PageDto get(String name, Supplier<PageDto> loader) {
+        return getEntry(name, loader).page();
+    }
+
+    /**
+     * Получение инструкций страницы в виде UTF-8 байт json.
+     *
+     * @param name   маршрут или имя страницы.
+     * @param loader загрузка страницы из БД.
+     * @return инструкции страницы.
+     */
+    public PageInstructions getInstructions(String name, Supplier<PageDto> loader) {
+        return getEntry(name, loader).instructions();
+    }
+
+    /**
+     * Получение инструкций нескольких страниц.
+     * <p>Отсутствующие в кэше страницы загружаются одним вызовом загрузчика, ненайденные страницы не кэшируются.</p>
+     *
+     * @param names  маршруты или имена страниц.
+     * @param loader загрузка страниц из БД по нормализованным названиям, результат - страницы по названию.
+     * @return инструкции найденных страниц по нормализованному названию.
+     */
+    public Map<String, PageInstructions> getAllInstructions(
+            Collection<String> names,
+            Function<Set<String>, Map<String, PageDto>> loader
+    ) {
+        Set<String> keys = new LinkedHashSet<>();
+        names.forEach(name -> keys.add(normalize(name)));
+
+        Map<String, Entry> entries = properties.isEnabled()
+                ? cache.getAll(keys, missing -> load(Set.copyOf(missing), loader))
+                : load(keys, loader);
+
+        Map<String, PageInstructions> result = new HashMap<>();
+        entries.forEach((key, entry) -> result.put(key, entry.instructions()));
+        return result;
+    }
+
+    /**
+     * Сброс страницы из кэша на всех экземплярах сервиса.
+     *
+     * @param name маршрут или имя страницы, null - сброс всего кэша.
+     */
+    public void invalidate(String name) {
+        evict(name);
+        eventPublisher.ifAvailable(publisher -> publisher.publish(name));
+    }
+
+    /**
+     * Сброс страницы из локального кэша.
+     *
+     * @param name маршрут или имя страницы, null - сброс всего кэша.
+     */
+    public void evict(String name) {
+        if (name == null) {
+            cache.invalidateAll();
+        } else {
+            cache.invalidate(normalize(name));
+        }
+    }
+
+    private Entry getEntry(String name, Supplier<PageDto> loader) {
+        if (!properties.isEnabled() || name == null) {
+            return Entry.of(loader.get());
+        }
+        return cache.get(normalize(name), key -> Entry.of(loader.get()));
+    }
+
+    private static Map<String, Entry> load(Set<String> keys, Function<Set<String>, Map<String, PageDto>> loader) {
+        Map<String, Entry> entries = new HashMap<>();
+        loader.apply(keys).forEach((name, page) -> {
+            String key = normalize(name);
+            if (keys.contains(key)) {
+                entries.put(key, Entry.of(page));
+            }
+        });
+        return entries;
+    }
+
+    /**
+     * Нормализация названия страницы для поиска без учёта регистра.
+     *
+     * @param name маршрут или имя страницы.
+     * @return название без пробелов по краям в нижнем регистре.
+     */
+    public static String normalize(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static int weigh(String key, Entry entry) {
+        String instructions = entry.page().getInstructions() == null ? "" : entry.page().getInstructions().toString();
+        return ENTRY_OVERHEAD + 2 * (key.length() + instructions.length()) + entry.instructions().getContent().length;
+    }
+
+    /**
+     * Запись кэша: страница и её инструкции в виде байт.
+     */
+    private record Entry(PageDto page, PageInstructions instructions) {
+
+        private static Entry of(PageDto page) {
+            String json = page.getInstructions() == null ? "null" : page.getInstructions().toString();
+            byte[] content = json.getBytes(StandardCharsets.UTF_8);
+            return new Entry(page, new PageInstructions(content, ETagUtils.content(content), page.getUpdateDateTime()));
+        }
+    }
+}
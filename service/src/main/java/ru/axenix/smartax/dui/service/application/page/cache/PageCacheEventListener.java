@@ -0,0 +1,67 @@
+package ru.axenix.smartax.dui.service.application.page.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.application.page.model.PageCacheEvent;
+
+/**
+ * Получение событий инвалидации кэша страниц из Kafka.
+ *
+ * <p>
+ * Каждый экземпляр сервиса читает топик собственной группой, поэтому событие
+ * получают все реплики. Группа строится из имени пода, которое в Deployment меняется
+ * при каждом перезапуске, поэтому группа всегда новая: она начинает чтение с конца топика
+ * ({@code auto.offset.reset=latest}) и не перечитывает события, случившиеся до старта
+ * с пустым кэшем. Группы заменённых подов брокер удаляет по истечении
+ * {@code offsets.retention.minutes}.
+ * Сообщения другого типа в топике игнорируются.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "application.page.cache.invalidation", name = "enabled", havingValue = "true")
+public class PageCacheEventListener {
+
+    private final PageCache pageCache;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Обработка события инвалидации кэша страниц.
+     *
+     * @param message сообщение из топика.
+     */
+    @KafkaListener(
+            topics = "${application.page.cache.invalidation.topic}",
+            groupId = "${application.page.cache.invalidation.group-id}",
+            properties = "auto.offset.reset=latest"
+    )
+    public void onMessage(String message) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(message);
+        } catch (JsonProcessingException e) {
+            log.debug("Сообщение не является событием инвалидации кэша страниц", e);
+            return;
+        }
+        if (!PageCacheEvent.TYPE.equals(node.path("type").asText())) {
+            return;
+        }
+        PageCacheEvent event;
+        try {
+            event = objectMapper.treeToValue(node, PageCacheEvent.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Некорректное событие инвалидации кэша страниц: {}", message, e);
+            return;
+        }
+        pageCache.evict(event.getPageName());
+    }
+}
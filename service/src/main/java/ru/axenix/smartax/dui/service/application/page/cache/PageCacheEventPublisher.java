@@ -0,0 +1,41 @@
+package ru.axenix.smartax.dui.service.application.page.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.application.page.model.PageCacheEvent;
+import ru.axenix.smartax.dui.service.configuration.properties.PageCacheProperties;
+
+/**
+ * Публикация событий инвалидации кэша страниц в Kafka.
+ *
+ * @author Velikanov Artyom.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "application.page.cache.invalidation", name = "enabled", havingValue = "true")
+public class PageCacheEventPublisher {
+
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final PageCacheProperties properties;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Публикация события инвалидации страницы.
+     *
+     * @param pageName маршрут или имя страницы, null - сброс всего кэша.
+     */
+    public void publish(String pageName) {
+        try {
+            String payload = objectMapper.writeValueAsString(new PageCacheEvent(PageCacheEvent.TYPE, pageName));
+            kafkaTemplate.send(properties.getInvalidation().getTopic(), PageCacheEvent.TYPE, payload);
+        } catch (JsonProcessingException e) {
+            log.error("Не удалось опубликовать событие инвалидации кэша страницы {}", pageName, e);
+        }
+    }
+}
@@ -1,8 +1,13 @@
 package ru.axenix.smartax.dui.service.application.page.domain;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -15,10 +20,24 @@ import java.util.UUID;
 public interface PageRepository extends JpaRepository<PageEntity, UUID> {
 
     /**
-     * Получение страницы по уникальному имени
+     * Получение страницы по уникальному имени без учёта регистра.
+     * <p>Условие совпадает с выражением уникального индекса {@code page_name_lower_uidx}.</p>
      *
-     * @param name название он же адрес страницы
+     * @param name название он же адрес страницы, нормализованное {@code PageCache.normalize}
      * @return Объект страницы
      */
-    Optional<PageEntity> findByNameEqualsIgnoreCase(String name);
+    @Transactional(readOnly = true)
+    @Query("select p from PageEntity p where lower(p.name) = lower(:name)")
+    Optional<PageEntity> findByNameEqualsIgnoreCase(@Param("name") String name);
+
+    /**
+     * Получение страниц по списку названий одним запросом.
+     * <p>Условие использует уникальный индекс {@code page_name_lower_uidx}.</p>
+     *
+     * @param names названия страниц в нижнем регистре
+     * @return найденные страницы
+     */
+    @Transactional(readOnly = true)
+    @Query("select p from PageEntity p where lower(p.name) in :names")
+    List<PageEntity> findAllByLowerNameIn(@Param("names") Collection<String> names);
 }
@@ -0,0 +1,31 @@
+package ru.axenix.smartax.dui.service.application.page.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Событие инвалидации кэша страниц.
+ *
+ * @author Velikanov Artyom.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageCacheEvent {
+
+    /**
+     * Тип события инвалидации кэша страниц.
+     */
+    public static final String TYPE = "PAGE_CACHE_EVICT";
+
+    /**
+     * Тип события.
+     */
+    private String type;
+
+    /**
+     * Название страницы. Если не задано, сбрасывается весь кэш.
+     */
+    private String pageName;
+}
@@ -0,0 +1,31 @@
+package ru.axenix.smartax.dui.service.application.page.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.LocalDateTime;
+
+/**
+ * Json-инструкция страницы, готовая к отдаче в ответе.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@AllArgsConstructor
+public class PageInstructions {
+
+    /**
+     * Json-инструкция страницы в кодировке UTF-8.
+     */
+    private final byte[] content;
+
+    /**
+     * Строгий ETag по содержимому инструкции.
+     */
+    private final String etag;
+
+    /**
+     * Дата и время обновления страницы.
+     */
+    private final LocalDateTime updateDateTime;
+}
@@ -1,7 +1,10 @@
 package ru.axenix.smartax.dui.service.application.page.service;
 
 import ru.axenix.smartax.dui.service.application.page.model.PageDto;
+import ru.axenix.smartax.dui.service.application.page.model.PageInstructions;
 
+import java.util.Collection;
+import java.util.Map;
 import java.util.UUID;
 
 /**
@@ -23,4 +26,24 @@ public interface PageService {
      * @return бъект страницы
      */
     PageDto getPageByName(String name);
-}
\ No newline at end of file
+
+    /**
+     * Получение json-инструкции страницы по маршруту
+     * @param name маршрут или имя страницы
+     * @return json-инструкция страницы в кодировке UTF-8 с ETag
+     */
+    PageInstructions getPageInstructions(String name);
+
+    /**
+     * Получение json-инструкций нескольких страниц по маршрутам
+     * @param names маршруты или имена страниц
+     * @return json-инструкции найденных страниц по запрошенному маршруту в порядке запроса
+     */
+    Map<String, PageInstructions> getPagesInstructions(Collection<String> names);
+
+    /**
+     * Сброс страницы из кэша на всех экземплярах сервиса
+     * @param name маршрут или имя страницы, null - сброс всего кэша
+     */
+    void evictPage(String name);
+}
@@ -3,13 +3,22 @@ package ru.axenix.smartax.dui.service.application.page.service.impl;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.axenix.smartax.dui.service.application.page.cache.PageCache;
 import ru.axenix.smartax.dui.service.application.page.domain.PageEntity;
 import ru.axenix.smartax.dui.service.application.page.domain.PageRepository;
 import ru.axenix.smartax.dui.service.application.page.service.PageService;
 import ru.axenix.smartax.dui.service.application.page.model.PageDto;
+import ru.axenix.smartax.dui.service.application.page.model.PageInstructions;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.UUID;
 
+import static ru.axenix.smartax.dui.service.error.ErrorDescription.PAGE_BATCH_TOO_LARGE;
 import static ru.axenix.smartax.dui.service.error.ErrorDescription.PAGE_NOT_FOUND;
 
 /**
@@ -20,7 +29,14 @@ import static ru.axenix.smartax.dui.service.error.ErrorDescription.PAGE_NOT_FOUN
 @Service
 @RequiredArgsConstructor
 public class PageServiceImpl implements PageService {
+
+    /**
+     * Максимальное количество страниц в одном запросе инструкций.
+     */
+    private static final int MAX_BATCH_SIZE = 100;
+
     private final PageRepository pageRepository;
+    private final PageCache pageCache;
 
     /**
      * Получение страницы по Id
@@ -36,19 +52,85 @@ public class PageServiceImpl implements PageService {
     }
 
     /**
-     * Получение страницы по маршруту
+     * Получение страницы по маршруту.
+     * <p>
+     * Страница читается из кэша, при отсутствии - из БД. Транзакция открывается только
+     * запросом репозитория при загрузке, попадание в кэш не занимает соединение с БД.
+     * </p>
      *
      * @param name маршрут или имя страницы
      * @return объект страницы
      */
     @Override
-    @Transactional(readOnly = true)
     public PageDto getPageByName(String name) {
-        return pageRepository.findByNameEqualsIgnoreCase(name)
+        return pageCache.get(name, () -> loadPageByName(name));
+    }
+
+    /**
+     * Получение json-инструкции страницы по маршруту.
+     * <p>Инструкция возвращается в виде хранимого json без разбора и повторной сериализации.</p>
+     *
+     * @param name маршрут или имя страницы
+     * @return json-инструкция страницы в кодировке UTF-8 с ETag
+     */
+    @Override
+    public PageInstructions getPageInstructions(String name) {
+        return pageCache.getInstructions(name, () -> loadPageByName(name));
+    }
+
+    /**
+     * Получение json-инструкций нескольких страниц по маршрутам.
+     * <p>Отсутствующие в кэше страницы загружаются из БД одним запросом, ненайденные страницы пропускаются.</p>
+     *
+     * @param names маршруты или имена страниц
+     * @return json-инструкции найденных страниц по запрошенному маршруту в порядке запроса
+     */
+    @Override
+    public Map<String, PageInstructions> getPagesInstructions(Collection<String> names) {
+        List<String> requested = names.stream().filter(Objects::nonNull).distinct().toList();
+        PAGE_BATCH_TOO_LARGE.throwIfTrue(requested.size() > MAX_BATCH_SIZE);
+
+        Map<String, PageInstructions> instructions = pageCache.getAllInstructions(requested, this::loadPagesByName);
+        Map<String, PageInstructions> result = new LinkedHashMap<>();
+        for (String name : requested) {
+            PageInstructions page = instructions.get(PageCache.normalize(name));
+            if (page != null) {
+                result.put(name, page);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Сброс страницы из кэша на всех экземплярах сервиса
+     *
+     * @param name маршрут или имя страницы, null - сброс всего кэша
+     */
+    @Override
+    public void evictPage(String name) {
+        pageCache.invalidate(name);
+    }
+
+    /**
+     * Загрузка страницы из БД по названию, нормализованному так же, как ключ кэша.
+     *
+     * @param name маршрут или имя страницы
+     * @return объект страницы
+     */
+    private PageDto loadPageByName(String name) {
+        PAGE_NOT_FOUND.throwIfTrue(name == null);
+        return pageRepository.findByNameEqualsIgnoreCase(PageCache.normalize(name))
                 .map(this::pageToDto)
                 .orElseThrow(PAGE_NOT_FOUND::exception);
     }
 
+    private Map<String, PageDto> loadPagesByName(Set<String> names) {
+        Map<String, PageDto> pages = new LinkedHashMap<>();
+        pageRepository.findAllByLowerNameIn(names)
+                .forEach(page -> pages.put(page.getName(), pageToDto(page)));
+        return pages;
+    }
+
     private PageDto pageToDto(PageEntity pageEntity) {
         return PageDto.builder()
                 .id(pageEntity.getId())
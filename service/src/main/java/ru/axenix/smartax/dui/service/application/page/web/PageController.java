@@ -1,5 +1,6 @@
 package ru.axenix.smartax.dui.service.application.page.web;
 
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeIn;
 import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
@@ -9,14 +10,29 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.axenix.smartax.common.security.Authorization;
 import ru.axenix.smartax.dui.service.application.page.service.PageService;
 import ru.axenix.smartax.dui.service.application.page.model.PageDto;
+import ru.axenix.smartax.dui.service.application.page.model.PageInstructions;
+import ru.axenix.smartax.dui.service.util.ETagUtils;
 import ru.axenix.smartax.web.swagger.annotation.BaseResponse;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/app/v1/page")
 @RequiredArgsConstructor
@@ -34,8 +50,14 @@ public class PageController {
     )
     @BaseResponse
     @GetMapping
-    public PageDto getPageByName(@RequestParam(name = "pageName") String name) {
-        return pageService.getPageByName(name);
+    public ResponseEntity<PageDto> getPageByName(@RequestParam(name = "pageName") String name) {
+        PageDto page = pageService.getPageByName(name);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getUpdateDateTime() != null) {
+            long updated = toEpochMilli(page.getUpdateDateTime());
+            response.eTag("W/" + ETagUtils.version(page.getId(), updated)).lastModified(updated);
+        }
+        return response.body(page);
     }
 
     @Operation(
@@ -46,7 +68,69 @@ public class PageController {
     )
     @BaseResponse
     @GetMapping(value = "/instructions", produces = MediaType.APPLICATION_JSON_VALUE)
-    public Object getPageInstructions(@RequestParam(name = "pageName") String name) {
-        return pageService.getPageByName(name).getInstructions();
+    public ResponseEntity<byte[]> getPageInstructions(@RequestParam(name = "pageName") String name) {
+        PageInstructions instructions = pageService.getPageInstructions(name);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(instructions.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(instructions.getContent().length);
+        if (instructions.getUpdateDateTime() != null) {
+            response.lastModified(toEpochMilli(instructions.getUpdateDateTime()));
+        }
+        return response.body(instructions.getContent());
+    }
+
+    @Operation(
+            tags = "Управление страницами",
+            summary = "Получение json инструкций нескольких страниц",
+            description = "Получение json-инструкций страниц по списку маршрутов одним запросом. "
+                    + "Ответ - объект, где ключ - маршрут страницы, значение - её json-инструкция. "
+                    + "Ненайденные страницы в ответ не попадают",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @PostMapping(value = "/instructions/batch", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getPagesInstructions(@RequestBody List<String> names) {
+        Map<String, PageInstructions> instructions = pageService.getPagesInstructions(names);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(output -> writeInstructions(instructions, output));
+    }
+
+    @Operation(
+            tags = "Управление страницами",
+            summary = "Сброс кэша страницы",
+            description = "Сброс кэша страницы на всех экземплярах сервиса после изменения страницы. "
+                    + "Без указания маршрута сбрасывается весь кэш",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @Authorization
+    @DeleteMapping("/cache")
+    public void evictPage(@RequestParam(name = "pageName", required = false) String name) {
+        pageService.evictPage(name);
+    }
+
+    private static void writeInstructions(Map<String, PageInstructions> instructions, OutputStream output)
+            throws IOException {
+        JsonStringEncoder encoder = JsonStringEncoder.getInstance();
+        output.write('{');
+        boolean first = true;
+        for (Map.Entry<String, PageInstructions> entry : instructions.entrySet()) {
+            if (!first) {
+                output.write(',');
+            }
+            first = false;
+            output.write('"');
+            output.write(encoder.quoteAsUTF8(entry.getKey()));
+            output.write('"');
+            output.write(':');
+            output.write(entry.getValue().getContent());
+        }
+        output.write('}');
+    }
+
+    private static long toEpochMilli(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
     }
 }
@@ -0,0 +1,185 @@
+package ru.axenix.smartax.dui.service.application.template.catalog;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Component;
+import ru.axenix.smartax.dui.service.application.template.domain.TemplateEntity;
+import ru.axenix.smartax.dui.service.application.template.domain.TemplateRepository;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateDto;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateFile;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateType;
+import ru.axenix.smartax.dui.service.configuration.properties.TemplateCatalogProperties;
+import ru.axenix.smartax.dui.service.error.ErrorDescription;
+import ru.axenix.smartax.dui.service.util.ETagUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Каталог шаблонов в памяти.
+ *
+ * <p>
+ * Таблица <strong>template</strong> и файлы шаблонов из {@code template/page} и {@code template/image}
+ * загружаются при старте приложения в неизменяемый снимок. Запросы обслуживаются из памяти,
+ * ETag и размер файлов вычисляются один раз при загрузке. Снимок перечитывается при первом обращении
+ * после истечения TTL либо сразу методом {@link #refresh()}.
+ * </p>
+ *
+ * TTL задаётся через свойство {@code application.template.catalog.ttl}, по умолчанию 5 минут.
+ *
+ * @author Velikanov Artyom.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TemplateCatalog {
+
+    private static final String PAGE_PATH = "template/page/";
+    private static final String IMAGE_PATH = "template/image/";
+
+    private final TemplateRepository templateRepository;
+    private final TemplateCatalogProperties properties;
+
+    private volatile Snapshot snapshot;
+
+    /**
+     * Загрузка каталога шаблонов из БД и classpath с заменой текущего снимка.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void refresh() {
+        Map<UUID, Item> loaded = new LinkedHashMap<>();
+        for (TemplateEntity entity : templateRepository.findAll()) {
+            loaded.put(entity.getUuid(), new Item(
+                    TemplateDto.builder()
+                            .uuid(entity.getUuid())
+                            .title(entity.getTitle())
+                            .imageUrl("/app/v1/template/" + entity.getUuid() + "/image")
+                            .build(),
+                    entity.getType(),
+                    load(PAGE_PATH, entity.getFilenamePage()),
+                    load(IMAGE_PATH, entity.getFilenameImage())
+            ));
+        }
+        snapshot = new Snapshot(Collections.unmodifiableMap(loaded), System.nanoTime());
+        log.info("Загружено шаблонов в каталог: {}", loaded.size());
+    }
+
+    /**
+     * Получение списка шаблонов.
+     *
+     * @param type тип шаблона, null - все шаблоны.
+     * @return Список информации по шаблонам.
+     */
+    public List<TemplateDto> getTemplates(TemplateType type) {
+        return items().values().stream()
+                .filter(item -> type == null || type == item.type())
+                .map(Item::template)
+                .toList();
+    }
+
+    /**
+     * Получение файла json-инструкции шаблона.
+     *
+     * @param uuid идентификатор шаблона.
+     * @return Файл json-инструкции.
+     */
+    public TemplateFile getPage(UUID uuid) {
+        TemplateFile page = getItem(uuid).page();
+        if (page == null) {
+            throw ErrorDescription.TEMPLATE_PAGE_NOT_FOUND.exception();
+        }
+        return page;
+    }
+
+    /**
+     * Получение файла изображения шаблона.
+     *
+     * @param uuid идентификатор шаблона.
+     * @return Файл изображения.
+     */
+    public TemplateFile getImage(UUID uuid) {
+        TemplateFile image = getItem(uuid).image();
+        if (image == null) {
+            throw ErrorDescription.TEMPLATE_IMAGE_NOT_FOUND.exception();
+        }
+        return image;
+    }
+
+    private Item getItem(UUID uuid) {
+        Item item = items().get(uuid);
+        if (item == null) {
+            throw ErrorDescription.TEMPLATE_NOT_FOUND.exception();
+        }
+        return item;
+    }
+
+    private Map<UUID, Item> items() {
+        Snapshot current = snapshot;
+        if (current == null || current.isExpired(properties.getTtl())) {
+            current = reload();
+        }
+        return current.items();
+    }
+
+    /**
+     * Перечитывание снимка, если его ещё не перечитал другой поток.
+     *
+     * @return актуальный снимок каталога.
+     */
+    private synchronized Snapshot reload() {
+        Snapshot current = snapshot;
+        if (current == null || current.isExpired(properties.getTtl())) {
+            refresh();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    /**
+     * Чтение файла шаблона из classpath.
+     *
+     * @param path     каталог файла.
+     * @param filename наименование файла.
+     * @return Файл шаблона либо null, если файл отсутствует.
+     */
+    private TemplateFile load(String path, String filename) {
+        Resource resource = new ClassPathResource(path + filename);
+        if (!resource.exists()) {
+            log.warn("Файл шаблона не найден: {}{}", path, filename);
+            return null;
+        }
+        try (InputStream stream = resource.getInputStream()) {
+            byte[] content = stream.readAllBytes();
+            return new TemplateFile(filename, content, ETagUtils.content(content));
+        } catch (IOException e) {
+            log.warn("Не удалось прочитать файл шаблона: {}{}", path, filename, e);
+            return null;
+        }
+    }
+
+    /**
+     * Шаблон каталога: информация для списка, тип и файлы.
+     */
+    private record Item(TemplateDto template, TemplateType type, TemplateFile page, TemplateFile image) {
+    }
+
+    /**
+     * Снимок каталога и момент его загрузки.
+     */
+    private record Snapshot(Map<UUID, Item> items, long loadedAt) {
+
+        boolean isExpired(Duration ttl) {
+            return System.nanoTime() - loadedAt >= ttl.toNanos();
+        }
+    }
+}
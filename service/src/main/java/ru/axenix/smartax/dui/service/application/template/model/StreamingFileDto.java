@@ -0,0 +1,25 @@
+package ru.axenix.smartax.dui.service.application.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+/**
+ * Модель файла, контент которого записывается непосредственно в поток ответа.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@AllArgsConstructor
+public class StreamingFileDto {
+
+    /**
+     * Название файла
+     */
+    private final String filename;
+
+    /**
+     * Запись контента файла в поток
+     */
+    private final StreamingResponseBody body;
+}
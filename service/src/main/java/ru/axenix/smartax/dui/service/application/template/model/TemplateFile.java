@@ -0,0 +1,29 @@
+package ru.axenix.smartax.dui.service.application.template.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Файл шаблона, загруженный в память.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@AllArgsConstructor
+public class TemplateFile {
+
+    /**
+     * Название файла
+     */
+    private final String filename;
+
+    /**
+     * Контент файла
+     */
+    private final byte[] content;
+
+    /**
+     * Строгий ETag по контенту файла
+     */
+    private final String etag;
+}
@@ -1,8 +1,7 @@
 package ru.axenix.smartax.dui.service.application.template.service;
 
-import org.springframework.core.io.Resource;
-import ru.axenix.smartax.dui.service.application.template.model.FileDto;
 import ru.axenix.smartax.dui.service.application.template.model.TemplateDto;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateFile;
 import ru.axenix.smartax.dui.service.application.template.model.TemplateFilterDto;
 
 import java.util.List;
@@ -29,7 +28,7 @@ public interface TemplateService {
      * @param uuid идентификатор шаблона.
      * @return Файл json-инструкции.
      */
-    Resource getTemplatePage(UUID uuid);
+    TemplateFile getTemplatePage(UUID uuid);
 
     /**
      * Получение изображения шаблона по идентификатору.
@@ -37,5 +36,10 @@ public interface TemplateService {
      * @param uuid идентификатор шаблона.
      * @return Изображение шаблона.
      */
-    FileDto getTemplateImage(UUID uuid);
+    TemplateFile getTemplateImage(UUID uuid);
+
+    /**
+     * Перечитывание каталога шаблонов из БД и classpath.
+     */
+    void refreshTemplates();
 }
@@ -1,14 +1,11 @@
 package ru.axenix.smartax.dui.service.application.template.service.impl;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.core.io.Resource;
 import org.springframework.stereotype.Service;
-import ru.axenix.smartax.dui.service.application.template.domain.TemplateRepository;
+import ru.axenix.smartax.dui.service.application.template.catalog.TemplateCatalog;
 import ru.axenix.smartax.dui.service.application.template.service.TemplateService;
-import ru.axenix.smartax.dui.service.error.ErrorDescription;
-import ru.axenix.smartax.dui.service.application.template.model.FileDto;
 import ru.axenix.smartax.dui.service.application.template.model.TemplateDto;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateFile;
 import ru.axenix.smartax.dui.service.application.template.model.TemplateFilterDto;
 
 import java.util.List;
@@ -16,6 +13,7 @@ import java.util.UUID;
 
 /**
  * Сервис управления шаблонами.
+ * <p>Шаблоны и их файлы отдаются из каталога в памяти {@link TemplateCatalog}.</p>
  * TODO Переделать на хранение шаблонов в бд и разработкать апи создания и управления шаблонами.
  *
  * @author Velikanov Artyom.
@@ -24,7 +22,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class TemplateServiceImpl implements TemplateService {
 
-    private final TemplateRepository templateRepository;
+    private final TemplateCatalog templateCatalog;
 
     /**
      * Получение списка шаблонов по фильтру.
@@ -34,17 +32,7 @@ public class TemplateServiceImpl implements TemplateService {
      */
     @Override
     public List<TemplateDto> getTemplates(TemplateFilterDto filter) {
-        var list = (filter == null || filter.getType() == null)
-                ? templateRepository.findAll()
-                : templateRepository.findAllByType(filter.getType());
-
-        return list.stream()
-                .map(it -> TemplateDto.builder()
-                        .uuid(it.getUuid())
-                        .title(it.getTitle())
-                        .imageUrl("/app/v1/template/" + it.getUuid() + "/image")
-                        .build())
-                .toList();
+        return templateCatalog.getTemplates(filter == null ? null : filter.getType());
     }
 
     /**
@@ -54,10 +42,8 @@ public class TemplateServiceImpl implements TemplateService {
      * @return Файл json-инструкции.
      */
     @Override
-    public Resource getTemplatePage(UUID uuid) {
-        var template = templateRepository.findById(uuid)
-                .orElseThrow(ErrorDescription.TEMPLATE_NOT_FOUND::exception);
-        return getPage(template.getFilenamePage());
+    public TemplateFile getTemplatePage(UUID uuid) {
+        return templateCatalog.getPage(uuid);
     }
 
     /**
@@ -67,37 +53,15 @@ public class TemplateServiceImpl implements TemplateService {
      * @return Изображение шаблона.
      */
     @Override
-    public FileDto getTemplateImage(UUID uuid) {
-        var template = templateRepository.findById(uuid)
-                .orElseThrow(ErrorDescription.TEMPLATE_NOT_FOUND::exception);
-        return new FileDto(template.getFilenameImage(), getImage(template.getFilenameImage()));
+    public TemplateFile getTemplateImage(UUID uuid) {
+        return templateCatalog.getImage(uuid);
     }
 
     /**
-     * Получение файла json-инструкции шаблона по наименованию файла.
-     *
-     * @param filenamePage наименование файла.
-     * @return Файл json-инструкции.
+     * Перечитывание каталога шаблонов из БД и classpath.
      */
-    private Resource getPage(String filenamePage) {
-        Resource res = new ClassPathResource("template/page/" + filenamePage);
-        if (!res.exists()) {
-            throw ErrorDescription.TEMPLATE_PAGE_NOT_FOUND.exception();
-        }
-        return res;
-    }
-
-    /**
-     * Получение файла изображения шаблона по наименованию файла.
-     *
-     * @param filenameImage наименование файла.
-     * @return Файл изображения.
-     */
-    private Resource getImage(String filenameImage) {
-        Resource res = new ClassPathResource("template/image/" + filenameImage);
-        if (!res.exists()) {
-            throw ErrorDescription.TEMPLATE_IMAGE_NOT_FOUND.exception();
-        }
-        return res;
+    @Override
+    public void refreshTemplates() {
+        templateCatalog.refresh();
     }
 }
@@ -7,7 +7,6 @@ import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.security.SecurityScheme;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
@@ -19,8 +18,8 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 import ru.axenix.smartax.common.security.Authorization;
 import ru.axenix.smartax.dui.service.application.template.service.TemplateService;
-import ru.axenix.smartax.dui.service.application.template.model.FileDto;
 import ru.axenix.smartax.dui.service.application.template.model.TemplateDto;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateFile;
 import ru.axenix.smartax.dui.service.application.template.model.TemplateFilterDto;
 import ru.axenix.smartax.web.swagger.annotation.BaseResponse;
 
@@ -63,8 +62,14 @@ public class TemplateController {
     @BaseResponse
     @Authorization
     @GetMapping("/template/{uuid}/page")
-    public Resource getTemplatePage(@PathVariable UUID uuid) {
-        return templateService.getTemplatePage(uuid);
+    public ResponseEntity<byte[]> getTemplatePage(@PathVariable UUID uuid) {
+        TemplateFile page = templateService.getTemplatePage(uuid);
+
+        return ResponseEntity.ok()
+                .eTag(page.getEtag())
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(page.getContent().length)
+                .body(page.getContent());
     }
 
     @Operation(
@@ -76,8 +81,8 @@ public class TemplateController {
     @BaseResponse
     @Authorization
     @GetMapping("/template/{uuid}/image")
-    public ResponseEntity<Resource> getTemplateImage(@PathVariable UUID uuid) {
-        FileDto image = templateService.getTemplateImage(uuid);
+    public ResponseEntity<byte[]> getTemplateImage(@PathVariable UUID uuid) {
+        TemplateFile image = templateService.getTemplateImage(uuid);
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.IMAGE_PNG);
@@ -86,6 +91,21 @@ public class TemplateController {
 
         return ResponseEntity.ok()
                 .headers(headers)
-                .body(image.getFile());
+                .eTag(image.getEtag())
+                .contentLength(image.getContent().length)
+                .body(image.getContent());
+    }
+
+    @Operation(
+            tags = "Шаблоны страниц",
+            summary = "Обновление каталога шаблонов",
+            description = "Перечитывание шаблонов и их файлов в каталог в памяти без ожидания истечения TTL каталога",
+            security = {@SecurityRequirement(name = HttpHeaders.AUTHORIZATION)}
+    )
+    @BaseResponse
+    @Authorization
+    @PostMapping("/template/refresh")
+    public void refreshTemplates() {
+        templateService.refreshTemplates();
     }
 }
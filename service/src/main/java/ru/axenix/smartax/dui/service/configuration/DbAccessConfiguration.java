@@ -0,0 +1,59 @@
+package ru.axenix.smartax.dui.service.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.axenix.smartax.dui.service.configuration.properties.DbAccessProperties;
+
+import javax.sql.DataSource;
+
+/**
+ * Конфигурация ограничения одновременного доступа к БД.
+ *
+ * <p>
+ * Включается свойством {@code application.db-access.enabled}. Источник данных оборачивается
+ * в {@link ConnectionLimitingDataSource} с количеством разрешений по размеру пула Hikari.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(prefix = "application.db-access", name = "enabled", havingValue = "true")
+public class DbAccessConfiguration {
+
+    /**
+     * Ограничение количества одновременно выданных соединений с БД.
+     *
+     * @param properties настройки ограничения доступа к БД.
+     * @return постобработчик бина источника данных.
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingDataSourcePostProcessor(
+            ObjectProvider<DbAccessProperties> properties
+    ) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof ConnectionLimitingDataSource) {
+                    return bean;
+                }
+
+                DbAccessProperties settings = properties.getObject();
+                int permits = settings.getPermits() > 0
+                        ? settings.getPermits()
+                        : poolSize(dataSource);
+                log.info("Соединения с БД ограничены {} одновременными запросами", permits);
+                return new ConnectionLimitingDataSource(dataSource, permits, settings.getAcquireTimeout());
+            }
+        };
+    }
+
+    private static int poolSize(DataSource dataSource) {
+        return dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+    }
+}
@@ -0,0 +1,41 @@
+package ru.axenix.smartax.dui.service.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaConsumerFactoryCustomizer;
+import org.springframework.boot.autoconfigure.kafka.DefaultKafkaProducerFactoryCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.axenix.smartax.dui.service.configuration.properties.KafkaSslProperties;
+
+/**
+ * Конфигурация подключения к Kafka для событий инвалидации кэша страниц.
+ *
+ * <p>
+ * События публикуются и читаются через автоконфигурацию Spring Kafka, которая не знает о настройках
+ * {@code application.kafka.ssl}: они переносятся в фабрики производителя и потребителя.
+ * </p>
+ *
+ * @author Velikanov Artyom.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "application.page.cache.invalidation", name = "enabled", havingValue = "true")
+public class PageCacheKafkaConfiguration {
+
+    /**
+     * @param ssl настройки SSL-подключения к Kafka.
+     * @return настройка фабрики производителя.
+     */
+    @Bean
+    public DefaultKafkaProducerFactoryCustomizer pageCacheKafkaProducerSslCustomizer(KafkaSslProperties ssl) {
+        return factory -> factory.updateConfigs(ssl.toClientProperties());
+    }
+
+    /**
+     * @param ssl настройки SSL-подключения к Kafka.
+     * @return настройка фабрики потребителя.
+     */
+    @Bean
+    public DefaultKafkaConsumerFactoryCustomizer pageCacheKafkaConsumerSslCustomizer(KafkaSslProperties ssl) {
+        return factory -> factory.updateConfigs(ssl.toClientProperties());
+    }
+}
@@ -0,0 +1,56 @@
+package ru.axenix.smartax.dui.service.configuration.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки хранения истории изменений коллекций.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.collection.history")
+public class CollectionHistoryProperties {
+
+    /**
+     * Режим хранения истории.
+     */
+    private Mode mode = Mode.FULL;
+
+    /**
+     * Количество записей между полными снимками коллекции (включая сам снимок).
+     */
+    private int checkpointInterval = 10;
+
+    /**
+     * Окно объединения автосохранений: автосохранение в пределах окна с последнего сохранения
+     * черновика изменяет черновик без создания новой записи истории. Нулевое окно отключает объединение.
+     */
+    private Duration draftWindow = Duration.ofMinutes(5);
+
+    /**
+     * Хранение страниц полных записей в общем хранилище страниц по хэшу: запись содержит только
+     * список хэшей, неизменённые страницы не копируются в новые записи.
+     */
+    private boolean pageStore = false;
+
+    /**
+     * Режимы хранения истории коллекции.
+     */
+    public enum Mode {
+
+        /**
+         * Каждая запись хранит полный контент коллекции.
+         */
+        FULL,
+
+        /**
+         * Периодические полные снимки и JSON-patch между ними.
+         */
+        DELTA
+    }
+}
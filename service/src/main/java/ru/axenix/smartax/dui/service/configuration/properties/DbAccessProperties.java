@@ -0,0 +1,34 @@
+package ru.axenix.smartax.dui.service.configuration.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки ограничения одновременного доступа к БД.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.db-access")
+public class DbAccessProperties {
+
+    /**
+     * Признак ограничения количества одновременно выданных соединений с БД.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Максимальное количество одновременно выданных соединений с БД.
+     * Значение 0 означает размер пула Hikari ({@code spring.datasource.hikari.maximum-pool-size}).
+     */
+    private int permits = 0;
+
+    /**
+     * Максимальное время ожидания разрешения на получение соединения с БД.
+     */
+    private Duration acquireTimeout = Duration.ofSeconds(2);
+}
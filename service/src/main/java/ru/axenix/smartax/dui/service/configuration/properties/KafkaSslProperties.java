@@ -0,0 +1,75 @@
+package ru.axenix.smartax.dui.service.configuration.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Настройки SSL-подключения к Kafka.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.kafka.ssl")
+public class KafkaSslProperties {
+
+    /**
+     * Признак подключения к Kafka по SSL.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Путь к хранилищу ключей клиента.
+     */
+    private String keyStoreLocation;
+
+    /**
+     * Пароль хранилища ключей клиента.
+     */
+    private String keyStorePassword;
+
+    /**
+     * Пароль ключа клиента.
+     */
+    private String keyPassword;
+
+    /**
+     * Путь к хранилищу доверенных сертификатов.
+     */
+    private String trustStoreLocation;
+
+    /**
+     * Пароль хранилища доверенных сертификатов.
+     */
+    private String trustStorePassword;
+
+    /**
+     * Настройки клиента Kafka для подключения.
+     *
+     * @return свойства клиента Kafka, пустые при подключении без SSL.
+     */
+    public Map<String, Object> toClientProperties() {
+        Map<String, Object> properties = new HashMap<>();
+        if (!enabled) {
+            return properties;
+        }
+        properties.put("security.protocol", "SSL");
+        putIfNotBlank(properties, "ssl.keystore.location", keyStoreLocation);
+        putIfNotBlank(properties, "ssl.keystore.password", keyStorePassword);
+        putIfNotBlank(properties, "ssl.key.password", keyPassword);
+        putIfNotBlank(properties, "ssl.truststore.location", trustStoreLocation);
+        putIfNotBlank(properties, "ssl.truststore.password", trustStorePassword);
+        return properties;
+    }
+
+    private static void putIfNotBlank(Map<String, Object> properties, String key, String value) {
+        if (StringUtils.isNotBlank(value)) {
+            properties.put(key, value);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package ru.axenix.smartax.dui.service.configuration.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки кэша страниц.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.page.cache")
+public class PageCacheProperties {
+
+    /**
+     * Признак включенного кэша страниц.
+     * <p>
+     * По умолчанию совпадает с признаком инвалидации: без неё реплики отдают изменённую страницу
+     * из своего кэша до истечения {@link #expireAfterWrite}. Кэш без инвалидации допустим для одной реплики.
+     * </p>
+     */
+    private boolean enabled = false;
+
+    /**
+     * Максимальный суммарный размер закэшированных инструкций страниц, байт.
+     */
+    private long maximumWeight = 64L * 1024 * 1024;
+
+    /**
+     * Время жизни записи кэша после загрузки.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+
+    /**
+     * Настройки межсервисной инвалидации кэша.
+     */
+    private Invalidation invalidation = new Invalidation();
+
+    /**
+     * Настройки межсервисной инвалидации кэша через Kafka.
+     */
+    @Getter
+    @Setter
+    public static class Invalidation {
+
+        /**
+         * Признак публикации и получения событий инвалидации.
+         */
+        private boolean enabled = false;
+
+        /**
+         * Топик событий инвалидации.
+         */
+        private String topic;
+
+        /**
+         * Группа потребителя событий, уникальная для экземпляра сервиса
+         * (по умолчанию строится из имени пода и меняется вместе с ним).
+         */
+        private String groupId;
+    }
+}
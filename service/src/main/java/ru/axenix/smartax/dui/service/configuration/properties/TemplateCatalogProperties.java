@@ -0,0 +1,23 @@
+package ru.axenix.smartax.dui.service.configuration.properties;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * Настройки каталога шаблонов в памяти.
+ *
+ * @author Velikanov Artyom.
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "application.template.catalog")
+public class TemplateCatalogProperties {
+
+    /**
+     * Время жизни снимка каталога, по истечении которого он перечитывается из БД при следующем обращении.
+     */
+    private Duration ttl = Duration.ofMinutes(5);
+}
@@ -21,8 +21,16 @@ public enum ErrorDescription {
             HttpStatus.INTERNAL_SERVER_ERROR),
     COLLECTION_TITLE_ALREADY_EXISTS("COLLECTION_003", "Коллекция с данный названием уже существует",
             HttpStatus.BAD_REQUEST),
+    IMPORT_COLLECTION_ERROR("COLLECTION_004", "Не удалось выполнить импорт коллекции",
+            HttpStatus.BAD_REQUEST),
+    COLLECTION_EDIT_CONFLICT("COLLECTION_005", "Коллекция изменена другим запросом, обновите коллекцию",
+            HttpStatus.CONFLICT),
+    COLLECTION_PAGE_NOT_FOUND("COLLECTION_006", "Страница коллекции не найдена в хранилище страниц",
+            HttpStatus.INTERNAL_SERVER_ERROR),
     PAGE_NOT_FOUND("PAGE_001", "Страница не найдена",
             HttpStatus.BAD_REQUEST),
+    PAGE_BATCH_TOO_LARGE("PAGE_002", "Превышено количество страниц в запросе",
+            HttpStatus.BAD_REQUEST),
     MOCK_NOT_FOUND("MOCK_001", "Мок не найдена",
             HttpStatus.BAD_REQUEST),
     TEMPLATE_NOT_FOUND("TEMPLATE_001", "Шаблон не найден",
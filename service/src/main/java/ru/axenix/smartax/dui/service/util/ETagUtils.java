@@ -0,0 +1,47 @@
+package ru.axenix.smartax.dui.service.util;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.stream.Collectors;
+
+/**
+ * Формирование валидаторов HTTP-кэширования (ETag).
+ *
+ * @author Velikanov Artyom.
+ */
+public final class ETagUtils {
+
+    private ETagUtils() {
+    }
+
+    /**
+     * Строгий ETag по содержимому.
+     *
+     * @param content содержимое ответа.
+     * @return ETag в кавычках: SHA-256 содержимого в hex.
+     */
+    public static String content(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return quote(HexFormat.of().formatHex(digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Строгий ETag по версии неизменяемого ресурса.
+     *
+     * @param parts составляющие версии (идентификатор, метка времени и т.п.).
+     * @return ETag в кавычках.
+     */
+    public static String version(Object... parts) {
+        return quote(Arrays.stream(parts).map(String::valueOf).collect(Collectors.joining("-")));
+    }
+
+    private static String quote(String value) {
+        return "\"" + value + "\"";
+    }
+}
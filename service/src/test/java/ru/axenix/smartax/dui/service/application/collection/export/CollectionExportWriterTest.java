@@ -0,0 +1,188 @@
+package ru.axenix.smartax.dui.service.application.collection.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionRepository;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionHistoryCodec;
+import ru.axenix.smartax.dui.service.application.collection.mapper.CollectionMapper;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
+import ru.axenix.smartax.dui.service.error.ApplicationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionExportWriterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private CollectionRepository collectionRepository;
+
+    @Mock
+    private CollectionHistoryCodec historyCodec;
+
+    @Mock
+    private CollectionMapper collectionMapper;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private CollectionExportWriter writer;
+    private UUID historyId;
+    private UUID collectionId;
+
+    @BeforeEach
+    void setUp() {
+        writer = new CollectionExportWriter(jdbcTemplate, objectMapper, collectionRepository,
+                historyCodec, collectionMapper);
+        historyId = UUID.randomUUID();
+        collectionId = UUID.randomUUID();
+    }
+
+    @Test
+    void testWriteFullRecord() throws Exception {
+        ResultSet rs = row("FULL", 0, "[{\"name\":\"main\",\"items\":[1,2]}]", null, "{\"theme\":\"dark\"}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stubQuery(rs, out);
+
+        writer.write(historyId, out, false);
+
+        String json = out.toString(StandardCharsets.UTF_8);
+        assertFalse(json.contains("\n"));
+        JsonNode node = objectMapper.readTree(json);
+        assertEquals(collectionId.toString(), node.get("uuid").asText());
+        assertEquals("Коллекция", node.get("title").asText());
+        assertEquals("main", node.get("pages").get(0).get("name").asText());
+        assertTrue(node.get("mocks").isArray());
+        assertEquals("dark", node.get("config").get("theme").asText());
+        verifyNoInteractions(collectionRepository, historyCodec);
+    }
+
+    @Test
+    void testWritePageStoreRecord() throws Exception {
+        ResultSet rs = row("FULL", 2, "[{\"name\":\"main\"},{\"name\":\"list\"}]", "[]", "{}");
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stubQuery(rs, out);
+
+        writer.write(historyId, out, false);
+
+        JsonNode node = objectMapper.readTree(out.toString(StandardCharsets.UTF_8));
+        assertEquals("main", node.get("pages").get(0).get("name").asText());
+        assertEquals("list", node.get("pages").get(1).get("name").asText());
+        verifyNoInteractions(collectionRepository, historyCodec, collectionMapper);
+    }
+
+    @Test
+    void testWritePageStoreRecordMissingPage() throws Exception {
+        ResultSet rs = row("FULL", 2, "[{\"name\":\"main\"}]", "[]", "{}");
+        when(rs.getInt("page_count")).thenReturn(1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stubQuery(rs, out);
+
+        assertThrows(ApplicationException.class, () -> writer.write(historyId, out, false));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void testWriteSameShapeForAllStorageTypes() throws Exception {
+        String pages = "[{\"name\":\"main\",\"items\":[1,2]}]";
+        String mocks = "[{\"url\":\"/api\"}]";
+        String config = "{\"theme\":\"dark\"}";
+        stubMaterialized();
+
+        JsonNode full = export(row("FULL", 0, pages, mocks, config));
+        JsonNode delta = export(row("DELTA", 0, "[]", "[]", "{}"));
+        JsonNode pageStore = export(row("FULL", 2, pages, mocks, config));
+
+        assertEquals(full, delta);
+        assertEquals(full, pageStore);
+        assertFalse(full.has("historyUuid"));
+        assertFalse(full.has("draft"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testWriteNotFound() throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(false);
+        when(jdbcTemplate.query(anyString(), any(ResultSetExtractor.class), eq(historyId)))
+                .thenAnswer(invocation -> ((ResultSetExtractor<Boolean>) invocation.getArgument(1)).extractData(rs));
+
+        assertThrows(ApplicationException.class, () -> writer.write(historyId, new ByteArrayOutputStream(), true));
+    }
+
+    private JsonNode export(ResultSet rs) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        stubQuery(rs, out);
+        writer.write(historyId, out, false);
+        return objectMapper.readTree(out.toString(StandardCharsets.UTF_8));
+    }
+
+    private ResultSet row(String storageType, int pageRefCount, String pages, String mocks, String config)
+            throws Exception {
+        ResultSet rs = mock(ResultSet.class);
+        lenient().when(rs.next()).thenReturn(true);
+        lenient().when(rs.getString("storage_type")).thenReturn(storageType);
+        lenient().when(rs.getInt("page_ref_count")).thenReturn(pageRefCount);
+        lenient().when(rs.getInt("page_count")).thenReturn(pageRefCount);
+        lenient().when(rs.getString("collection_uuid")).thenReturn(collectionId.toString());
+        lenient().when(rs.getString("title")).thenReturn("Коллекция");
+        lenient().when(rs.getString("pages")).thenReturn(pages);
+        lenient().when(rs.getString("mocks")).thenReturn(mocks);
+        lenient().when(rs.getString("config")).thenReturn(config);
+        return rs;
+    }
+
+    /**
+     * Выполнение запроса строки с проверкой, что в поток ничего не пишется до возврата соединения.
+     */
+    @SuppressWarnings("unchecked")
+    private void stubQuery(ResultSet rs, ByteArrayOutputStream out) {
+        doAnswer(invocation -> {
+            Object row = ((ResultSetExtractor<?>) invocation.getArgument(1)).extractData(rs);
+            assertEquals(0, out.size());
+            return row;
+        }).when(jdbcTemplate).query(anyString(), any(ResultSetExtractor.class), eq(historyId));
+    }
+
+    private void stubMaterialized() {
+        CollectionEntity entity = CollectionEntity.builder().historyId(historyId).build();
+        lenient().when(collectionRepository.findById(historyId)).thenReturn(Optional.of(entity));
+        lenient().when(historyCodec.materialize(entity)).thenReturn(entity);
+        lenient().when(collectionMapper.toDto(entity)).thenReturn(CollectionDto.builder()
+                .uuid(collectionId)
+                .historyUuid(historyId)
+                .draft(true)
+                .title("Коллекция")
+                .pages(List.of(Map.of("name", "main", "items", List.of(1, 2))))
+                .mocks(List.of(Map.of("url", "/api")))
+                .config(Map.of("theme", "dark"))
+                .build());
+    }
+}
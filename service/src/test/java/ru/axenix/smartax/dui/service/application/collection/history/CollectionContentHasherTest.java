@@ -0,0 +1,53 @@
+package ru.axenix.smartax.dui.service.application.collection.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.junit.jupiter.api.Test;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CollectionContentHasherTest {
+
+    private final CollectionContentHasher hasher =
+            new CollectionContentHasher(new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT));
+
+    @Test
+    void testHashIgnoresKeyOrder() {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("name", "main");
+        first.put("props", Map.of("a", 1, "b", List.of(Map.of("x", 1, "y", 2))));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("props", Map.of("b", List.of(Map.of("y", 2, "x", 1)), "a", 1));
+        second.put("name", "main");
+
+        assertEquals(
+                hasher.hash(List.of(first), List.of(), Map.of("theme", "dark")),
+                hasher.hash(List.of(second), List.of(), Map.of("theme", "dark"))
+        );
+    }
+
+    @Test
+    void testHashDetectsChanges() {
+        String hash = hasher.hash(List.of(Map.of("name", "main")), List.of(), Map.of());
+
+        assertNotEquals(hash, hasher.hash(List.of(Map.of("name", "list")), List.of(), Map.of()));
+        assertNotEquals(hash, hasher.hash(List.of(), List.of(Map.of("name", "main")), Map.of()));
+        assertEquals(64, hash.length());
+    }
+
+    @Test
+    void testHashTreatsNullAsEmpty() {
+        CollectionDto collection = new CollectionDto();
+        collection.setPages(null);
+        collection.setMocks(null);
+        collection.setConfig(null);
+
+        assertEquals(hasher.hash(List.of(), List.of(), Map.of()), hasher.hash(collection));
+    }
+}
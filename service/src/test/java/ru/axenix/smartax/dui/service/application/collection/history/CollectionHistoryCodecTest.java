@@ -0,0 +1,175 @@
+package ru.axenix.smartax.dui.service.application.collection.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionPageEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionPageRepository;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionRepository;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionStorageType;
+import ru.axenix.smartax.dui.service.configuration.properties.CollectionHistoryProperties;
+import ru.axenix.smartax.dui.service.error.ApplicationException;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionHistoryCodecTest {
+
+    @Mock
+    private CollectionRepository collectionRepository;
+
+    @Mock
+    private CollectionPageRepository pageRepository;
+
+    private CollectionHistoryProperties properties;
+    private CollectionHistoryCodec codec;
+    private UUID collectionId;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CollectionHistoryProperties();
+        properties.setMode(CollectionHistoryProperties.Mode.DELTA);
+        properties.setCheckpointInterval(3);
+        ObjectMapper objectMapper = new ObjectMapper();
+        CollectionPageStore pageStore = new CollectionPageStore(pageRepository,
+                new CollectionContentHasher(objectMapper), properties, objectMapper);
+        codec = new CollectionHistoryCodec(collectionRepository, properties, pageStore, objectMapper);
+        collectionId = UUID.randomUUID();
+    }
+
+    @Test
+    void testIsDeltaEnabled() {
+        assertTrue(codec.isDeltaEnabled());
+
+        properties.setMode(CollectionHistoryProperties.Mode.FULL);
+
+        assertFalse(codec.isDeltaEnabled());
+    }
+
+    @Test
+    void testEncodeAndMaterialize() {
+        CollectionEntity base = entity(List.of(page("main", "Главная"), page("list", "Список")));
+        CollectionEntity next = entity(List.of(page("main", "Главная"), page("list", "Реестр")));
+        next.getConfig().put("theme", "dark");
+        when(collectionRepository.countByBaseHistoryId(base.getHistoryId())).thenReturn(0L);
+
+        CollectionEntity encoded = codec.encode(base, next);
+
+        assertEquals(CollectionStorageType.DELTA, encoded.getStorageType());
+        assertEquals(base.getHistoryId(), encoded.getBaseHistoryId());
+        assertEquals(next.getHistoryId(), encoded.getHistoryId());
+        assertTrue(encoded.getPages().isEmpty());
+        assertNotNull(encoded.getDelta());
+        assertFalse(encoded.getDelta().isEmpty());
+
+        when(collectionRepository.findById(base.getHistoryId())).thenReturn(Optional.of(base));
+
+        CollectionEntity restored = codec.materialize(encoded);
+
+        assertEquals(next.getPages(), restored.getPages());
+        assertEquals(next.getMocks(), restored.getMocks());
+        assertEquals(next.getConfig(), restored.getConfig());
+        assertEquals(next.getTitle(), restored.getTitle());
+    }
+
+    @Test
+    void testMaterializeFromPageStoreBase() {
+        Map<String, Object> main = page("main", "Главная");
+        CollectionEntity base = entity(List.of());
+        base.setPageRefs(List.of("main-hash", "main-hash"));
+        CollectionEntity next = entity(List.of(main, page("list", "Список")));
+        when(collectionRepository.countByBaseHistoryId(base.getHistoryId())).thenReturn(0L);
+        when(pageRepository.findAllById(Set.of("main-hash")))
+                .thenReturn(List.of(new CollectionPageEntity("main-hash", main, 1)));
+
+        CollectionEntity encoded = codec.encode(base, next);
+        when(collectionRepository.findById(base.getHistoryId())).thenReturn(Optional.of(base));
+
+        assertEquals(next.getPages(), codec.materialize(encoded).getPages());
+    }
+
+    @Test
+    void testEncodeFromDeltaUsesSameCheckpoint() {
+        CollectionEntity base = entity(List.of(page("main", "Главная")));
+        CollectionEntity second = entity(List.of(page("main", "Главная 2")));
+        CollectionEntity third = entity(List.of(page("main", "Главная 3")));
+        when(collectionRepository.countByBaseHistoryId(base.getHistoryId())).thenReturn(0L, 1L);
+        when(collectionRepository.findById(base.getHistoryId())).thenReturn(Optional.of(base));
+
+        CollectionEntity encodedSecond = codec.encode(base, second);
+        CollectionEntity encodedThird = codec.encode(encodedSecond, third);
+
+        assertEquals(base.getHistoryId(), encodedThird.getBaseHistoryId());
+        assertEquals(third.getPages(), codec.materialize(encodedThird).getPages());
+    }
+
+    @Test
+    void testEncodeCreatesCheckpoint() {
+        CollectionEntity base = entity(List.of(page("main", "Главная")));
+        CollectionEntity next = entity(List.of(page("main", "Главная 2")));
+        when(collectionRepository.countByBaseHistoryId(base.getHistoryId())).thenReturn(2L);
+
+        CollectionEntity encoded = codec.encode(base, next);
+
+        assertSame(next, encoded);
+        assertEquals(CollectionStorageType.FULL, encoded.getStorageType());
+    }
+
+    @Test
+    void testMaterializeFullEntity() {
+        CollectionEntity full = entity(List.of(page("main", "Главная")));
+
+        assertSame(full, codec.materialize(full));
+    }
+
+    @Test
+    void testMaterializeBaseNotFound() {
+        CollectionEntity delta = entity(new ArrayList<>());
+        delta.setStorageType(CollectionStorageType.DELTA);
+        delta.setBaseHistoryId(UUID.randomUUID());
+        delta.setDelta(new ArrayList<>());
+        when(collectionRepository.findById(delta.getBaseHistoryId())).thenReturn(Optional.empty());
+
+        assertThrows(ApplicationException.class, () -> codec.materialize(delta));
+    }
+
+    private CollectionEntity entity(List<Map<String, Object>> pages) {
+        return CollectionEntity.builder()
+                .historyId(UUID.randomUUID())
+                .collectionId(collectionId)
+                .creationDate(LocalDateTime.now())
+                .isCurrent(true)
+                .userId("testUser")
+                .title("Test Collection")
+                .pages(new ArrayList<>(pages))
+                .mocks(new ArrayList<>())
+                .config(new HashMap<>())
+                .build();
+    }
+
+    private Map<String, Object> page(String name, String title) {
+        Map<String, Object> page = new HashMap<>();
+        page.put("name", name);
+        page.put("title", title);
+        return page;
+    }
+}
@@ -0,0 +1,185 @@
+package ru.axenix.smartax.dui.service.application.collection.history;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionPageEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionPageRepository;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionStorageType;
+import ru.axenix.smartax.dui.service.configuration.properties.CollectionHistoryProperties;
+import ru.axenix.smartax.dui.service.error.ApplicationException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionPageStoreTest {
+
+    @Mock
+    private CollectionPageRepository pageRepository;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final CollectionContentHasher contentHasher = new CollectionContentHasher(objectMapper);
+    private CollectionHistoryProperties properties;
+    private CollectionPageStore pageStore;
+
+    @BeforeEach
+    void setUp() {
+        properties = new CollectionHistoryProperties();
+        properties.setPageStore(true);
+        pageStore = new CollectionPageStore(pageRepository, contentHasher, properties, objectMapper);
+    }
+
+    @Test
+    void testStoreCountsDuplicatePages() throws Exception {
+        Map<String, Object> main = Map.of("name", "main");
+        Map<String, Object> list = Map.of("name", "list");
+
+        List<String> refs = pageStore.store(List.of(main, list, main));
+
+        String mainHash = contentHasher.hashPage(main);
+        String listHash = contentHasher.hashPage(list);
+        assertEquals(List.of(mainHash, listHash, mainHash), refs);
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(pageRepository).acquire(captor.capture());
+        JsonNode rows = objectMapper.readTree(captor.getValue());
+        assertEquals(2, rows.size());
+        for (JsonNode row : rows) {
+            boolean isMain = mainHash.equals(row.get("hash").asText());
+            assertEquals(isMain ? 2 : 1, row.get("refs").asInt());
+            assertEquals(isMain ? "main" : "list", row.get("content").get("name").asText());
+        }
+        assertTrue(rows.get(0).get("hash").asText().compareTo(rows.get(1).get("hash").asText()) < 0);
+    }
+
+    @Test
+    void testStoreEmptyPages() {
+        assertTrue(pageStore.store(List.of()).isEmpty());
+        verifyNoInteractions(pageRepository);
+    }
+
+    @Test
+    void testExternalize() {
+        CollectionEntity entity = CollectionEntity.builder()
+                .pages(new ArrayList<>(List.of(Map.of("name", "main"))))
+                .build();
+
+        assertSame(entity, pageStore.externalize(entity));
+        assertTrue(entity.getPages().isEmpty());
+        assertEquals(List.of(contentHasher.hashPage(Map.of("name", "main"))), entity.getPageRefs());
+    }
+
+    @Test
+    void testExternalizeAllAcquiresOnce() throws Exception {
+        CollectionEntity first = CollectionEntity.builder()
+                .pages(new ArrayList<>(List.of(Map.of("name", "main"), Map.of("name", "list"))))
+                .build();
+        CollectionEntity second = CollectionEntity.builder()
+                .pages(new ArrayList<>(List.of(Map.of("name", "main"))))
+                .build();
+        CollectionEntity delta = CollectionEntity.builder()
+                .storageType(CollectionStorageType.DELTA)
+                .pages(new ArrayList<>(List.of(Map.of("name", "delta"))))
+                .build();
+
+        pageStore.externalizeAll(List.of(first, second, delta));
+
+        String mainHash = contentHasher.hashPage(Map.of("name", "main"));
+        assertEquals(List.of(mainHash, contentHasher.hashPage(Map.of("name", "list"))), first.getPageRefs());
+        assertEquals(List.of(mainHash), second.getPageRefs());
+        assertTrue(first.getPages().isEmpty());
+        assertTrue(delta.getPageRefs().isEmpty());
+        assertFalse(delta.getPages().isEmpty());
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(pageRepository).acquire(captor.capture());
+        JsonNode rows = objectMapper.readTree(captor.getValue());
+        assertEquals(2, rows.size());
+        for (JsonNode row : rows) {
+            assertEquals(mainHash.equals(row.get("hash").asText()) ? 2 : 1, row.get("refs").asInt());
+        }
+    }
+
+    @Test
+    void testExternalizeSkipsDeltaAndDisabled() {
+        CollectionEntity delta = CollectionEntity.builder()
+                .storageType(CollectionStorageType.DELTA)
+                .build();
+        pageStore.externalize(delta);
+
+        properties.setPageStore(false);
+        CollectionEntity full = CollectionEntity.builder()
+                .pages(new ArrayList<>(List.of(Map.of("name", "main"))))
+                .build();
+        pageStore.externalize(full);
+
+        assertTrue(delta.getPageRefs().isEmpty());
+        assertTrue(full.getPageRefs().isEmpty());
+        assertFalse(full.getPages().isEmpty());
+        verifyNoInteractions(pageRepository);
+    }
+
+    @Test
+    void testRelease() throws Exception {
+        pageStore.release(List.of("b", "a", "b"));
+
+        ArgumentCaptor<String> captor = ArgumentCaptor.forClass(String.class);
+        verify(pageRepository).release(captor.capture());
+        assertEquals(objectMapper.readTree("[{\"hash\":\"a\",\"refs\":1},{\"hash\":\"b\",\"refs\":2}]"),
+                objectMapper.readTree(captor.getValue()));
+        verifyNoMoreInteractions(pageRepository);
+    }
+
+    @Test
+    void testPagesFromStore() {
+        CollectionEntity entity = CollectionEntity.builder()
+                .pageRefs(List.of("b", "a", "b"))
+                .build();
+        when(pageRepository.findAllById(Set.of("a", "b"))).thenReturn(List.of(
+                new CollectionPageEntity("a", Map.of("name", "a"), 1),
+                new CollectionPageEntity("b", Map.of("name", "b"), 2)
+        ));
+
+        assertEquals(List.of(Map.of("name", "b"), Map.of("name", "a"), Map.of("name", "b")),
+                pageStore.pages(entity));
+    }
+
+    @Test
+    void testPagesInline() {
+        CollectionEntity entity = CollectionEntity.builder()
+                .pages(List.of(Map.of("name", "main")))
+                .build();
+
+        assertSame(entity.getPages(), pageStore.pages(entity));
+        verifyNoInteractions(pageRepository);
+    }
+
+    @Test
+    void testPagesMissingInStore() {
+        CollectionEntity entity = CollectionEntity.builder()
+                .pageRefs(List.of("a"))
+                .build();
+        when(pageRepository.findAllById(Set.of("a"))).thenReturn(List.of());
+
+        assertThrows(ApplicationException.class, () -> pageStore.pages(entity));
+    }
+}
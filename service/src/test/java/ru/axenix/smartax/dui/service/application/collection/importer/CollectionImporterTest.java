@@ -0,0 +1,168 @@
+package ru.axenix.smartax.dui.service.application.collection.importer;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionPageRepository;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionRepository;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionContentHasher;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionPageStore;
+import ru.axenix.smartax.dui.service.application.collection.mapper.CollectionMapper;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionShortDto;
+import ru.axenix.smartax.dui.service.configuration.properties.CollectionHistoryProperties;
+import ru.axenix.smartax.dui.service.error.ApplicationException;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class CollectionImporterTest {
+
+    private static final String USER_ID = "testUser";
+
+    @Mock
+    private CollectionRepository collectionRepository;
+
+    @Mock
+    private CollectionMapper collectionMapper;
+
+    @Mock
+    private CollectionPageRepository pageRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private CollectionHistoryProperties properties;
+    private CollectionImporter importer;
+
+    @BeforeEach
+    void setUp() {
+        CollectionContentHasher contentHasher = new CollectionContentHasher(new ObjectMapper());
+        properties = new CollectionHistoryProperties();
+        CollectionPageStore pageStore = new CollectionPageStore(pageRepository, contentHasher,
+                properties, new ObjectMapper());
+        importer = new CollectionImporter(collectionRepository, collectionMapper,
+                contentHasher, pageStore, entityManager, new ObjectMapper(), 2);
+    }
+
+    @Test
+    void testImportJsonNdjsonAndZip() throws Exception {
+        when(collectionMapper.toEntity(any(CollectionDto.class), any(UUID.class), isNull(), eq(USER_ID)))
+                .thenAnswer(invocation -> CollectionEntity.builder()
+                        .collectionId(UUID.randomUUID())
+                        .title(((CollectionDto) invocation.getArgument(0)).getTitle())
+                        .creationDate(LocalDateTime.now())
+                        .build());
+        when(collectionRepository.findExistingTitles(USER_ID, Set.of("A", "B", "C", "D", "E")))
+                .thenReturn(List.of());
+
+        List<CollectionShortDto> result = importer.importCollections(USER_ID, List.of(
+                json("a.json", "{\"title\":\"A\",\"pages\":[{\"name\":\"main\"}]}"),
+                json("bc.ndjson", "{\"title\":\"B\"}\n{\"title\":\"C\"}\n"),
+                zip("bundle.zip", "[{\"title\":\"D\"},{\"title\":\"E\"}]")
+        ));
+
+        assertEquals(List.of("A", "B", "C", "D", "E"), result.stream().map(CollectionShortDto::getTitle).toList());
+        verify(entityManager, times(5)).persist(any(CollectionEntity.class));
+        verify(entityManager, times(3)).flush();
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void testImportPageStoreAcquiresPagesPerBatch() throws Exception {
+        properties.setPageStore(true);
+        when(collectionMapper.toEntity(any(CollectionDto.class), any(UUID.class), isNull(), eq(USER_ID)))
+                .thenAnswer(invocation -> CollectionEntity.builder()
+                        .collectionId(UUID.randomUUID())
+                        .title(((CollectionDto) invocation.getArgument(0)).getTitle())
+                        .pages(((CollectionDto) invocation.getArgument(0)).getPages())
+                        .creationDate(LocalDateTime.now())
+                        .build());
+        when(collectionRepository.findExistingTitles(USER_ID, Set.of("A", "B", "C"))).thenReturn(List.of());
+
+        importer.importCollections(USER_ID, List.of(json("abc.ndjson", """
+                {"title":"A","pages":[{"name":"main"}]}
+                {"title":"B","pages":[{"name":"main"}]}
+                {"title":"C","pages":[{"name":"list"}]}
+                """)));
+
+        InOrder inOrder = inOrder(pageRepository, entityManager);
+        inOrder.verify(pageRepository).acquire(anyString());
+        inOrder.verify(entityManager, times(2)).persist(any(CollectionEntity.class));
+        inOrder.verify(entityManager).flush();
+        inOrder.verify(pageRepository).acquire(anyString());
+        inOrder.verify(entityManager).persist(any(CollectionEntity.class));
+        inOrder.verify(entityManager).flush();
+        verify(pageRepository, times(2)).acquire(anyString());
+    }
+
+    @Test
+    void testImportDuplicateTitleInFiles() {
+        assertThrows(ApplicationException.class, () -> importer.importCollections(USER_ID, List.of(
+                json("a.json", "{\"title\":\"A\"}"),
+                json("b.json", "{\"title\":\"A\"}")
+        )));
+
+        verify(collectionRepository, never()).findExistingTitles(anyString(), any());
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void testImportExistingTitle() {
+        when(collectionRepository.findExistingTitles(USER_ID, Set.of("A"))).thenReturn(List.of("A"));
+
+        assertThrows(ApplicationException.class,
+                () -> importer.importCollections(USER_ID, List.of(json("a.json", "{\"title\":\"A\"}"))));
+
+        verify(entityManager, never()).persist(any());
+    }
+
+    @Test
+    void testImportInvalidFile() {
+        assertThrows(ApplicationException.class,
+                () -> importer.importCollections(USER_ID, List.of(json("a.json", "{\"title\":"))));
+    }
+
+    private static MockMultipartFile json(String filename, String content) {
+        return new MockMultipartFile("files", filename, "application/json", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static MockMultipartFile zip(String filename, String content) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("collections.json"));
+            zip.write(content.getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            zip.putNextEntry(new ZipEntry("readme.txt"));
+            zip.write("skip".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+        }
+        return new MockMultipartFile("files", filename, "application/zip", out.toByteArray());
+    }
+}
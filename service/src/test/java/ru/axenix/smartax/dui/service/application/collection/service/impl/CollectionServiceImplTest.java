@@ -1,44 +1,72 @@
 package ru.axenix.smartax.dui.service.application.collection.service.impl;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.ObjectWriter;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.multipart.MultipartFile;
 import ru.axenix.smartax.dui.service.application.collection.domain.CollectionEntity;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionHistoryProjection;
 import ru.axenix.smartax.dui.service.application.collection.domain.CollectionRepository;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionShortProjection;
+import ru.axenix.smartax.dui.service.application.collection.export.CollectionExportWriter;
+import ru.axenix.smartax.dui.service.application.collection.domain.CollectionVersionProjection;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionContentHasher;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionHistoryCodec;
+import ru.axenix.smartax.dui.service.application.collection.history.CollectionPageStore;
+import ru.axenix.smartax.dui.service.application.collection.importer.CollectionImporter;
 import ru.axenix.smartax.dui.service.application.collection.mapper.CollectionMapper;
 import ru.axenix.smartax.dui.service.error.ApplicationException;
+import ru.axenix.smartax.dui.service.error.ErrorDescription;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionHistoryDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionShortDto;
-import ru.axenix.smartax.dui.service.application.template.model.FileDto;
-
+import ru.axenix.smartax.dui.service.application.collection.model.CollectionStorageType;
+import ru.axenix.smartax.dui.service.application.template.model.StreamingFileDto;
+import ru.axenix.smartax.dui.service.configuration.properties.CollectionHistoryProperties;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
+import ru.axenix.smartax.dui.service.model.table.TableResponse;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.TreeMap;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,10 +76,28 @@ class CollectionServiceImplTest {
     private CollectionRepository collectionRepository;
 
     @Mock
-    private ObjectMapper objectMapper;
+    private CollectionMapper collectionMapper;
 
     @Mock
-    private CollectionMapper collectionMapper;
+    private CollectionHistoryCodec historyCodec;
+
+    @Mock
+    private CollectionExportWriter exportWriter;
+
+    @Mock
+    private CollectionImporter collectionImporter;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
+    @Spy
+    private CollectionHistoryProperties historyProperties = new CollectionHistoryProperties();
+
+    @Spy
+    private CollectionContentHasher contentHasher = new CollectionContentHasher(new ObjectMapper());
+
+    @Mock
+    private CollectionPageStore pageStore;
 
     @InjectMocks
     private CollectionServiceImpl collectionService;
@@ -76,21 +122,48 @@ class CollectionServiceImplTest {
         collectionDto = new CollectionDto();
         collectionDto.setUuid(collectionId);
         collectionDto.setTitle("Test Collection");
+
+        lenient().when(pageStore.externalize(any())).thenAnswer(invocation -> invocation.getArgument(0));
     }
 
     @Test
     void testGetAllCollections() {
-        when(collectionRepository.findAllByUserIdAndIsCurrentTrue(userId))
-                .thenReturn(Collections.singletonList(collectionEntity));
-        CollectionShortDto shortDto = new CollectionShortDto(collectionId, "Test Collection");
-        when(collectionMapper.toShortDtoList(any())).thenReturn(Collections.singletonList(shortDto));
+        CollectionShortProjection projection = mock(CollectionShortProjection.class);
+        when(collectionRepository.findShortPage(eq(userId), eq("%"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(projection), PageRequest.of(0, 50), 1));
+        CollectionShortDto shortDto = new CollectionShortDto(collectionId, "Test Collection", LocalDateTime.now());
+        when(collectionMapper.toShortDto(projection)).thenReturn(shortDto);
+        when(collectionMapper.toShortRecord(shortDto)).thenReturn(Map.of("title", "Test Collection"));
 
-        List<CollectionShortDto> result = collectionService.getAllCollections(userId);
+        TableResponse result = collectionService.getAllCollections(userId, null);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        assertEquals("Test Collection", result.get(0).getTitle());
-        verify(collectionRepository).findAllByUserIdAndIsCurrentTrue(userId);
+        assertEquals(1, result.getTotal());
+        assertEquals("Test Collection", result.getRecords().get(0).get("title"));
+        verify(collectionRepository).findShortPage(eq(userId), eq("%"), any(Pageable.class));
+    }
+
+    @Test
+    void testGetAllCollectionsWithTableRequest() {
+        TableRequest request = TableRequest.builder()
+                .quickSearch(" Test ")
+                .sort(List.of(Map.of("name", "title", "direction", "desc"), Map.of("name", "pages")))
+                .pager(new TableRequest.Pager(3, 20))
+                .build();
+        when(collectionRepository.findShortPage(eq(userId), eq("%test%"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(), PageRequest.of(2, 20), 45));
+
+        TableResponse result = collectionService.getAllCollections(userId, request);
+
+        assertEquals(45, result.getTotal());
+        assertTrue(result.getRecords().isEmpty());
+
+        ArgumentCaptor<Pageable> captor = ArgumentCaptor.forClass(Pageable.class);
+        verify(collectionRepository).findShortPage(eq(userId), eq("%test%"), captor.capture());
+        Pageable pageable = captor.getValue();
+        assertEquals(2, pageable.getPageNumber());
+        assertEquals(20, pageable.getPageSize());
+        assertEquals(Sort.by(Sort.Order.desc("title"), Sort.Order.asc("collectionId")), pageable.getSort());
     }
 
     @Test
@@ -116,55 +189,75 @@ class CollectionServiceImplTest {
 
     @Test
     void testExportCollection() throws Exception {
-        when(collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionId))
-                .thenReturn(Optional.of(collectionEntity));
-        when(collectionMapper.toDto(collectionEntity)).thenReturn(collectionDto);
-        ObjectWriter objectWriter = mock(ObjectWriter.class);
-        when(objectMapper.writer()).thenReturn(objectWriter);
-        when(objectWriter.withDefaultPrettyPrinter()).thenReturn(objectWriter);
-        String json = "{\"uuid\":\"" + collectionId + "\",\"title\":\"Test Collection\"}";
-        when(objectWriter.writeValueAsString(collectionDto)).thenReturn(json);
+        UUID historyId = collectionEntity.getHistoryId();
+        when(collectionRepository.findCurrentHistoryId(collectionId)).thenReturn(Optional.of(historyId));
 
-        FileDto result = collectionService.exportCollection(collectionId);
+        StreamingFileDto result = collectionService.exportCollection(collectionId, true);
 
         assertNotNull(result);
-        assertEquals(collectionEntity.getHistoryId().toString(), result.getFilename());
-        assertTrue(result.getFile() instanceof InputStreamResource);
-        verify(collectionRepository).findByCollectionIdAndIsCurrentTrue(collectionId);
+        assertEquals(historyId.toString(), result.getFilename());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        result.getBody().writeTo(out);
+        verify(exportWriter).write(historyId, out, true);
+        verify(collectionRepository, never()).findByCollectionIdAndIsCurrentTrue(any());
     }
 
     @Test
     void testExportCollectionNotFound() {
-        when(collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionId))
-                .thenReturn(Optional.empty());
-        assertThrows(ApplicationException.class, () -> collectionService.exportCollection(collectionId));
+        when(collectionRepository.findCurrentHistoryId(collectionId)).thenReturn(Optional.empty());
+        assertThrows(ApplicationException.class, () -> collectionService.exportCollection(collectionId, true));
     }
 
     @Test
     void testExportCollectionError() throws Exception {
-        when(collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionId))
-                .thenReturn(Optional.of(collectionEntity));
-        when(collectionMapper.toDto(collectionEntity)).thenReturn(collectionDto);
-        ObjectWriter objectWriter = mock(ObjectWriter.class);
-        when(objectMapper.writer()).thenReturn(objectWriter);
-        when(objectWriter.withDefaultPrettyPrinter()).thenReturn(objectWriter);
-        when(objectWriter.writeValueAsString(collectionDto)).thenThrow(JsonProcessingException.class);
+        UUID historyId = collectionEntity.getHistoryId();
+        when(collectionRepository.findCurrentHistoryId(collectionId)).thenReturn(Optional.of(historyId));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        doThrow(new IOException("closed")).when(exportWriter).write(historyId, out, false);
+
+        StreamingFileDto result = collectionService.exportCollection(collectionId, false);
 
-        assertThrows(ApplicationException.class, () -> collectionService.exportCollection(collectionId));
+        assertThrows(IOException.class, () -> result.getBody().writeTo(out));
     }
 
     @Test
     void testGetCollectionHistory() {
-        when(collectionRepository.findAllByCollectionIdOrderByCreationDateAsc(collectionId))
-                .thenReturn(Collections.singletonList(collectionEntity));
+        CollectionHistoryProjection projection = mock(CollectionHistoryProjection.class);
+        when(collectionRepository.findHistoryPage(eq(collectionId), eq("%"), eq(false), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(projection), PageRequest.of(0, 50), 1));
+        CollectionHistoryDto historyDto = new CollectionHistoryDto();
+        when(collectionMapper.toHistoryMetaDto(projection)).thenReturn(historyDto);
+        when(collectionMapper.toHistoryRecord(historyDto)).thenReturn(Map.of());
+
+        TableResponse result = collectionService.getCollectionHistory(collectionId, null, false);
+
+        assertNotNull(result);
+        assertEquals(1, result.getTotal());
+        assertEquals(1, result.getRecords().size());
+        verify(collectionRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void testGetCollectionHistoryWithContent() {
+        CollectionHistoryProjection projection = mock(CollectionHistoryProjection.class);
+        when(projection.getHistoryId()).thenReturn(collectionEntity.getHistoryId());
+        TableRequest request = TableRequest.builder()
+                .filter(List.of(Map.of("name", "isCurrent", "value", true)))
+                .build();
+        when(collectionRepository.findHistoryPage(eq(collectionId), eq("%"), eq(true), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(projection), PageRequest.of(0, 50), 1));
+        when(collectionRepository.findAllById(List.of(collectionEntity.getHistoryId())))
+                .thenReturn(List.of(collectionEntity));
         CollectionHistoryDto historyDto = new CollectionHistoryDto();
-        when(collectionMapper.toHistoryDtoList(any())).thenReturn(Collections.singletonList(historyDto));
+        when(collectionMapper.toHistoryDto(collectionEntity)).thenReturn(historyDto);
+        when(collectionMapper.toHistoryRecord(historyDto)).thenReturn(Map.of());
 
-        List<CollectionHistoryDto> result = collectionService.getCollectionHistory(collectionId);
+        TableResponse result = collectionService.getCollectionHistory(collectionId, request, true);
 
         assertNotNull(result);
-        assertEquals(1, result.size());
-        verify(collectionRepository).findAllByCollectionIdOrderByCreationDateAsc(collectionId);
+        assertEquals(1, result.getRecords().size());
+        verify(collectionMapper).toHistoryDto(collectionEntity);
+        verify(collectionMapper, never()).toHistoryMetaDto(any());
     }
 
     @Test
@@ -235,58 +328,175 @@ class CollectionServiceImplTest {
 
     @Test
     void testEditCollection() {
-        collectionEntity.setUserId(userId);
-        when(collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionId))
-                .thenReturn(Optional.of(collectionEntity));
-
-        when(collectionRepository.existsByTitleAndUserIdAndCollectionIdIsNot(
-                collectionDto.getTitle(),
-                userId,
-                collectionId)
-        ).thenReturn(false);
+        collectionDto.setHistoryUuid(collectionEntity.getHistoryId());
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
 
         CollectionEntity newEntity = new CollectionEntity();
+        newEntity.setHistoryId(UUID.randomUUID());
         newEntity.setCollectionId(collectionId);
-        newEntity.setUserId(userId);
+        newEntity.setCreationDate(LocalDateTime.now());
+        newEntity.setIsCurrent(true);
         newEntity.setTitle("New Title");
+        newEntity.setPages(List.of(Map.of("name", "main")));
+        newEntity.setConfig(Map.of("theme", "dark"));
 
-        when(collectionMapper.toEntity(
-                eq(collectionDto),
-                any(UUID.class),
-                eq(collectionId),
-                eq(userId)
-        )).thenReturn(newEntity);
+        when(collectionMapper.toEntity(eq(collectionDto), any(UUID.class), eq(collectionId), isNull()))
+                .thenReturn(newEntity);
+        when(collectionRepository.replaceCurrent(
+                newEntity.getHistoryId(),
+                collectionId,
+                newEntity.getCreationDate(),
+                "New Title",
+                "[{\"name\":\"main\"}]",
+                "[]",
+                "[]",
+                "{\"theme\":\"dark\"}",
+                false,
+                contentHasher.hash(collectionDto)
+        )).thenReturn(Optional.of(userId));
+        when(collectionMapper.toDto(newEntity)).thenReturn(collectionDto);
 
-        when(collectionRepository.save(any(CollectionEntity.class)))
-                .thenReturn(collectionEntity)
+        CollectionDto result = collectionService.editCollection(collectionId, collectionDto);
+
+        assertEquals(collectionDto, result);
+        assertEquals(userId, newEntity.getUserId());
+        verify(collectionRepository, never()).findByCollectionIdAndIsCurrentTrue(any());
+        verify(collectionRepository, never()).save(any(CollectionEntity.class));
+    }
+
+    @Test
+    void testEditCollectionPageStore() {
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+
+        CollectionEntity newEntity = new CollectionEntity();
+        newEntity.setHistoryId(UUID.randomUUID());
+        newEntity.setPages(List.of(Map.of("name", "main")));
+        when(collectionMapper.toEntity(eq(collectionDto), any(UUID.class), eq(collectionId), isNull()))
                 .thenReturn(newEntity);
+        when(pageStore.isEnabled()).thenReturn(true);
+        when(pageStore.store(newEntity.getPages())).thenReturn(List.of("hash"));
+        when(collectionRepository.replaceCurrent(any(), eq(collectionId), any(), any(),
+                eq("[]"), eq("[\"hash\"]"), any(), any(), eq(false), any()))
+                .thenReturn(Optional.of(userId));
+        when(collectionMapper.toDto(newEntity)).thenReturn(collectionDto);
+
+        CollectionDto result = collectionService.editCollection(collectionId, collectionDto);
+
+        assertEquals(collectionDto, result);
+        assertEquals(List.of(Map.of("name", "main")), newEntity.getPages());
+    }
+
+    @Test
+    void testEditCollectionDeltaMode() {
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+        when(collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionId))
+                .thenReturn(Optional.of(collectionEntity));
+        when(collectionRepository.existsByTitleAndUserIdAndCollectionIdIsNot(
+                collectionDto.getTitle(), userId, collectionId)).thenReturn(false);
+
+        CollectionEntity newEntity = new CollectionEntity();
+        newEntity.setCollectionId(collectionId);
+        CollectionEntity deltaEntity = new CollectionEntity();
+        deltaEntity.setStorageType(CollectionStorageType.DELTA);
 
+        when(collectionMapper.toEntity(eq(collectionDto), any(UUID.class), eq(collectionId), eq(userId)))
+                .thenReturn(newEntity);
+        when(historyCodec.isDeltaEnabled()).thenReturn(true);
+        when(historyCodec.encode(collectionEntity, newEntity)).thenReturn(deltaEntity);
+        when(collectionRepository.save(deltaEntity)).thenReturn(deltaEntity);
         when(collectionMapper.toDto(newEntity)).thenReturn(collectionDto);
 
         CollectionDto result = collectionService.editCollection(collectionId, collectionDto);
 
-        assertNotNull(result);
-        assertNull(collectionEntity.getIsCurrent());
-        verify(collectionRepository, times(2)).save(any(CollectionEntity.class));
-        verify(collectionMapper).toEntity(eq(collectionDto), any(UUID.class), eq(collectionId), eq(userId));
+        assertEquals(collectionDto, result);
+        verify(collectionRepository).clearCurrent(collectionId);
+        verify(collectionRepository).save(deltaEntity);
+        verify(historyCodec).encode(collectionEntity, newEntity);
     }
 
+    @Test
+    void testGetCollectionByHistoryUUIDDelta() {
+        UUID historyId = collectionEntity.getHistoryId();
+        collectionEntity.setStorageType(CollectionStorageType.DELTA);
+        CollectionEntity restored = new CollectionEntity();
+        when(collectionRepository.findById(historyId)).thenReturn(Optional.of(collectionEntity));
+        when(historyCodec.materialize(collectionEntity)).thenReturn(restored);
+        when(collectionMapper.toDto(restored)).thenReturn(collectionDto);
+
+        CollectionDto result = collectionService.getCollectionByHistoryUUID(historyId);
+
+        assertEquals(collectionDto, result);
+        verify(historyCodec).materialize(collectionEntity);
+    }
 
     @Test
     void testEditCollectionNotFound() {
-        when(collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionId)).thenReturn(Optional.empty());
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.empty());
 
         assertThrows(ApplicationException.class, () -> collectionService.editCollection(collectionId, collectionDto));
+        verify(collectionRepository, never()).replaceCurrent(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any());
         verify(collectionRepository, never()).save(any(CollectionEntity.class));
     }
 
+    @Test
+    void testEditCollectionLocked() {
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(false);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> collectionService.editCollection(collectionId, collectionDto));
+        assertEquals(ErrorDescription.COLLECTION_EDIT_CONFLICT.createApplicationError().getCode(),
+                exception.getError().getCode());
+        verify(collectionRepository, never()).findCurrentVersion(any());
+        verifyNoInteractions(collectionMapper, objectMapper, contentHasher);
+    }
+
+    @Test
+    void testEditCollectionStaleVersion() {
+        collectionDto.setHistoryUuid(UUID.randomUUID());
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> collectionService.editCollection(collectionId, collectionDto));
+        assertEquals(ErrorDescription.COLLECTION_EDIT_CONFLICT.createApplicationError().getCode(),
+                exception.getError().getCode());
+        verify(collectionRepository, never()).replaceCurrent(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any());
+        verifyNoInteractions(collectionMapper, objectMapper, contentHasher);
+    }
+
     @Test
     void testEditCollectionWithDuplicateTitle() {
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+        when(collectionMapper.toEntity(eq(collectionDto), any(UUID.class), eq(collectionId), isNull()))
+                .thenReturn(new CollectionEntity());
+        when(collectionRepository.replaceCurrent(any(), eq(collectionId), any(), any(), any(), any(), any(), any(), eq(false), any()))
+                .thenReturn(Optional.empty());
+        when(collectionRepository.findCurrentUserId(collectionId)).thenReturn(Optional.of(userId));
+        when(collectionRepository.existsByTitleAndUserIdAndCollectionIdIsNot(collectionDto.getTitle(), userId, collectionId))
+                .thenReturn(true);
+
+        ApplicationException exception = assertThrows(ApplicationException.class,
+                () -> collectionService.editCollection(collectionId, collectionDto));
+        assertEquals(ErrorDescription.COLLECTION_TITLE_ALREADY_EXISTS.createApplicationError().getCode(),
+                exception.getError().getCode());
+    }
+
+    @Test
+    void testEditCollectionDeltaModeWithDuplicateTitle() {
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+        when(historyCodec.isDeltaEnabled()).thenReturn(true);
         when(collectionRepository.findByCollectionIdAndIsCurrentTrue(collectionId)).thenReturn(Optional.of(collectionEntity));
         when(collectionRepository.existsByTitleAndUserIdAndCollectionIdIsNot(collectionDto.getTitle(), userId, collectionId))
                 .thenReturn(true);
 
         assertThrows(ApplicationException.class, () -> collectionService.editCollection(collectionId, collectionDto));
+        verify(collectionRepository, never()).clearCurrent(any());
         verify(collectionRepository, never()).save(any(CollectionEntity.class));
     }
 
@@ -297,6 +507,17 @@ class CollectionServiceImplTest {
         verify(collectionRepository).removeAllByCollectionId(collectionId);
     }
 
+    @Test
+    void testDeleteCollectionReleasesPages() {
+        List<String> pageRefs = List.of("a", "b", "a");
+        when(collectionRepository.findPageRefs(collectionId)).thenReturn(pageRefs);
+
+        collectionService.deleteCollection(collectionId);
+
+        verify(pageStore).release(pageRefs);
+        verify(collectionRepository).removeAllByCollectionId(collectionId);
+    }
+
     @Test
     void testExistsCollection() {
         when(collectionRepository.existsByCollectionId(collectionId)).thenReturn(true);
@@ -309,4 +530,265 @@ class CollectionServiceImplTest {
         when(collectionRepository.existsByCollectionId(collectionId)).thenReturn(false);
         assertThrows(ApplicationException.class, () -> collectionService.existsCollection(collectionId));
     }
+
+    @Test
+    void testImportCollections() {
+        List<MultipartFile> files = List.of(new MockMultipartFile("files", "a.json", "application/json", new byte[0]));
+        List<CollectionShortDto> expected = List.of(new CollectionShortDto(collectionId, "A", LocalDateTime.now()));
+        when(collectionImporter.importCollections(userId, files)).thenReturn(expected);
+
+        List<CollectionShortDto> result = collectionService.importCollections(userId, files);
+
+        assertEquals(expected, result);
+    }
+
+    @Test
+    void testAutosaveCollectionUpdatesDraft() {
+        collectionEntity.setDraft(true);
+        collectionEntity.setPages(List.of(Map.of("name", "old")));
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+        when(collectionRepository.findCurrentDraft(eq(collectionId), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(collectionEntity));
+
+        CollectionEntity next = new CollectionEntity();
+        next.setHistoryId(collectionEntity.getHistoryId());
+        next.setCollectionId(collectionId);
+        next.setCreationDate(LocalDateTime.now());
+        next.setTitle("Draft Title");
+        next.setPages(List.of(Map.of("name", "new")));
+        when(collectionMapper.toEntity(collectionDto, collectionEntity.getHistoryId(), collectionId, userId))
+                .thenReturn(next);
+        when(collectionMapper.toDto(next)).thenReturn(collectionDto);
+
+        CollectionDto result = collectionService.autosaveCollection(collectionId, collectionDto);
+
+        assertEquals(collectionDto, result);
+        assertTrue(next.isDraft());
+        assertEquals("Draft Title", collectionEntity.getTitle());
+        assertEquals(List.of(Map.of("name", "new")), collectionEntity.getPages());
+        assertEquals(next.getCreationDate(), collectionEntity.getCreationDate());
+        verify(collectionRepository).save(collectionEntity);
+        verify(collectionRepository, never()).replaceCurrent(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any());
+    }
+
+    @Test
+    void testCollectionHistoryETagChangesOnAutosave() {
+        UUID historyId = collectionEntity.getHistoryId();
+        collectionEntity.setDraft(true);
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, true)));
+        when(collectionRepository.findCurrentDraft(eq(collectionId), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(collectionEntity));
+        when(collectionMapper.toEntity(collectionDto, historyId, collectionId, userId))
+                .thenAnswer(invocation -> CollectionEntity.builder()
+                        .historyId(historyId)
+                        .collectionId(collectionId)
+                        .userId(userId)
+                        .title(collectionDto.getTitle())
+                        .creationDate(LocalDateTime.now())
+                        .pages(collectionDto.getPages())
+                        .build());
+        when(collectionMapper.toDto(any(CollectionEntity.class))).thenReturn(collectionDto);
+
+        collectionDto.setPages(List.of(Map.of("name", "first")));
+        collectionService.autosaveCollection(collectionId, collectionDto);
+        when(collectionRepository.findVersion(historyId)).thenReturn(Optional.of(storedVersion()));
+        String first = collectionService.getCollectionHistoryETag(historyId);
+
+        collectionDto.setPages(List.of(Map.of("name", "second")));
+        collectionService.autosaveCollection(collectionId, collectionDto);
+        when(collectionRepository.findVersion(historyId)).thenReturn(Optional.of(storedVersion()));
+        String second = collectionService.getCollectionHistoryETag(historyId);
+
+        assertNotEquals(first, second);
+        verify(collectionRepository, times(2)).save(collectionEntity);
+    }
+
+    @Test
+    void testCollectionHistoryETagOfCommittedRecord() {
+        UUID historyId = collectionEntity.getHistoryId();
+        when(collectionRepository.findVersion(historyId)).thenReturn(Optional.of(version("hash", false)));
+
+        assertEquals("\"" + historyId + "\"", collectionService.getCollectionHistoryETag(historyId));
+    }
+
+    @Test
+    void testCollectionHistoryETagNotFound() {
+        UUID historyId = UUID.randomUUID();
+        when(collectionRepository.findVersion(historyId)).thenReturn(Optional.empty());
+
+        assertThrows(ApplicationException.class, () -> collectionService.getCollectionHistoryETag(historyId));
+    }
+
+    @Test
+    void testAutosaveCollectionReleasesDraftPages() {
+        collectionEntity.setDraft(true);
+        collectionEntity.setPageRefs(List.of("old"));
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+        when(collectionRepository.findCurrentDraft(eq(collectionId), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(collectionEntity));
+
+        CollectionEntity next = new CollectionEntity();
+        next.setPages(List.of(Map.of("name", "new")));
+        when(collectionMapper.toEntity(collectionDto, collectionEntity.getHistoryId(), collectionId, userId))
+                .thenReturn(next);
+        when(collectionMapper.toDto(next)).thenReturn(collectionDto);
+        when(pageStore.externalize(next)).thenAnswer(invocation -> {
+            next.setPageRefs(List.of("new"));
+            next.setPages(List.of());
+            return next;
+        });
+
+        collectionService.autosaveCollection(collectionId, collectionDto);
+
+        assertEquals(List.of("new"), collectionEntity.getPageRefs());
+        assertTrue(collectionEntity.getPages().isEmpty());
+        verify(collectionRepository).save(collectionEntity);
+        verify(pageStore).release(List.of("old"));
+    }
+
+    @Test
+    void testAutosaveCollectionUpdatesDeltaDraft() {
+        collectionEntity.setDraft(true);
+        collectionEntity.setStorageType(CollectionStorageType.DELTA);
+        collectionEntity.setBaseHistoryId(UUID.randomUUID());
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+        when(collectionRepository.findCurrentDraft(eq(collectionId), any(LocalDateTime.class)))
+                .thenReturn(Optional.of(collectionEntity));
+
+        CollectionEntity next = new CollectionEntity();
+        next.setTitle("Draft Title");
+        CollectionEntity encoded = new CollectionEntity();
+        encoded.setStorageType(CollectionStorageType.DELTA);
+        encoded.setBaseHistoryId(collectionEntity.getBaseHistoryId());
+        encoded.setDelta(List.of(Map.of("op", "add")));
+        when(collectionMapper.toEntity(collectionDto, collectionEntity.getHistoryId(), collectionId, userId))
+                .thenReturn(next);
+        when(historyCodec.encode(collectionEntity, next)).thenReturn(encoded);
+        when(collectionMapper.toDto(next)).thenReturn(collectionDto);
+
+        collectionService.autosaveCollection(collectionId, collectionDto);
+
+        assertEquals(CollectionStorageType.DELTA, collectionEntity.getStorageType());
+        assertEquals(List.of(Map.of("op", "add")), collectionEntity.getDelta());
+        verify(collectionRepository).save(collectionEntity);
+    }
+
+    @Test
+    void testAutosaveCollectionCreatesDraft() {
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+        when(collectionRepository.findCurrentDraft(eq(collectionId), any(LocalDateTime.class)))
+                .thenReturn(Optional.empty());
+
+        CollectionEntity newEntity = new CollectionEntity();
+        newEntity.setHistoryId(UUID.randomUUID());
+        when(collectionMapper.toEntity(eq(collectionDto), any(UUID.class), eq(collectionId), isNull()))
+                .thenReturn(newEntity);
+        when(collectionRepository.replaceCurrent(any(), eq(collectionId), any(), any(), any(), any(), any(), any(), eq(true), any()))
+                .thenReturn(Optional.of(userId));
+        when(collectionMapper.toDto(newEntity)).thenReturn(collectionDto);
+
+        CollectionDto result = collectionService.autosaveCollection(collectionId, collectionDto);
+
+        assertEquals(collectionDto, result);
+        assertTrue(newEntity.isDraft());
+        verify(collectionRepository, never()).save(any(CollectionEntity.class));
+    }
+
+    @Test
+    void testAutosaveCollectionWithoutWindow() {
+        historyProperties.setDraftWindow(Duration.ZERO);
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId)).thenReturn(Optional.of(version(null, false)));
+        when(collectionMapper.toEntity(eq(collectionDto), any(UUID.class), eq(collectionId), isNull()))
+                .thenReturn(new CollectionEntity());
+        when(collectionRepository.replaceCurrent(any(), eq(collectionId), any(), any(), any(), any(), any(), any(), eq(true), any()))
+                .thenReturn(Optional.of(userId));
+
+        collectionService.autosaveCollection(collectionId, collectionDto);
+
+        verify(collectionRepository, never()).findCurrentDraft(any(), any());
+    }
+
+    @Test
+    void testCommitCollection() {
+        when(collectionRepository.commitDraft(collectionId)).thenReturn(1);
+
+        assertDoesNotThrow(() -> collectionService.commitCollection(collectionId));
+        verify(collectionRepository, never()).existsByCollectionId(any());
+    }
+
+    @Test
+    void testCommitCollectionNotFound() {
+        when(collectionRepository.commitDraft(collectionId)).thenReturn(0);
+        when(collectionRepository.existsByCollectionId(collectionId)).thenReturn(false);
+
+        assertThrows(ApplicationException.class, () -> collectionService.commitCollection(collectionId));
+    }
+
+    @Test
+    void testEditCollectionUnchanged() {
+        collectionDto.setPages(List.of(Map.of("name", "main", "title", "Главная")));
+        CollectionDto reordered = new CollectionDto();
+        reordered.setPages(List.of(new TreeMap<>(Map.of("title", "Главная", "name", "main"))));
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId))
+                .thenReturn(Optional.of(version(contentHasher.hash(reordered), false)));
+
+        CollectionDto result = collectionService.editCollection(collectionId, collectionDto);
+
+        assertEquals(collectionId, result.getUuid());
+        assertEquals(collectionEntity.getHistoryId(), result.getHistoryUuid());
+        assertEquals(collectionDto.getPages(), result.getPages());
+        verify(collectionRepository, never()).replaceCurrent(any(), any(), any(), any(), any(), any(), any(), any(), anyBoolean(), any());
+        verify(collectionRepository, never()).commitDraft(any());
+        verifyNoInteractions(collectionMapper);
+    }
+
+    @Test
+    void testEditCollectionUnchangedDraftIsCommitted() {
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId))
+                .thenReturn(Optional.of(version(contentHasher.hash(collectionDto), true)));
+
+        CollectionDto result = collectionService.editCollection(collectionId, collectionDto);
+
+        assertEquals(collectionEntity.getHistoryId(), result.getHistoryUuid());
+        assertFalse(result.isDraft());
+        verify(collectionRepository).commitDraft(collectionId);
+        verifyNoInteractions(collectionMapper);
+    }
+
+    @Test
+    void testAutosaveCollectionUnchanged() {
+        when(collectionRepository.tryLockForEdit(collectionId)).thenReturn(true);
+        when(collectionRepository.findCurrentVersion(collectionId))
+                .thenReturn(Optional.of(version(contentHasher.hash(collectionDto), true)));
+
+        CollectionDto result = collectionService.autosaveCollection(collectionId, collectionDto);
+
+        assertTrue(result.isDraft());
+        verify(collectionRepository, never()).findCurrentDraft(any(), any());
+        verify(collectionRepository, never()).commitDraft(any());
+        verifyNoInteractions(collectionMapper);
+    }
+
+    private CollectionVersionProjection storedVersion() {
+        CollectionVersionProjection version = version(collectionEntity.getContentHash(), collectionEntity.isDraft());
+        lenient().when(version.getCreationDate()).thenReturn(collectionEntity.getCreationDate());
+        return version;
+    }
+
+    private CollectionVersionProjection version(String contentHash, boolean draft) {
+        CollectionVersionProjection version = mock(CollectionVersionProjection.class);
+        lenient().when(version.getHistoryId()).thenReturn(collectionEntity.getHistoryId());
+        lenient().when(version.getTitle()).thenReturn(collectionEntity.getTitle());
+        lenient().when(version.getContentHash()).thenReturn(contentHash);
+        lenient().when(version.getDraft()).thenReturn(draft);
+        return version;
+    }
 }
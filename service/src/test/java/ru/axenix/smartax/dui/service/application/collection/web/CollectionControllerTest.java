@@ -7,27 +7,39 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.axenix.smartax.common.security.SecurityContext;
 import ru.axenix.smartax.common.security.UserInfo;
 import ru.axenix.smartax.dui.service.application.collection.service.CollectionService;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionDto;
-import ru.axenix.smartax.dui.service.application.collection.model.CollectionHistoryDto;
 import ru.axenix.smartax.dui.service.application.collection.model.CollectionShortDto;
-import ru.axenix.smartax.dui.service.application.template.model.FileDto;
+import ru.axenix.smartax.dui.service.application.template.model.StreamingFileDto;
+import ru.axenix.smartax.dui.service.model.table.TableRequest;
+import ru.axenix.smartax.dui.service.model.table.TableResponse;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.nio.charset.StandardCharsets;
-import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.zip.GZIPInputStream;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -48,18 +60,18 @@ class CollectionControllerTest {
         String userId = "fd1eb78d-1e09-4ee3-98db-5469108cd7fe";
         UserInfo userInfo = new UserInfo();
         userInfo.setId(userId);
-        List<CollectionShortDto> expectedCollections =
-                Collections.singletonList(new CollectionShortDto());
+        TableRequest request = new TableRequest();
+        TableResponse expectedCollections = new TableResponse(1, List.of(Map.of("title", "title")));
 
         try (MockedStatic<SecurityContext> mockedContext = mockStatic(SecurityContext.class)) {
             mockedContext.when(SecurityContext::getUserInfoOrEmpty).thenReturn(userInfo);
-            when(collectionService.getAllCollections(userId)).thenReturn(expectedCollections);
+            when(collectionService.getAllCollections(userId, request)).thenReturn(expectedCollections);
 
-            List<CollectionShortDto> actualCollections = collectionController.getAllCollections();
+            TableResponse actualCollections = collectionController.getAllCollections(request);
 
             assertNotNull(actualCollections);
             assertEquals(expectedCollections, actualCollections);
-            verify(collectionService).getAllCollections(userId);
+            verify(collectionService).getAllCollections(userId, request);
         }
     }
 
@@ -83,51 +95,97 @@ class CollectionControllerTest {
         UUID collectionUUID = UUID.randomUUID();
         UUID historyUUID = UUID.randomUUID();
         CollectionDto expectedDto = new CollectionDto();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest("GET", "/"), response);
+        when(collectionService.getCollectionHistoryETag(historyUUID)).thenReturn("\"" + historyUUID + "\"");
         when(collectionService.getCollectionByHistoryUUID(historyUUID)).thenReturn(expectedDto);
 
-        CollectionDto actualDto = collectionController.getCollectionByHistory(collectionUUID, historyUUID);
+        CollectionDto actualDto = collectionController.getCollectionByHistory(collectionUUID, historyUUID, request);
 
         assertNotNull(actualDto);
         assertEquals(expectedDto, actualDto);
+        assertEquals("\"" + historyUUID + "\"", response.getHeader(HttpHeaders.ETAG));
         verify(collectionService).getCollectionByHistoryUUID(historyUUID);
     }
 
+    @Test
+    @DisplayName("Получение неизменившейся коллекции из истории изменений")
+    void testGetCollectionByHistoryNotModified() {
+        UUID collectionUUID = UUID.randomUUID();
+        UUID historyUUID = UUID.randomUUID();
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+        servletRequest.addHeader(HttpHeaders.IF_NONE_MATCH, "\"" + historyUUID + "\"");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(collectionService.getCollectionHistoryETag(historyUUID)).thenReturn("\"" + historyUUID + "\"");
+
+        CollectionDto actualDto = collectionController.getCollectionByHistory(
+                collectionUUID, historyUUID, new ServletWebRequest(servletRequest, response));
+
+        assertNull(actualDto);
+        assertEquals(304, response.getStatus());
+        verify(collectionService, never()).getCollectionByHistoryUUID(any());
+    }
+
     @Test
     @DisplayName("Экспорт коллекции")
-    void testExportCollection() {
+    void testExportCollection() throws Exception {
         UUID collectionUUID = UUID.randomUUID();
         String filename = "test-collection";
-        Resource resource = new ByteArrayResource("test data".getBytes(StandardCharsets.UTF_8));
-        FileDto fileDto = new FileDto(filename, resource);
+        byte[] content = "test data".getBytes(StandardCharsets.UTF_8);
+        StreamingFileDto fileDto = new StreamingFileDto(filename, out -> out.write(content));
 
-        when(collectionService.exportCollection(collectionUUID)).thenReturn(fileDto);
+        when(collectionService.exportCollection(collectionUUID, true)).thenReturn(fileDto);
 
-        ResponseEntity<Resource> response = collectionController.exportCollection(collectionUUID);
+        ResponseEntity<StreamingResponseBody> response =
+                collectionController.exportCollection(collectionUUID, true, false);
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(resource, response.getBody());
         assertEquals("application/json", response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
         assertEquals("Content-Disposition",
                 response.getHeaders().getFirst(HttpHeaders.ACCESS_CONTROL_EXPOSE_HEADERS));
         assertEquals("attachment; filename=\"" + filename + ".json\"",
                 response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
-        verify(collectionService).exportCollection(collectionUUID);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        assertArrayEquals(content, out.toByteArray());
+        verify(collectionService).exportCollection(collectionUUID, true);
+    }
+
+    @Test
+    @DisplayName("Экспорт коллекции со сжатием gzip")
+    void testExportCollectionGzip() throws Exception {
+        UUID collectionUUID = UUID.randomUUID();
+        byte[] content = "{}".getBytes(StandardCharsets.UTF_8);
+        when(collectionService.exportCollection(collectionUUID, false))
+                .thenReturn(new StreamingFileDto("test-collection", out -> out.write(content)));
+
+        ResponseEntity<StreamingResponseBody> response =
+                collectionController.exportCollection(collectionUUID, false, true);
+
+        assertEquals("application/gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE));
+        assertEquals("attachment; filename=\"test-collection.json.gz\"",
+                response.getHeaders().getFirst(HttpHeaders.CONTENT_DISPOSITION));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        response.getBody().writeTo(out);
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray()))) {
+            assertArrayEquals(content, in.readAllBytes());
+        }
     }
 
     @Test
     @DisplayName("Получение истории изменений коллекции")
     void testGetCollectionHistory() {
         UUID collectionUUID = UUID.randomUUID();
-        List<CollectionHistoryDto> expectedHistory =
-                Collections.singletonList(new CollectionHistoryDto());
-        when(collectionService.getCollectionHistory(collectionUUID)).thenReturn(expectedHistory);
+        TableRequest request = new TableRequest();
+        TableResponse expectedHistory = new TableResponse(1, List.of(Map.of()));
+        when(collectionService.getCollectionHistory(collectionUUID, request, false)).thenReturn(expectedHistory);
 
-        List<CollectionHistoryDto> actualHistory = collectionController.getCollectionHistory(collectionUUID);
+        TableResponse actualHistory = collectionController.getCollectionHistory(collectionUUID, request, false);
 
         assertNotNull(actualHistory);
         assertEquals(expectedHistory, actualHistory);
-        verify(collectionService).getCollectionHistory(collectionUUID);
+        verify(collectionService).getCollectionHistory(collectionUUID, request, false);
     }
 
     @Test
@@ -166,6 +224,29 @@ class CollectionControllerTest {
         verify(collectionService).editCollection(collectionUUID, collectionToUpdate);
     }
 
+    @Test
+    @DisplayName("Автосохранение коллекции")
+    void testAutosaveCollection() {
+        UUID collectionUUID = UUID.randomUUID();
+        CollectionDto collectionToUpdate = new CollectionDto();
+        CollectionDto expectedCollection = new CollectionDto();
+        when(collectionService.autosaveCollection(collectionUUID, collectionToUpdate)).thenReturn(expectedCollection);
+
+        CollectionDto actualCollection = collectionController.autosaveCollection(collectionUUID, collectionToUpdate);
+
+        assertEquals(expectedCollection, actualCollection);
+    }
+
+    @Test
+    @DisplayName("Фиксация версии коллекции")
+    void testCommitCollection() {
+        UUID collectionUUID = UUID.randomUUID();
+
+        collectionController.commitCollection(collectionUUID);
+
+        verify(collectionService).commitCollection(collectionUUID);
+    }
+
     @Test
     @DisplayName("Удаление коллекции")
     void testDeleteCollection() {
@@ -175,4 +256,18 @@ class CollectionControllerTest {
 
         verify(collectionService, times(1)).deleteCollection(collectionUUID);
     }
+
+    @Test
+    @DisplayName("Импорт коллекций")
+    void testImportCollections() {
+        String userId = "fd1eb78d-1e09-4ee3-98db-5469108cd7fe";
+        List<MultipartFile> files = List.of(new MockMultipartFile("files", "a.json", "application/json", new byte[0]));
+        List<CollectionShortDto> expected = List.of(new CollectionShortDto(UUID.randomUUID(), "A", null));
+        when(collectionService.importCollections(userId, files)).thenReturn(expected);
+
+        List<CollectionShortDto> actual = collectionController.importCollections(files);
+
+        assertEquals(expected, actual);
+        verify(collectionService).importCollections(userId, files);
+    }
 }
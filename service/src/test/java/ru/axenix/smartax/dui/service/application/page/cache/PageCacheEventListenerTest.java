@@ -0,0 +1,48 @@
+package ru.axenix.smartax.dui.service.application.page.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PageCacheEventListenerTest {
+
+    @Mock
+    private PageCache pageCache;
+
+    private PageCacheEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        listener = new PageCacheEventListener(pageCache, new ObjectMapper());
+    }
+
+    @Test
+    void evictsPageFromEvent() {
+        listener.onMessage("{\"type\":\"PAGE_CACHE_EVICT\",\"pageName\":\"main\"}");
+
+        verify(pageCache).evict("main");
+    }
+
+    @Test
+    void ignoresMessagesOfOtherType() {
+        listener.onMessage("{\"type\":\"OTHER\",\"pageName\":\"main\"}");
+
+        verify(pageCache, never()).evict(any());
+    }
+
+    @Test
+    void ignoresMalformedMessages() {
+        listener.onMessage("not a json");
+        listener.onMessage("{\"type\":\"PAGE_CACHE_EVICT\",\"pageName\":{\"nested\":true}}");
+
+        verify(pageCache, never()).evict(any());
+    }
+}
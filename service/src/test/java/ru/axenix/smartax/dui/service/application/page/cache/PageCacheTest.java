@@ -0,0 +1,141 @@
+package ru.axenix.smartax.dui.service.application.page.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.axenix.smartax.dui.service.application.page.model.PageDto;
+import ru.axenix.smartax.dui.service.application.page.model.PageInstructions;
+import ru.axenix.smartax.dui.service.configuration.properties.PageCacheProperties;
+import ru.axenix.smartax.dui.service.error.ApplicationException;
+import ru.axenix.smartax.dui.service.error.ErrorDescription;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class PageCacheTest {
+
+    @Mock
+    private ObjectProvider<PageCacheEventPublisher> eventPublisherProvider;
+
+    private PageCacheProperties properties;
+    private PageCache pageCache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PageCacheProperties();
+        properties.setEnabled(true);
+        pageCache = new PageCache(properties, eventPublisherProvider);
+    }
+
+    @Test
+    void testGetNormalizesName() {
+        AtomicInteger loads = new AtomicInteger();
+        PageDto page = PageDto.builder().name("Main").instructions("{}").build();
+
+        PageDto first = pageCache.get("Main", () -> {
+            loads.incrementAndGet();
+            return page;
+        });
+        PageDto second = pageCache.get(" MAIN ", () -> {
+            loads.incrementAndGet();
+            return page;
+        });
+
+        assertSame(first, second);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void testGetAllInstructionsLoadsOnlyMissing() {
+        pageCache.get("main", () -> PageDto.builder().name("main").instructions("{\"a\":1}").build());
+        List<Set<String>> loads = new ArrayList<>();
+
+        Map<String, PageInstructions> result = pageCache.getAllInstructions(List.of("Main", "List", "absent"), names -> {
+            loads.add(names);
+            return Map.of("LIST", PageDto.builder().name("LIST").instructions("{\"b\":2}").build());
+        });
+
+        assertEquals(List.of(Set.of("list", "absent")), loads);
+        assertEquals(Set.of("main", "list"), result.keySet());
+        assertEquals("{\"a\":1}", new String(result.get("main").getContent(), StandardCharsets.UTF_8));
+        assertEquals("{\"b\":2}", new String(result.get("list").getContent(), StandardCharsets.UTF_8));
+
+        pageCache.getAllInstructions(List.of("list"), names -> {
+            loads.add(names);
+            return Map.of();
+        });
+
+        assertEquals(1, loads.size());
+    }
+
+    @Test
+    void testGetDoesNotCacheError() {
+        AtomicInteger loads = new AtomicInteger();
+
+        assertThrows(ApplicationException.class, () -> pageCache.get("missing", () -> {
+            loads.incrementAndGet();
+            throw ErrorDescription.PAGE_NOT_FOUND.exception();
+        }));
+        pageCache.get("missing", () -> {
+            loads.incrementAndGet();
+            return new PageDto();
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGetDisabled() {
+        properties.setEnabled(false);
+        AtomicInteger loads = new AtomicInteger();
+
+        pageCache.get("main", () -> {
+            loads.incrementAndGet();
+            return new PageDto();
+        });
+        pageCache.get("main", () -> {
+            loads.incrementAndGet();
+            return new PageDto();
+        });
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testInvalidatePublishesEvent() {
+        PageCacheEventPublisher publisher = mock(PageCacheEventPublisher.class);
+        doAnswer(invocation -> {
+            ((Consumer<PageCacheEventPublisher>) invocation.getArgument(0)).accept(publisher);
+            return null;
+        }).when(eventPublisherProvider).ifAvailable(any());
+        pageCache.get("main", PageDto::new);
+
+        pageCache.invalidate("Main");
+
+        AtomicInteger loads = new AtomicInteger();
+        pageCache.get("main", () -> {
+            loads.incrementAndGet();
+            return new PageDto();
+        });
+        assertEquals(1, loads.get());
+        verify(publisher).publish("Main");
+    }
+}
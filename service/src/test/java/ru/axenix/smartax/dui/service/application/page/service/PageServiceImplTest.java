@@ -3,35 +3,53 @@ package ru.axenix.smartax.dui.service.application.page.service;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.IntStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 
 import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ObjectProvider;
+import ru.axenix.smartax.dui.service.application.page.cache.PageCache;
+import ru.axenix.smartax.dui.service.application.page.cache.PageCacheEventPublisher;
 import ru.axenix.smartax.dui.service.application.page.domain.PageEntity;
 import ru.axenix.smartax.dui.service.application.page.domain.PageRepository;
 import ru.axenix.smartax.dui.service.application.page.service.impl.PageServiceImpl;
 import ru.axenix.smartax.dui.service.error.ApplicationException;
 import ru.axenix.smartax.dui.service.application.page.model.PageDto;
+import ru.axenix.smartax.dui.service.application.page.model.PageInstructions;
+import ru.axenix.smartax.dui.service.configuration.properties.PageCacheProperties;
+import ru.axenix.smartax.dui.service.util.ETagUtils;
 
 class PageServiceImplTest {
 
     @Mock
     private PageRepository pageRepository;
 
-    @InjectMocks
+    @Mock
+    private ObjectProvider<PageCacheEventPublisher> eventPublisher;
+
     private PageServiceImpl pageService;
 
     @BeforeEach
     void setUp() {
         MockitoAnnotations.openMocks(this);
+        PageCacheProperties properties = new PageCacheProperties();
+        properties.setEnabled(true);
+        pageService = new PageServiceImpl(pageRepository, new PageCache(properties, eventPublisher));
     }
 
     @Test
@@ -72,7 +90,7 @@ class PageServiceImplTest {
         pageEntity.setAuthor("Test Author");
         pageEntity.setUpdateDateTime(LocalDateTime.now());
         String pageName = "TestPage";
-        when(pageRepository.findByNameEqualsIgnoreCase(pageName)).thenReturn(Optional.of(pageEntity));
+        when(pageRepository.findByNameEqualsIgnoreCase("testpage")).thenReturn(Optional.of(pageEntity));
         PageDto pageDto = pageService.getPageByName(pageName);
         assertNotNull(pageDto);
         assertEquals("Test Title", pageDto.getTitle());
@@ -84,9 +102,89 @@ class PageServiceImplTest {
     @Test
     void testGetPageByName_NonExistingPage() {
         String pageName = "NonExistentPage";
-        when(pageRepository.findByNameEqualsIgnoreCase(pageName)).thenReturn(Optional.empty());
+        when(pageRepository.findByNameEqualsIgnoreCase("nonexistentpage")).thenReturn(Optional.empty());
         assertThrows(ApplicationException.class, () -> {
             pageService.getPageByName(pageName);
         });
     }
+
+    @Test
+    void testGetPageByName_Cached() {
+        PageEntity pageEntity = new PageEntity();
+        pageEntity.setId(UUID.randomUUID());
+        pageEntity.setTitle("Test Title");
+        pageEntity.setInstructions("Test Instructions");
+        when(pageRepository.findByNameEqualsIgnoreCase("testpage")).thenReturn(Optional.of(pageEntity));
+
+        PageDto first = pageService.getPageByName("TestPage");
+        PageDto second = pageService.getPageByName(" testpage ");
+
+        assertEquals(first, second);
+        verify(pageRepository, times(1)).findByNameEqualsIgnoreCase("testpage");
+    }
+
+    @Test
+    void testGetPageByName_TrimsNameOnLoad() {
+        PageEntity pageEntity = new PageEntity();
+        pageEntity.setId(UUID.randomUUID());
+        pageEntity.setTitle("Test Title");
+        when(pageRepository.findByNameEqualsIgnoreCase("testpage")).thenReturn(Optional.of(pageEntity));
+
+        PageDto page = pageService.getPageByName(" TestPage ");
+
+        assertEquals("Test Title", page.getTitle());
+    }
+
+    @Test
+    void testEvictPage() {
+        PageEntity pageEntity = new PageEntity();
+        pageEntity.setId(UUID.randomUUID());
+        pageEntity.setInstructions("Test Instructions");
+        when(pageRepository.findByNameEqualsIgnoreCase("testpage")).thenReturn(Optional.of(pageEntity));
+
+        pageService.getPageByName("TestPage");
+        pageService.evictPage("TESTPAGE");
+        pageService.getPageByName("TestPage");
+
+        verify(pageRepository, times(2)).findByNameEqualsIgnoreCase("testpage");
+        verify(eventPublisher).ifAvailable(any());
+    }
+
+    @Test
+    void testGetPageInstructions() {
+        PageEntity pageEntity = new PageEntity();
+        pageEntity.setId(UUID.randomUUID());
+        pageEntity.setInstructions("{\"title\":\"Главная\"}");
+        when(pageRepository.findByNameEqualsIgnoreCase("testpage")).thenReturn(Optional.of(pageEntity));
+
+        PageInstructions instructions = pageService.getPageInstructions("TestPage");
+
+        assertEquals("{\"title\":\"Главная\"}", new String(instructions.getContent(), StandardCharsets.UTF_8));
+        assertEquals(ETagUtils.content(instructions.getContent()), instructions.getEtag());
+    }
+
+    @Test
+    void testGetPagesInstructions() {
+        PageEntity main = new PageEntity(UUID.randomUUID(), "Main", "Главная", "{\"a\":1}", "author", LocalDateTime.now());
+        PageEntity list = new PageEntity(UUID.randomUUID(), "list", "Список", "{\"b\":2}", "author", LocalDateTime.now());
+        when(pageRepository.findAllByLowerNameIn(Set.of("main", "list", "absent"))).thenReturn(List.of(list, main));
+
+        Map<String, PageInstructions> instructions =
+                pageService.getPagesInstructions(List.of("MAIN", "list", "absent", "MAIN"));
+
+        assertEquals(List.of("MAIN", "list"), List.copyOf(instructions.keySet()));
+        assertEquals("{\"a\":1}", new String(instructions.get("MAIN").getContent(), StandardCharsets.UTF_8));
+        assertEquals("{\"b\":2}", new String(instructions.get("list").getContent(), StandardCharsets.UTF_8));
+
+        pageService.getPagesInstructions(List.of("main", "List"));
+
+        verify(pageRepository, times(1)).findAllByLowerNameIn(any());
+    }
+
+    @Test
+    void testGetPagesInstructions_TooLarge() {
+        List<String> names = IntStream.rangeClosed(0, 100).mapToObj(index -> "page" + index).toList();
+
+        assertThrows(ApplicationException.class, () -> pageService.getPagesInstructions(names));
+    }
 }
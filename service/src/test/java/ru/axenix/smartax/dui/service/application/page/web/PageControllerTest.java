@@ -5,16 +5,31 @@ import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import ru.axenix.smartax.dui.service.application.page.service.PageService;
 import ru.axenix.smartax.dui.service.application.page.model.PageDto;
+import ru.axenix.smartax.dui.service.application.page.model.PageInstructions;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 class PageControllerTest {
@@ -51,14 +66,60 @@ class PageControllerTest {
     void testGetPageInstructions() throws Exception {
         // Arrange
         String pageName = "testPage";
-        PageDto pageDto = new PageDto();
-        pageDto.setName(pageName);
-        pageDto.setInstructions("Test instructions");
-        when(pageService.getPageByName(pageName)).thenReturn(pageDto);
+        byte[] instructions = "{\"title\":\"Тест\"}".getBytes(StandardCharsets.UTF_8);
+        when(pageService.getPageInstructions(pageName))
+                .thenReturn(new PageInstructions(instructions, "\"etag\"", LocalDateTime.now()));
 
         mockMvc.perform(get("/app/v1/page/instructions").param("pageName", pageName))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
-                .andExpect(content().string("Test instructions"));
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, instructions.length))
+                .andExpect(header().string(HttpHeaders.ETAG, "\"etag\""))
+                .andExpect(header().exists(HttpHeaders.LAST_MODIFIED))
+                .andExpect(content().bytes(instructions));
+    }
+
+    @Test
+    void testGetPageInstructionsNotModified() throws Exception {
+        String pageName = "testPage";
+        byte[] instructions = "{}".getBytes(StandardCharsets.UTF_8);
+        when(pageService.getPageInstructions(pageName))
+                .thenReturn(new PageInstructions(instructions, "\"etag\"", LocalDateTime.now()));
+
+        mockMvc.perform(get("/app/v1/page/instructions").param("pageName", pageName)
+                        .header(HttpHeaders.IF_NONE_MATCH, "\"etag\""))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+
+    @Test
+    void testGetPagesInstructions() throws Exception {
+        Map<String, PageInstructions> instructions = new LinkedHashMap<>();
+        instructions.put("main", new PageInstructions(
+                "{\"title\":\"Главная\"}".getBytes(StandardCharsets.UTF_8), "\"main\"", LocalDateTime.now()));
+        instructions.put("list\"", new PageInstructions(
+                "[1,2]".getBytes(StandardCharsets.UTF_8), "\"list\"", LocalDateTime.now()));
+        when(pageService.getPagesInstructions(List.of("main", "list\"", "absent"))).thenReturn(instructions);
+
+        MvcResult result = mockMvc.perform(post("/app/v1/page/instructions/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[\"main\",\"list\\\"\",\"absent\"]"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("{\"main\":{\"title\":\"Главная\"},\"list\\\"\":[1,2]}", true));
+    }
+
+    @Test
+    void testEvictPage() throws Exception {
+        String pageName = "testPage";
+
+        mockMvc.perform(delete("/app/v1/page/cache").param("pageName", pageName))
+                .andExpect(status().isOk());
+
+        verify(pageService).evictPage(pageName);
     }
 }
@@ -0,0 +1,124 @@
+package ru.axenix.smartax.dui.service.application.template.catalog;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.axenix.smartax.dui.service.application.template.domain.TemplateEntity;
+import ru.axenix.smartax.dui.service.application.template.domain.TemplateRepository;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateDto;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateFile;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateType;
+import ru.axenix.smartax.dui.service.configuration.properties.TemplateCatalogProperties;
+import ru.axenix.smartax.dui.service.error.ApplicationException;
+import ru.axenix.smartax.dui.service.util.ETagUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TemplateCatalogTest {
+
+    @Mock
+    private TemplateRepository templateRepository;
+
+    private TemplateCatalogProperties properties;
+    private TemplateCatalog templateCatalog;
+
+    private TemplateEntity page;
+    private TemplateEntity component;
+
+    @BeforeEach
+    void setUp() {
+        properties = new TemplateCatalogProperties();
+        templateCatalog = new TemplateCatalog(templateRepository, properties);
+        page = TemplateEntity.builder()
+                .uuid(UUID.randomUUID())
+                .title("Пустая страница")
+                .filenamePage("blank.json")
+                .filenameImage("blank.png")
+                .type(TemplateType.PAGE)
+                .build();
+        component = TemplateEntity.builder()
+                .uuid(UUID.randomUUID())
+                .title("Несуществующий компонент")
+                .filenamePage("missing.json")
+                .filenameImage("missing.png")
+                .type(TemplateType.COMPONENT)
+                .build();
+    }
+
+    @Test
+    @DisplayName("Каталог загружается один раз и фильтруется по типу")
+    void test_get_templates() {
+        when(templateRepository.findAll()).thenReturn(List.of(page, component));
+
+        List<TemplateDto> all = templateCatalog.getTemplates(null);
+        List<TemplateDto> pages = templateCatalog.getTemplates(TemplateType.PAGE);
+
+        assertEquals(2, all.size());
+        assertEquals(1, pages.size());
+        assertEquals(page.getUuid(), pages.get(0).getUuid());
+        assertEquals("/app/v1/template/" + page.getUuid() + "/image", pages.get(0).getImageUrl());
+        verify(templateRepository, times(1)).findAll();
+    }
+
+    @Test
+    @DisplayName("Файлы шаблона отдаются из памяти с ETag")
+    void test_get_page_and_image() {
+        when(templateRepository.findAll()).thenReturn(List.of(page));
+        templateCatalog.refresh();
+
+        TemplateFile pageFile = templateCatalog.getPage(page.getUuid());
+        TemplateFile imageFile = templateCatalog.getImage(page.getUuid());
+
+        assertEquals("blank.json", pageFile.getFilename());
+        assertTrue(pageFile.getContent().length > 0);
+        assertEquals(ETagUtils.content(pageFile.getContent()), pageFile.getEtag());
+        assertEquals("blank.png", imageFile.getFilename());
+        assertTrue(imageFile.getContent().length > 0);
+    }
+
+    @Test
+    @DisplayName("Отсутствующие шаблоны и файлы приводят к ошибке")
+    void test_get_missing() {
+        when(templateRepository.findAll()).thenReturn(List.of(component));
+        templateCatalog.refresh();
+
+        assertThrows(ApplicationException.class, () -> templateCatalog.getPage(UUID.randomUUID()));
+        assertThrows(ApplicationException.class, () -> templateCatalog.getPage(component.getUuid()));
+        assertThrows(ApplicationException.class, () -> templateCatalog.getImage(component.getUuid()));
+    }
+
+    @Test
+    @DisplayName("Обновление каталога перечитывает шаблоны")
+    void test_refresh() {
+        when(templateRepository.findAll()).thenReturn(List.of(page), List.of(page, component));
+
+        assertEquals(1, templateCatalog.getTemplates(null).size());
+        templateCatalog.refresh();
+
+        assertEquals(2, templateCatalog.getTemplates(null).size());
+    }
+
+    @Test
+    @DisplayName("Каталог перечитывается по истечении TTL")
+    void test_reload_after_ttl() {
+        properties.setTtl(Duration.ZERO);
+        when(templateRepository.findAll()).thenReturn(List.of(page), List.of(page, component));
+
+        assertEquals(1, templateCatalog.getTemplates(null).size());
+        assertEquals(2, templateCatalog.getTemplates(null).size());
+        verify(templateRepository, times(2)).findAll();
+    }
+}
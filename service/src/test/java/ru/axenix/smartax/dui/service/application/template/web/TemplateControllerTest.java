@@ -7,15 +7,15 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import ru.axenix.smartax.dui.service.application.template.service.TemplateService;
-import ru.axenix.smartax.dui.service.application.template.model.FileDto;
 import ru.axenix.smartax.dui.service.application.template.model.TemplateDto;
+import ru.axenix.smartax.dui.service.application.template.model.TemplateFile;
 import ru.axenix.smartax.dui.service.application.template.model.TemplateFilterDto;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
 import java.util.List;
 import java.util.UUID;
@@ -48,14 +48,19 @@ class TemplateControllerTest {
     void testGetTemplatePage() {
         // Given
         UUID uuid = UUID.randomUUID();
-        Resource expectedResource = Mockito.mock(Resource.class);
-        Mockito.when(templateService.getTemplatePage(uuid)).thenReturn(expectedResource);
+        byte[] content = "{}".getBytes(StandardCharsets.UTF_8);
+        TemplateFile page = new TemplateFile("test.json", content, "\"etag\"");
+        Mockito.when(templateService.getTemplatePage(uuid)).thenReturn(page);
 
         // When
-        Resource actualResource = templateController.getTemplatePage(uuid);
+        ResponseEntity<byte[]> responseEntity = templateController.getTemplatePage(uuid);
 
         // Then
-        Assertions.assertEquals(expectedResource, actualResource);
+        Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, responseEntity.getHeaders().getContentType());
+        Assertions.assertEquals("\"etag\"", responseEntity.getHeaders().getETag());
+        Assertions.assertEquals(content.length, responseEntity.getHeaders().getContentLength());
+        Assertions.assertArrayEquals(content, responseEntity.getBody());
         Mockito.verify(templateService, Mockito.times(1)).getTemplatePage(uuid);
     }
 
@@ -64,19 +69,29 @@ class TemplateControllerTest {
         // Given
         UUID uuid = UUID.randomUUID();
         String filename = "test-image.png";
-        Resource resource = Mockito.mock(Resource.class);
-        FileDto fileDto = new FileDto(filename, resource);
-        Mockito.when(templateService.getTemplateImage(uuid)).thenReturn(fileDto);
+        byte[] content = new byte[]{1, 2, 3};
+        TemplateFile image = new TemplateFile(filename, content, "\"etag\"");
+        Mockito.when(templateService.getTemplateImage(uuid)).thenReturn(image);
 
         // When
-        ResponseEntity<Resource> responseEntity = templateController.getTemplateImage(uuid);
+        ResponseEntity<byte[]> responseEntity = templateController.getTemplateImage(uuid);
 
         // Then
         Assertions.assertNotNull(responseEntity);
         Assertions.assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
         Assertions.assertEquals(MediaType.IMAGE_PNG, responseEntity.getHeaders().getContentType());
         Assertions.assertEquals("attachment; filename=" + filename, responseEntity.getHeaders().getFirst("Content-Disposition"));
-        Assertions.assertEquals(resource, responseEntity.getBody());
+        Assertions.assertEquals("\"etag\"", responseEntity.getHeaders().getETag());
+        Assertions.assertArrayEquals(content, responseEntity.getBody());
         Mockito.verify(templateService, Mockito.times(1)).getTemplateImage(uuid);
     }
+
+    @Test
+    void testRefreshTemplates() {
+        // When
+        templateController.refreshTemplates();
+
+        // Then
+        Mockito.verify(templateService, Mockito.times(1)).refreshTemplates();
+    }
 }
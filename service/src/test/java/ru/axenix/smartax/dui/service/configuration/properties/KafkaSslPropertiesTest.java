@@ -0,0 +1,36 @@
+package ru.axenix.smartax.dui.service.configuration.properties;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class KafkaSslPropertiesTest {
+
+    @Test
+    void testClientPropertiesWithSsl() {
+        KafkaSslProperties properties = new KafkaSslProperties();
+        properties.setKeyStoreLocation("/etc/kafka/keystore.jks");
+        properties.setKeyStorePassword("secret");
+        properties.setTrustStoreLocation("/etc/kafka/truststore.jks");
+        properties.setTrustStorePassword(" ");
+
+        assertEquals(Map.of(
+                "security.protocol", "SSL",
+                "ssl.keystore.location", "/etc/kafka/keystore.jks",
+                "ssl.keystore.password", "secret",
+                "ssl.truststore.location", "/etc/kafka/truststore.jks"
+        ), properties.toClientProperties());
+    }
+
+    @Test
+    void testClientPropertiesWithoutSsl() {
+        KafkaSslProperties properties = new KafkaSslProperties();
+        properties.setEnabled(false);
+        properties.setKeyStoreLocation("/etc/kafka/keystore.jks");
+
+        assertTrue(properties.toClientProperties().isEmpty());
+    }
+}